@@ -0,0 +1,98 @@
+package benchmarks;
+
+import java.time.LocalDate;
+
+import model.Channel;
+
+/**
+ * Builds the channels measured by the benchmarks. The data is deterministic so
+ * that runs can be compared with each other
+ */
+final class Fixtures {
+	// Constants
+	static final LocalDate PREMIER_DATE = LocalDate.of(2020, 1, 1);
+	static final int CATEGORIES = 5;
+
+	/**
+	 * Constructor of the fixtures class, which is not instantiated
+	 */
+	private Fixtures() {
+	}
+
+	/**
+	 * Returns the id of a generated subscriber
+	 *
+	 * @param index the position of the subscriber
+	 * @return the id of the subscriber
+	 */
+	static String subscriberId(int index) {
+		return "S" + index;
+	}
+
+	/**
+	 * Returns the name of a generated product
+	 *
+	 * @param index the position of the product
+	 * @return the name of the product
+	 */
+	static String productName(int index) {
+		return (index % 2 == 0 ? "Movie " : "Show ") + index;
+	}
+
+	/**
+	 * Creates a channel with storage for a number of subscribers and products
+	 *
+	 * @param subscribers the number of subscribers to make room for
+	 * @param products    the number of products to make room for
+	 * @return the empty channel
+	 */
+	static Channel emptyChannel(int subscribers, int products) {
+		return new Channel("900123456", "Calle 1", "blacksnail.example", Math.max(subscribers, 1),
+				Math.max(products, 1));
+	}
+
+	/**
+	 * Adds generated subscribers to a channel. Ages go from 5 to 79 and hours from
+	 * 0 to 999, and one subscriber out of ten is deactivated
+	 *
+	 * @param channel the channel to fill
+	 * @param count   the number of subscribers to add
+	 */
+	static void addSubscribers(Channel channel, int count) {
+		for (int i = 0; i < count; i++) {
+			channel.addSubscriber(subscriberId(i), "Subscriber " + i, 5 + i % 75, (i * 31) % 1000);
+
+			if (i % 10 == 0) {
+				channel.searchSubscriber(subscriberId(i)).setActive(false);
+			}
+		}
+	}
+
+	/**
+	 * Adds generated products to a channel. Even positions are movies spread over
+	 * the categories and odd positions are shows with a number of seasons
+	 *
+	 * @param channel        the channel to fill
+	 * @param count          the number of products to add
+	 * @param seasonsPerShow the number of seasons of each show
+	 */
+	static void addProducts(Channel channel, int count, int seasonsPerShow) {
+		for (int i = 0; i < count; i++) {
+			String name = productName(i);
+
+			if (i % 2 == 0) {
+				channel.addProduct(name, "Director " + i % 100, "Synopsis " + i, PREMIER_DATE, "Producer " + i % 50,
+						i % 18, "https://trailers.example/" + i, 1 + (i / 2) % CATEGORIES);
+			} else {
+				channel.addProduct(name, "Director " + i % 100, "Synopsis " + i, PREMIER_DATE,
+						new String[] { "Protagonist " + i % 200, "Protagonist " + (i + 1) % 200 }, i % 7 == 0,
+						i % 7 == 0 ? "Violence" : "");
+
+				for (int season = 0; season < seasonsPerShow; season++) {
+					channel.addSeasonToShow(name, 10, PREMIER_DATE.plusYears(season + 1L),
+							"https://trailers.example/" + i + "/" + season);
+				}
+			}
+		}
+	}
+}
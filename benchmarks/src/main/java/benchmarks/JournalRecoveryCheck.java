@@ -0,0 +1,381 @@
+package benchmarks;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+import model.Channel;
+import model.ChannelJournal;
+import model.ChannelJournal.SyncPolicy;
+import model.Movie;
+import model.Product;
+import model.Season;
+import model.Show;
+import model.Subscriber;
+
+/**
+ * Checks that a channel is recovered from its snapshot and journal. For every
+ * sync policy, a random workload (with checkpoints in the middle) is recovered
+ * and compared with the channel that produced it. Then a crash in the middle of
+ * a checkpoint is simulated by recovering the old journal over the new
+ * snapshot, and the last record of the journal is torn and corrupted to check
+ * that recovery drops it and that the journal can be appended again.
+ *
+ * <p>
+ * It runs from the benchmarks jar:
+ * <code>java -cp target/benchmarks.jar benchmarks.JournalRecoveryCheck</code>
+ */
+public final class JournalRecoveryCheck {
+	// Constants
+	private static final int OPERATIONS = 20000;
+	private static final long SEED = 11;
+	private static final LocalDate FIRST_DATE = LocalDate.of(2000, 1, 1);
+
+	/**
+	 * Constructor of the journal recovery check class, which is not instantiated
+	 */
+	private JournalRecoveryCheck() {
+	}
+
+	/**
+	 * Runs every check, and exits with status 1 if one of them fails
+	 *
+	 * @param args not used
+	 * @throws IOException if the temporary files cannot be written
+	 */
+	public static void main(String[] args) throws IOException {
+		Path directory = Files.createTempDirectory("blacksnail-journal");
+		boolean passed = true;
+
+		for (SyncPolicy policy : SyncPolicy.values()) {
+			passed &= checkRecovery(directory, policy);
+		}
+
+		passed &= checkTornRecord(directory);
+
+		System.out.println(passed ? "All checks passed" : "Some checks failed, files kept in " + directory);
+		if (!passed) {
+			System.exit(1);
+		}
+	}
+
+	/**
+	 * Recovers the channel of a random workload, after it finishes and after a
+	 * crash in the middle of its last checkpoint
+	 *
+	 * @param directory the directory of the files
+	 * @param policy    the sync policy of the journal
+	 * @return a boolean indicating if the recovered channels are equal to the
+	 *         original one
+	 * @throws IOException if the files cannot be written
+	 */
+	private static boolean checkRecovery(Path directory, SyncPolicy policy) throws IOException {
+		Path snapshot = directory.resolve(policy + ".snap");
+		Path journalPath = directory.resolve(policy + ".journal");
+		Path oldJournal = directory.resolve(policy + ".journal.old");
+
+		Channel channel = new Channel("900123456", "Calle 1", "blacksnail.example");
+		ChannelJournal journal = ChannelJournal.open(journalPath, policy, 5);
+		channel.setJournal(journal, snapshot);
+
+		Random random = new Random(SEED);
+		for (int i = 0; i < OPERATIONS; i++) {
+			if (random.nextInt(1000) == 0) {
+				journal.checkpoint(channel, snapshot);
+			} else {
+				change(channel, random, i);
+			}
+		}
+
+		// Keep the journal that a crash before the rotation of the next checkpoint
+		// would leave next to the new snapshot
+		journal.sync();
+		Files.copy(journalPath, oldJournal, StandardCopyOption.REPLACE_EXISTING);
+
+		String expected = describe(channel);
+		boolean recovered = expected.equals(describe(ChannelJournal.recover(snapshot, journalPath)));
+		report(policy + " recovery", recovered);
+
+		journal.checkpoint(channel, snapshot);
+		journal.close();
+		boolean replayed = expected.equals(describe(ChannelJournal.recover(snapshot, oldJournal)));
+		report(policy + " journal replayed over its checkpoint", replayed);
+
+		return recovered && replayed;
+	}
+
+	/**
+	 * Tears and corrupts the last record of a journal, and checks that recovery
+	 * drops it and that the journal can be opened and appended again
+	 *
+	 * @param directory the directory of the files
+	 * @return a boolean indicating if every torn journal was recovered
+	 * @throws IOException if the files cannot be written
+	 */
+	private static boolean checkTornRecord(Path directory) throws IOException {
+		Path snapshot = directory.resolve("torn.snap");
+		Path journalPath = directory.resolve("torn.journal");
+		Path complete = directory.resolve("torn.journal.complete");
+
+		Channel channel = new Channel("900123456", "Calle 1", "blacksnail.example");
+		ChannelJournal journal = ChannelJournal.open(journalPath, SyncPolicy.NEVER, 5);
+		channel.setJournal(journal, snapshot);
+
+		Random random = new Random(SEED);
+		for (int i = 0; i < OPERATIONS / 10; i++) {
+			change(channel, random, i);
+		}
+
+		journal.sync();
+		String before = describe(channel);
+		long beforeSize = Files.size(journalPath);
+
+		// The last record adds a show, which is torn and corrupted below
+		channel.addProduct("Torn show", "Director", "Synopsis", FIRST_DATE, new String[] { "Protagonist" }, false,
+				null);
+		journal.close();
+		Files.copy(journalPath, complete, StandardCopyOption.REPLACE_EXISTING);
+		long size = Files.size(journalPath);
+
+		boolean passed = true;
+		for (long length = beforeSize; length < size; length++) {
+			Files.copy(complete, journalPath, StandardCopyOption.REPLACE_EXISTING);
+			try (FileChannel file = FileChannel.open(journalPath, StandardOpenOption.WRITE)) {
+				file.truncate(length);
+			}
+
+			passed &= before.equals(describe(ChannelJournal.recover(snapshot, journalPath)));
+		}
+		report("torn last record", passed);
+
+		// Flip every byte of the last record
+		boolean corrupted = true;
+		for (long position = beforeSize; position < size; position++) {
+			Files.copy(complete, journalPath, StandardCopyOption.REPLACE_EXISTING);
+			try (FileChannel file = FileChannel.open(journalPath, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+				ByteBuffer value = ByteBuffer.allocate(1);
+				file.read(value, position);
+				value.put(0, (byte) ~value.get(0));
+				value.rewind();
+				file.write(value, position);
+			}
+
+			corrupted &= before.equals(describe(ChannelJournal.recover(snapshot, journalPath)));
+		}
+		report("corrupted last record", corrupted);
+
+		// Opening the torn journal drops the incomplete record, so new records are
+		// recovered after the complete ones
+		Files.copy(complete, journalPath, StandardCopyOption.REPLACE_EXISTING);
+		try (FileChannel file = FileChannel.open(journalPath, StandardOpenOption.WRITE)) {
+			file.truncate(size - 1);
+		}
+
+		Channel reopened = ChannelJournal.recover(snapshot, journalPath);
+		ChannelJournal appended = ChannelJournal.open(journalPath, SyncPolicy.NEVER, 5);
+		reopened.setJournal(appended, snapshot);
+		reopened.addSubscriber("after-tear", "After tear", 30, 10);
+		appended.close();
+
+		Channel recovered = ChannelJournal.recover(snapshot, journalPath);
+		boolean resumed = recovered.searchSubscriber("after-tear") != null
+				&& recovered.searchProduct("Torn show") == null;
+		report("journal appended after a torn record", resumed);
+
+		return passed && corrupted && resumed;
+	}
+
+	/**
+	 * Applies a random change to a channel: subscribers, products and seasons are
+	 * added, updated, renamed and removed
+	 *
+	 * @param channel the channel to change
+	 * @param random  the source of the change
+	 * @param step    the position of the change in the workload
+	 */
+	private static void change(Channel channel, Random random, int step) {
+		String id = Integer.toString(random.nextInt(500));
+
+		switch (random.nextInt(12)) {
+		case 0:
+		case 1:
+			channel.addSubscriber(id, "Subscriber " + random.nextInt(50), random.nextInt(80), random.nextInt(300));
+			break;
+		case 2:
+			channel.removeSubscriber(id);
+			break;
+		case 3:
+			changeSubscriber(channel.searchSubscriber(id), random);
+			break;
+		case 4:
+			channel.addProduct("Movie " + random.nextInt(200), "Director " + random.nextInt(9),
+					"Synopsis " + random.nextInt(99), FIRST_DATE.plusDays(random.nextInt(5000)), "Producer",
+					random.nextInt(18), "Trailer", 1 + random.nextInt(Fixtures.CATEGORIES));
+			break;
+		case 5:
+			channel.addProduct("Show " + random.nextInt(200), "Director " + random.nextInt(9), "Synopsis",
+					FIRST_DATE, new String[] { "Protagonist " + random.nextInt(5) }, random.nextBoolean(), "Motif");
+			break;
+		case 6:
+			channel.addSeasonToShow("Show " + random.nextInt(200), random.nextInt(20),
+					FIRST_DATE.plusDays(random.nextInt(900)), "Trailer");
+			break;
+		case 7:
+			changeProduct(channel.searchProduct((random.nextBoolean() ? "Movie " : "Show ") + random.nextInt(200)),
+					random);
+			break;
+		case 8:
+			changeSeason(channel.searchProduct("Show " + random.nextInt(200)), random);
+			break;
+		default:
+			channel.addSubscriber(Integer.toString(1000 + step), "Batch", random.nextInt(80), random.nextInt(300));
+		}
+	}
+
+	/**
+	 * Changes one attribute of a subscriber
+	 *
+	 * @param subscriber the subscriber to change, which may be null
+	 * @param random     the source of the change
+	 */
+	private static void changeSubscriber(Subscriber subscriber, Random random) {
+		if (subscriber == null) {
+			return;
+		}
+
+		switch (random.nextInt(6)) {
+		case 0:
+			subscriber.setAge(random.nextInt(90));
+			break;
+		case 1:
+			subscriber.setHoursToConsume(random.nextInt(100));
+			break;
+		case 2:
+			subscriber.setType(1 + random.nextInt(4));
+			break;
+		case 3:
+			subscriber.setActive(random.nextBoolean());
+			break;
+		case 4:
+			subscriber.setFullName("Renamed " + random.nextInt(9));
+			break;
+		default:
+			subscriber.setId(random.nextBoolean() ? "x" + random.nextInt(300) : Integer.toString(random.nextInt(500)));
+		}
+	}
+
+	/**
+	 * Changes the name or another attribute of a product
+	 *
+	 * @param product the product to change, which may be null
+	 * @param random  the source of the change
+	 */
+	private static void changeProduct(Product product, Random random) {
+		if (product == null) {
+			return;
+		}
+
+		switch (random.nextInt(4)) {
+		case 0:
+			product.setName((product instanceof Show ? "Show " : "Movie ") + random.nextInt(250));
+			break;
+		case 1:
+			product.setNameOfDirector("Director " + random.nextInt(4));
+			break;
+		case 2:
+			product.setPremierDate(FIRST_DATE.plusDays(random.nextInt(99)));
+			break;
+		default:
+			if (product instanceof Movie) {
+				((Movie) product).setCategory(1 + random.nextInt(Fixtures.CATEGORIES));
+				((Movie) product).setMinimumWatchAge(random.nextInt(20));
+			} else {
+				((Show) product).setCensored(random.nextBoolean());
+				((Show) product).setProtagonists(new String[] { "Protagonist " + random.nextInt(7) });
+			}
+		}
+	}
+
+	/**
+	 * Changes one attribute of a random season of a show
+	 *
+	 * @param product the show to change, which may be null
+	 * @param random  the source of the change
+	 */
+	private static void changeSeason(Product product, Random random) {
+		if (!(product instanceof Show) || ((Show) product).getSeasonCount() == 0) {
+			return;
+		}
+
+		Season[] seasons = ((Show) product).getSeasons();
+		Season season = seasons[random.nextInt(seasons.length)];
+
+		switch (random.nextInt(5)) {
+		case 0:
+			season.setSeasonNumber(random.nextInt(30));
+			break;
+		case 1:
+			season.setScheduledEpisodes(random.nextInt(20));
+			break;
+		case 2:
+			season.setPublishedEpisodes(random.nextInt(20));
+			break;
+		case 3:
+			season.setPremierDate(FIRST_DATE.plusDays(random.nextInt(900)));
+			break;
+		default:
+			season.setTrailerUrl("Trailer " + random.nextInt(9));
+		}
+	}
+
+	/**
+	 * Describes the whole content of a channel, independently of the order of
+	 * its subscribers and products
+	 *
+	 * @param channel the channel to describe
+	 * @return the description of the channel
+	 */
+	private static String describe(Channel channel) {
+		List<String> subscribers = new ArrayList<>();
+		for (Subscriber subscriber : channel.getSubscribers()) {
+			subscribers.add(subscriber.toString());
+		}
+		Collections.sort(subscribers);
+
+		List<String> products = new ArrayList<>();
+		for (Product product : channel.getProducts()) {
+			StringBuilder description = new StringBuilder(product.toString());
+
+			if (product instanceof Show) {
+				for (Season season : ((Show) product).getSeasons()) {
+					description.append('\n').append(season);
+				}
+			}
+
+			products.add(description.toString());
+		}
+		Collections.sort(products);
+
+		return channel.getNit() + channel.getAddress() + channel.getWebsite() + "\n" + String.join("\n", subscribers)
+				+ "\n" + String.join("\n", products);
+	}
+
+	/**
+	 * Prints the result of a check
+	 *
+	 * @param check  the name of the check
+	 * @param passed a boolean indicating if the check passed
+	 */
+	private static void report(String check, boolean passed) {
+		System.out.println((passed ? "ok     " : "FAILED ") + check);
+	}
+}
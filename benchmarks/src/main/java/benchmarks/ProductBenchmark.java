@@ -0,0 +1,88 @@
+package benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import model.Channel;
+import model.Product;
+
+/**
+ * Benchmarks of the product operations of Channel, over catalogs of several
+ * sizes
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ProductBenchmark {
+	// Attributes
+	@Param({ "100", "1000", "10000" })
+	public int productCount;
+
+	@Param({ "1", "10" })
+	public int seasonsPerShow;
+
+	private Channel channel;
+	private String[] names;
+	private int next;
+
+	/**
+	 * Builds the catalog and the names to look up, half of them with a different
+	 * case than the stored names
+	 */
+	@Setup(Level.Trial)
+	public void setUp() {
+		channel = Fixtures.emptyChannel(1, productCount);
+		Fixtures.addProducts(channel, productCount, seasonsPerShow);
+
+		names = new String[1024];
+		for (int i = 0; i < names.length; i++) {
+			String name = Fixtures.productName((int) ((i * 2654435761L) % productCount));
+			names[i] = i % 2 == 0 ? name : name.toUpperCase();
+		}
+	}
+
+	/**
+	 * Measures the search of a product by name
+	 *
+	 * @return the found product
+	 */
+	@Benchmark
+	public Product searchProduct() {
+		return channel.searchProduct(names[next++ & (names.length - 1)]);
+	}
+
+	/**
+	 * Measures the listing of the movies of a category
+	 *
+	 * @return the listing
+	 */
+	@Benchmark
+	public String printMoviesOfCategory() {
+		return channel.printMoviesOfCategory(1 + next++ % Fixtures.CATEGORIES);
+	}
+
+	/**
+	 * Measures the listing of the shows with their last seasons
+	 *
+	 * @return the listing
+	 */
+	@Benchmark
+	public String printShowsWithLastSeasons() {
+		return channel.printShowsWithLastSeasons();
+	}
+}
@@ -0,0 +1,160 @@
+package benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import model.Channel;
+import model.Subscriber;
+import model.SubscriberStatistics;
+
+/**
+ * Benchmarks of the subscriber operations of Channel, over channels of several
+ * sizes
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SubscriberBenchmark {
+	// Attributes
+	@Param({ "1000", "10000", "100000" })
+	public int subscriberCount;
+
+	private Channel channel;
+	private String[] ids;
+	private String[] missingIds;
+	private int next;
+
+	/**
+	 * Builds the channel with its subscribers and the ids to look up
+	 */
+	@Setup(Level.Trial)
+	public void setUp() {
+		channel = Fixtures.emptyChannel(subscriberCount, 1);
+		Fixtures.addSubscribers(channel, subscriberCount);
+
+		ids = new String[1024];
+		missingIds = new String[ids.length];
+		for (int i = 0; i < ids.length; i++) {
+			ids[i] = Fixtures.subscriberId((int) ((i * 2654435761L) % subscriberCount));
+			missingIds[i] = "missing-" + i;
+		}
+	}
+
+	/**
+	 * Measures the search of an existing subscriber
+	 *
+	 * @return the found subscriber
+	 */
+	@Benchmark
+	public Subscriber searchSubscriber() {
+		return channel.searchSubscriber(ids[next++ & (ids.length - 1)]);
+	}
+
+	/**
+	 * Measures the search of an id that is not registered
+	 *
+	 * @return null, as no subscriber is found
+	 */
+	@Benchmark
+	public Subscriber searchMissingSubscriber() {
+		return channel.searchSubscriber(missingIds[next++ & (missingIds.length - 1)]);
+	}
+
+	/**
+	 * Measures the report of active subscribers by type
+	 *
+	 * @return the report
+	 */
+	@Benchmark
+	public String printActiveSubscribersByType() {
+		return channel.printActiveSubscribersByType();
+	}
+
+	/**
+	 * Measures the search of the minor subscriber with the most hours
+	 *
+	 * @return the name of the subscriber
+	 */
+	@Benchmark
+	public String printMinorMostHoursSub() {
+		return channel.printMinorMostHoursSub();
+	}
+
+	/**
+	 * Measures the parallel aggregation of every subscriber
+	 *
+	 * @return the statistics
+	 */
+	@Benchmark
+	public SubscriberStatistics getSubscriberStatistics() {
+		return channel.getSubscriberStatistics();
+	}
+
+	/**
+	 * Benchmark of filling a new channel, so that the cost of each addSubscriber
+	 * call can be compared across sizes (a linear duplicate check shows up as a
+	 * quadratic total)
+	 */
+	@State(Scope.Thread)
+	@BenchmarkMode(Mode.SingleShotTime)
+	@OutputTimeUnit(TimeUnit.MILLISECONDS)
+	@Warmup(iterations = 5)
+	@Measurement(iterations = 10)
+	@Fork(1)
+	public static class AddSubscribers {
+		// Attributes
+		@Param({ "1000", "10000", "100000" })
+		public int subscriberCount;
+
+		private String[] ids;
+		private Channel channel;
+
+		/**
+		 * Generates the ids once per trial
+		 */
+		@Setup(Level.Trial)
+		public void generateIds() {
+			ids = new String[subscriberCount];
+			for (int i = 0; i < subscriberCount; i++) {
+				ids[i] = Fixtures.subscriberId(i);
+			}
+		}
+
+		/**
+		 * Creates an empty channel before every measured fill
+		 */
+		@Setup(Level.Invocation)
+		public void createChannel() {
+			channel = Fixtures.emptyChannel(Channel.INITIAL_SUBS_CAPACITY, 1);
+		}
+
+		/**
+		 * Measures adding every subscriber to an empty channel
+		 *
+		 * @return the filled channel
+		 */
+		@Benchmark
+		public Channel addSubscribers() {
+			for (int i = 0; i < ids.length; i++) {
+				channel.addSubscriber(ids[i], "Subscriber", 5 + i % 75, i % 1000);
+			}
+
+			return channel;
+		}
+	}
+}
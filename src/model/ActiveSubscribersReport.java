@@ -0,0 +1,55 @@
+package model;
+
+import java.util.Arrays;
+
+/**
+ * Snapshot of the number of active subscribers of a channel by type
+ */
+public class ActiveSubscribersReport {
+	// Attributes
+	private int total;
+	private int[] countsByType;
+
+	/**
+	 * Constructor of the active subscribers report class
+	 *
+	 * @param total        number of active subscribers
+	 * @param countsByType number of active subscribers indexed by the ordinal of
+	 *                     their type. The array is copied
+	 */
+	public ActiveSubscribersReport(int total, int[] countsByType) {
+		this.total = total;
+		this.countsByType = Arrays.copyOf(countsByType, SubscriberType.values().length);
+	}
+
+	/**
+	 * Returns the total
+	 *
+	 * @return number of active subscribers
+	 */
+	public int getTotal() {
+		return total;
+	}
+
+	/**
+	 * Returns the number of active subscribers of a type
+	 *
+	 * @param type the type to count
+	 * @return number of active subscribers of the type
+	 */
+	public int getCount(SubscriberType type) {
+		return countsByType[type.ordinal()];
+	}
+
+	/**
+	 * Synthesizes the information of the report in a String
+	 *
+	 * @return a string representation of the object
+	 */
+	@Override
+	public String toString() {
+		return "There are " + total + " active subscribers distributed like this: \nNormal: "
+				+ getCount(SubscriberType.NORMAL) + "\nGold: " + getCount(SubscriberType.GOLD) + "\nPlatinum: "
+				+ getCount(SubscriberType.PLATINUM) + "\nDiamond: " + getCount(SubscriberType.DIAMOND);
+	}
+}
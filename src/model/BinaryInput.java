@@ -0,0 +1,205 @@
+package model;
+
+import java.io.Closeable;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.SeekableByteChannel;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Buffered reader of the values written by a BinaryOutput
+ */
+class BinaryInput implements Closeable {
+	// Attributes
+	private ReadableByteChannel channel;
+	private ByteBuffer buffer;
+	private boolean endReached;
+
+	/**
+	 * Constructor of the binary input class
+	 *
+	 * @param channel the channel from which the bytes are read
+	 */
+	BinaryInput(ReadableByteChannel channel) {
+		this.channel = channel;
+		buffer = ByteBuffer.allocate(BinaryOutput.BUFFER_SIZE);
+		buffer.flip();
+	}
+
+	/**
+	 * Reads a byte
+	 *
+	 * @return the value that was read
+	 * @throws IOException if the channel cannot be read or ends before the value
+	 */
+	byte readByte() throws IOException {
+		require(1);
+		return buffer.get();
+	}
+
+	/**
+	 * Reads a boolean
+	 *
+	 * @return the value that was read
+	 * @throws IOException if the channel cannot be read or ends before the value
+	 */
+	boolean readBoolean() throws IOException {
+		return readByte() != 0;
+	}
+
+	/**
+	 * Reads a short
+	 *
+	 * @return the value that was read
+	 * @throws IOException if the channel cannot be read or ends before the value
+	 */
+	short readShort() throws IOException {
+		require(2);
+		return buffer.getShort();
+	}
+
+	/**
+	 * Reads an int
+	 *
+	 * @return the value that was read
+	 * @throws IOException if the channel cannot be read or ends before the value
+	 */
+	int readInt() throws IOException {
+		require(4);
+		return buffer.getInt();
+	}
+
+	/**
+	 * Reads a long
+	 *
+	 * @return the value that was read
+	 * @throws IOException if the channel cannot be read or ends before the value
+	 */
+	long readLong() throws IOException {
+		require(8);
+		return buffer.getLong();
+	}
+
+	/**
+	 * Reads a string, which may be null
+	 *
+	 * @return the string that was read
+	 * @throws IOException if the channel cannot be read or ends before the string
+	 */
+	String readString() throws IOException {
+		int length = readInt();
+
+		if (length == -1) {
+			return null;
+		} else if (length < 0 || length > remaining()) {
+			throw new IOException("Corrupted string length: " + length);
+		}
+
+		// Decode directly from the buffer when the whole string is already in it
+		if (buffer.hasArray() && buffer.remaining() >= length) {
+			String value = new String(buffer.array(), buffer.arrayOffset() + buffer.position(), length,
+					StandardCharsets.UTF_8);
+			buffer.position(buffer.position() + length);
+			return value;
+		}
+
+		byte[] bytes = new byte[length];
+		readBytes(bytes);
+
+		return new String(bytes, StandardCharsets.UTF_8);
+	}
+
+	/**
+	 * Fills an array with the next bytes
+	 *
+	 * @param bytes the array to fill
+	 * @throws IOException if the channel cannot be read or ends before the array is
+	 *                     full
+	 */
+	void readBytes(byte[] bytes) throws IOException {
+		int offset = 0;
+
+		while (offset < bytes.length) {
+			if (!buffer.hasRemaining()) {
+				require(1);
+			}
+
+			int length = Math.min(buffer.remaining(), bytes.length - offset);
+			buffer.get(bytes, offset, length);
+			offset += length;
+		}
+	}
+
+	/**
+	 * Checks if every byte of the channel was read
+	 *
+	 * @return a true or false value
+	 * @throws IOException if the channel cannot be read
+	 */
+	boolean isAtEnd() throws IOException {
+		if (!buffer.hasRemaining() && !endReached) {
+			fill();
+		}
+
+		return !buffer.hasRemaining();
+	}
+
+	/**
+	 * Returns the number of bytes that are left to read. It is only known when the
+	 * channel is a file or another seekable channel
+	 *
+	 * @return the number of bytes left, or Long.MAX_VALUE if it is unknown
+	 * @throws IOException if the channel cannot be read
+	 */
+	long remaining() throws IOException {
+		if (!(channel instanceof SeekableByteChannel)) {
+			return Long.MAX_VALUE;
+		}
+
+		SeekableByteChannel file = (SeekableByteChannel) channel;
+
+		return Math.max(file.size() - file.position(), 0) + buffer.remaining();
+	}
+
+	/**
+	 * Closes the channel
+	 */
+	@Override
+	public void close() throws IOException {
+		channel.close();
+	}
+
+	/**
+	 * Makes sure that a number of bytes are buffered
+	 *
+	 * @param bytes the number of bytes that will be read
+	 * @throws IOException if the channel ends before the bytes are available
+	 */
+	private void require(int bytes) throws IOException {
+		while (buffer.remaining() < bytes) {
+			if (endReached || !fill()) {
+				throw new EOFException("Unexpected end of data");
+			}
+		}
+	}
+
+	/**
+	 * Reads more bytes from the channel, keeping the ones not read yet
+	 *
+	 * @return a boolean indicating if any byte was read
+	 * @throws IOException if the channel cannot be read
+	 */
+	private boolean fill() throws IOException {
+		buffer.compact();
+		int read = channel.read(buffer);
+		buffer.flip();
+
+		if (read == -1) {
+			endReached = true;
+		}
+
+		return read > 0;
+	}
+}
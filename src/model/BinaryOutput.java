@@ -0,0 +1,161 @@
+package model;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Buffered writer of primitive values and strings to a byte channel. Values are
+ * written in big-endian order and strings as their UTF-8 length followed by
+ * their bytes
+ */
+class BinaryOutput implements Closeable {
+	// Constants
+	static final int BUFFER_SIZE = 1 << 16;
+
+	// Attributes
+	private WritableByteChannel channel;
+	private ByteBuffer buffer;
+
+	/**
+	 * Constructor of the binary output class
+	 *
+	 * @param channel the channel in which the bytes are written
+	 */
+	BinaryOutput(WritableByteChannel channel) {
+		this.channel = channel;
+		buffer = ByteBuffer.allocateDirect(BUFFER_SIZE);
+	}
+
+	/**
+	 * Writes the lowest byte of an int
+	 *
+	 * @param value the byte to write
+	 * @throws IOException if the channel cannot be written
+	 */
+	void writeByte(int value) throws IOException {
+		ensureRoom(1);
+		buffer.put((byte) value);
+	}
+
+	/**
+	 * Writes a boolean as one byte
+	 *
+	 * @param value the boolean to write
+	 * @throws IOException if the channel cannot be written
+	 */
+	void writeBoolean(boolean value) throws IOException {
+		writeByte(value ? 1 : 0);
+	}
+
+	/**
+	 * Writes the lowest two bytes of an int
+	 *
+	 * @param value the short to write
+	 * @throws IOException if the channel cannot be written
+	 */
+	void writeShort(int value) throws IOException {
+		ensureRoom(2);
+		buffer.putShort((short) value);
+	}
+
+	/**
+	 * Writes an int
+	 *
+	 * @param value the int to write
+	 * @throws IOException if the channel cannot be written
+	 */
+	void writeInt(int value) throws IOException {
+		ensureRoom(4);
+		buffer.putInt(value);
+	}
+
+	/**
+	 * Writes a long
+	 *
+	 * @param value the long to write
+	 * @throws IOException if the channel cannot be written
+	 */
+	void writeLong(long value) throws IOException {
+		ensureRoom(8);
+		buffer.putLong(value);
+	}
+
+	/**
+	 * Writes a string, which may be null
+	 *
+	 * @param value the string to write
+	 * @throws IOException if the channel cannot be written
+	 */
+	void writeString(String value) throws IOException {
+		if (value == null) {
+			writeInt(-1);
+			return;
+		}
+
+		byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+		writeInt(bytes.length);
+		writeBytes(bytes);
+	}
+
+	/**
+	 * Writes raw bytes, flushing the buffer as many times as needed
+	 *
+	 * @param bytes the bytes to write
+	 * @throws IOException if the channel cannot be written
+	 */
+	void writeBytes(byte[] bytes) throws IOException {
+		int offset = 0;
+
+		while (offset < bytes.length) {
+			if (!buffer.hasRemaining()) {
+				flush();
+			}
+
+			int length = Math.min(buffer.remaining(), bytes.length - offset);
+			buffer.put(bytes, offset, length);
+			offset += length;
+		}
+	}
+
+	/**
+	 * Writes every buffered byte to the channel
+	 *
+	 * @throws IOException if the channel cannot be written
+	 */
+	void flush() throws IOException {
+		buffer.flip();
+
+		while (buffer.hasRemaining()) {
+			channel.write(buffer);
+		}
+
+		buffer.clear();
+	}
+
+	/**
+	 * Flushes the buffer and closes the channel
+	 */
+	@Override
+	public void close() throws IOException {
+		try {
+			flush();
+		} finally {
+			channel.close();
+		}
+	}
+
+	/**
+	 * Flushes the buffer if it cannot hold a number of bytes
+	 *
+	 * @param bytes the number of bytes that will be put
+	 * @throws IOException if the channel cannot be written
+	 */
+	private void ensureRoom(int bytes) throws IOException {
+		if (buffer.remaining() < bytes) {
+			flush();
+		}
+	}
+}
@@ -0,0 +1,656 @@
+package model;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.DateTimeException;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Streaming loader of subscribers, movies, shows and seasons from a delimited
+ * text file (CSV or TSV). The file is read line by line, so it is never fully held in memory.
+ * Each line is one record whose first field is its kind:
+ *
+ * <pre>
+ * SUBSCRIBER id  fullName  age  hoursToConsume  active  type
+ * MOVIE  name  director  synopsis  premierDate  producer  minimumWatchAge  trailerUrl  category
+ * SHOW   name  director  synopsis  premierDate  protagonists  censored  censorMotif
+ * SEASON showName  scheduledEpisodes  premierDate  trailerUrl
+ * </pre>
+ *
+ * Dates use the yyyy-MM-dd format, protagonists are separated by '|', censored
+ * and active are true/false (or y/n), and the category and the subscriber type
+ * are their names or their selection numbers (1 to 5 and 1 to 4). Fields
+ * cannot contain the delimiter. Empty lines and lines starting with '#' are
+ * skipped
+ */
+public class CatalogLoader {
+	// Constants
+	public static final char CSV = ',';
+	public static final char TSV = '\t';
+	public static final int DEFAULT_BATCH_SIZE = 1024;
+
+	private static final int MAX_REPORTED_ERRORS = 20;
+	private static final MovieCategory[] CATEGORIES = MovieCategory.values();
+	private static final SubscriberType[] TYPES = SubscriberType.values();
+
+	// Attributes
+	private char delimiter;
+	private int batchSize;
+
+	// Start and end of each field of the current line, reused for every line
+	private int[] fieldStarts;
+	private int[] fieldEnds;
+
+	/**
+	 * Constructor of the catalog loader class
+	 *
+	 * @param delimiter the character that separates the fields (CSV or TSV)
+	 */
+	public CatalogLoader(char delimiter) {
+		this(delimiter, DEFAULT_BATCH_SIZE);
+	}
+
+	/**
+	 * Constructor of the catalog loader class with a batch size
+	 *
+	 * @param delimiter the character that separates the fields (CSV or TSV)
+	 * @param batchSize the number of records parsed before they are added to the
+	 *                  channel
+	 */
+	public CatalogLoader(char delimiter, int batchSize) {
+		this.delimiter = delimiter;
+		this.batchSize = Math.max(batchSize, 1);
+		fieldStarts = new int[9];
+		fieldEnds = new int[9];
+	}
+
+	/**
+	 * Loads the records of a UTF-8 file into a channel
+	 *
+	 * <p>
+	 * <b>Precondition: </b> The file exists
+	 * <p>
+	 * <b>Postcondition: </b> The valid records are added to the channel
+	 *
+	 * @param file    the file to load
+	 * @param channel the channel in which the products are added
+	 * @return a summary of the load
+	 * @throws IOException if the file cannot be read
+	 */
+	public Summary load(Path file, Channel channel) throws IOException {
+		try (BufferedReader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+			return load(reader, channel);
+		}
+	}
+
+	/**
+	 * Loads the records read from a reader into a channel. Records are parsed in
+	 * batches; the product storage is grown once per batch and the records are
+	 * then added in the order of the file, so a season can follow its show in the
+	 * same batch. Consecutive subscribers are added with a single batch import
+	 *
+	 * @param reader  the reader of the records
+	 * @param channel the channel in which the products are added
+	 * @return a summary of the load
+	 * @throws IOException if the reader fails
+	 */
+	public Summary load(Reader reader, Channel channel) throws IOException {
+		BufferedReader lines = reader instanceof BufferedReader ? (BufferedReader) reader
+				: new BufferedReader(reader, 1 << 16);
+		Summary summary = new Summary();
+		List<Record> batch = new ArrayList<>(batchSize);
+		int lineNumber = 0;
+		String line;
+
+		while ((line = lines.readLine()) != null) {
+			lineNumber++;
+
+			if (line.isEmpty() || line.charAt(0) == '#') {
+				continue;
+			}
+
+			try {
+				batch.add(parse(line, lineNumber));
+			} catch (IllegalArgumentException | DateTimeException e) {
+				summary.reject(lineNumber, e.getMessage());
+			}
+
+			if (batch.size() == batchSize) {
+				apply(batch, channel, summary);
+			}
+		}
+
+		apply(batch, channel, summary);
+
+		return summary;
+	}
+
+	/**
+	 * Adds a batch of parsed records to the channel and empties the batch
+	 *
+	 * @param batch   the parsed records
+	 * @param channel the channel in which the products are added
+	 * @param summary the summary in which the results are counted
+	 */
+	private void apply(List<Record> batch, Channel channel, Summary summary) {
+		int newProducts = 0;
+
+		for (Record record : batch) {
+			if (record.kind == Kind.MOVIE || record.kind == Kind.SHOW) {
+				newProducts++;
+			}
+		}
+
+		channel.ensureProductCapacity(channel.getProductCount() + newProducts);
+
+		for (int i = 0; i < batch.size(); i++) {
+			Record record = batch.get(i);
+			OperationResult result;
+
+			// A run of subscribers is imported at once
+			if (record.kind == Kind.SUBSCRIBER) {
+				int end = i + 1;
+				while (end < batch.size() && batch.get(end).kind == Kind.SUBSCRIBER) {
+					end++;
+				}
+
+				applySubscribers(batch.subList(i, end), channel, summary);
+				i = end - 1;
+				continue;
+			}
+
+			switch (record.kind) {
+			case MOVIE:
+				result = channel.addProduct(record.name, record.nameOfDirector, record.synopsis, record.premierDate,
+						record.producer, record.number, record.trailerUrl, record.category.ordinal() + 1);
+				break;
+			case SHOW:
+				result = channel.addProduct(record.name, record.nameOfDirector, record.synopsis, record.premierDate,
+						record.protagonists, record.censored, record.censorMotif);
+				break;
+			default:
+				result = channel.addSeasonToShow(record.name, record.number, record.premierDate, record.trailerUrl);
+				break;
+			}
+
+			if (result.isSuccess()) {
+				summary.count(record.kind);
+			} else {
+				summary.reject(record.lineNumber, result.name());
+			}
+		}
+
+		batch.clear();
+	}
+
+	/**
+	 * Imports a run of subscriber records into the channel
+	 *
+	 * @param records the subscriber records
+	 * @param channel the channel in which the subscribers are added
+	 * @param summary the summary in which the results are counted
+	 */
+	private void applySubscribers(List<Record> records, Channel channel, Summary summary) {
+		List<Subscriber> newSubscribers = new ArrayList<>(records.size());
+
+		for (Record record : records) {
+			newSubscribers.add(record.subscriber);
+		}
+
+		SubscriberImportResult result = channel.addSubscribers(newSubscribers);
+
+		for (int i = 0; i < result.size(); i++) {
+			if (result.getStatus(i).isSuccess()) {
+				summary.count(Kind.SUBSCRIBER);
+			} else {
+				summary.reject(records.get(i).lineNumber, result.getStatus(i).name());
+			}
+		}
+	}
+
+	/**
+	 * Parses one line into a record
+	 *
+	 * @param line       the line to parse
+	 * @param lineNumber the number of the line in the file
+	 * @return the parsed record
+	 * @throws IllegalArgumentException if the line is not a valid record
+	 * @throws DateTimeException        if a date is not valid
+	 */
+	private Record parse(String line, int lineNumber) {
+		int fields = split(line);
+		Record record = new Record();
+		record.lineNumber = lineNumber;
+
+		if (fieldEquals(line, 0, "SUBSCRIBER")) {
+			requireFields(fields, 7);
+			record.kind = Kind.SUBSCRIBER;
+			record.subscriber = new Subscriber(field(line, 1), field(line, 2), parseInt(line, 3), parseInt(line, 4));
+
+			// New subscribers are active and NORMAL, so only other states are set
+			int type = parseType(line, 6);
+			if (type != SubscriberType.NORMAL.ordinal()) {
+				record.subscriber.setType(type + 1);
+			}
+			if (!parseBoolean(line, 5)) {
+				record.subscriber.setActive(false);
+			}
+		} else if (fieldEquals(line, 0, "MOVIE")) {
+			requireFields(fields, 9);
+			record.kind = Kind.MOVIE;
+			readProductFields(line, record);
+			record.producer = field(line, 5);
+			record.number = parseInt(line, 6);
+			record.trailerUrl = field(line, 7);
+			record.category = parseCategory(line, 8);
+		} else if (fieldEquals(line, 0, "SHOW")) {
+			requireFields(fields, 8);
+			record.kind = Kind.SHOW;
+			readProductFields(line, record);
+			record.protagonists = parseList(line, 5);
+			record.censored = parseBoolean(line, 6);
+			record.censorMotif = field(line, 7);
+		} else if (fieldEquals(line, 0, "SEASON")) {
+			requireFields(fields, 5);
+			record.kind = Kind.SEASON;
+			record.name = field(line, 1);
+			record.number = parseInt(line, 2);
+			record.premierDate = parseDate(line, 3);
+			record.trailerUrl = field(line, 4);
+		} else {
+			throw new IllegalArgumentException("Unknown record kind");
+		}
+
+		return record;
+	}
+
+	/**
+	 * Reads the fields shared by movies and shows
+	 *
+	 * @param line   the line of the record
+	 * @param record the record to fill
+	 */
+	private void readProductFields(String line, Record record) {
+		record.name = field(line, 1);
+		record.nameOfDirector = field(line, 2);
+		record.synopsis = field(line, 3);
+		record.premierDate = parseDate(line, 4);
+	}
+
+	/**
+	 * Finds the fields of a line without copying them
+	 *
+	 * @param line the line to split
+	 * @return the number of fields
+	 */
+	private int split(String line) {
+		int fields = 0;
+		int start = 0;
+
+		while (true) {
+			int end = line.indexOf(delimiter, start);
+
+			if (fields == fieldStarts.length) {
+				fieldStarts = Arrays.copyOf(fieldStarts, fields * 2);
+				fieldEnds = Arrays.copyOf(fieldEnds, fields * 2);
+			}
+
+			fieldStarts[fields] = start;
+			fieldEnds[fields] = end == -1 ? line.length() : end;
+			fields++;
+
+			if (end == -1) {
+				return fields;
+			}
+
+			start = end + 1;
+		}
+	}
+
+	/**
+	 * Checks that a record has enough fields
+	 *
+	 * @param fields   the number of fields of the record
+	 * @param required the number of fields required by its kind
+	 */
+	private static void requireFields(int fields, int required) {
+		if (fields < required) {
+			throw new IllegalArgumentException("Expected " + required + " fields but found " + fields);
+		}
+	}
+
+	/**
+	 * Copies a field
+	 *
+	 * @param line  the line of the field
+	 * @param index the position of the field
+	 * @return the field
+	 */
+	private String field(String line, int index) {
+		return line.substring(fieldStarts[index], fieldEnds[index]);
+	}
+
+	/**
+	 * Compares a field with a word, ignoring case, without copying the field
+	 *
+	 * @param line  the line of the field
+	 * @param index the position of the field
+	 * @param word  the word to compare
+	 * @return a boolean indicating if the field is the word
+	 */
+	private boolean fieldEquals(String line, int index, String word) {
+		return fieldEnds[index] - fieldStarts[index] == word.length()
+				&& line.regionMatches(true, fieldStarts[index], word, 0, word.length());
+	}
+
+	/**
+	 * Parses an int field without copying it
+	 *
+	 * @param line  the line of the field
+	 * @param index the position of the field
+	 * @return the parsed number
+	 */
+	private int parseInt(String line, int index) {
+		return parseInt(line, fieldStarts[index], fieldEnds[index]);
+	}
+
+	/**
+	 * Parses a date field in the yyyy-MM-dd format without copying it
+	 *
+	 * @param line  the line of the field
+	 * @param index the position of the field
+	 * @return the parsed date
+	 */
+	private LocalDate parseDate(String line, int index) {
+		int start = fieldStarts[index];
+		int end = fieldEnds[index];
+
+		if (end - start != 10 || line.charAt(start + 4) != '-' || line.charAt(start + 7) != '-') {
+			throw new IllegalArgumentException("Invalid date, expected yyyy-MM-dd");
+		}
+
+		return LocalDate.of(parseInt(line, start, start + 4), parseInt(line, start + 5, start + 7),
+				parseInt(line, start + 8, end));
+	}
+
+	/**
+	 * Parses a category field, given by its name or its selection number
+	 *
+	 * @param line  the line of the field
+	 * @param index the position of the field
+	 * @return the parsed category
+	 */
+	private MovieCategory parseCategory(String line, int index) {
+		for (MovieCategory category : CATEGORIES) {
+			if (fieldEquals(line, index, category.name())) {
+				return category;
+			}
+		}
+
+		int selection = parseInt(line, index);
+		if (selection < 1 || selection > CATEGORIES.length) {
+			throw new IllegalArgumentException("Invalid category");
+		}
+
+		return CATEGORIES[selection - 1];
+	}
+
+	/**
+	 * Parses a subscriber type field, given by its name or its selection number
+	 *
+	 * @param line  the line of the field
+	 * @param index the position of the field
+	 * @return the ordinal of the parsed type
+	 */
+	private int parseType(String line, int index) {
+		for (SubscriberType type : TYPES) {
+			if (fieldEquals(line, index, type.name())) {
+				return type.ordinal();
+			}
+		}
+
+		int selection = parseInt(line, index);
+		if (selection < 1 || selection > TYPES.length) {
+			throw new IllegalArgumentException("Invalid subscriber type");
+		}
+
+		return selection - 1;
+	}
+
+	/**
+	 * Parses a boolean field (true/false or y/n)
+	 *
+	 * @param line  the line of the field
+	 * @param index the position of the field
+	 * @return the parsed boolean
+	 */
+	private boolean parseBoolean(String line, int index) {
+		if (fieldEquals(line, index, "true") || fieldEquals(line, index, "y")) {
+			return true;
+		} else if (fieldEquals(line, index, "false") || fieldEquals(line, index, "n")) {
+			return false;
+		}
+
+		throw new IllegalArgumentException("Invalid boolean");
+	}
+
+	/**
+	 * Splits a field into the values separated by '|'
+	 *
+	 * @param line  the line of the field
+	 * @param index the position of the field
+	 * @return the values of the field (empty if the field is empty)
+	 */
+	private String[] parseList(String line, int index) {
+		int start = fieldStarts[index];
+		int end = fieldEnds[index];
+
+		if (start == end) {
+			return new String[0];
+		}
+
+		// Count the values first so that the array has the exact size
+		int count = 1;
+		for (int i = start; i < end; i++) {
+			if (line.charAt(i) == '|') {
+				count++;
+			}
+		}
+
+		String[] values = new String[count];
+		int valueStart = start;
+		for (int i = 0; i < count; i++) {
+			int valueEnd = line.indexOf('|', valueStart);
+			if (valueEnd == -1 || valueEnd > end) {
+				valueEnd = end;
+			}
+
+			values[i] = line.substring(valueStart, valueEnd);
+			valueStart = valueEnd + 1;
+		}
+
+		return values;
+	}
+
+	/**
+	 * Parses the decimal digits of a range of a line
+	 *
+	 * @param line  the line that contains the number
+	 * @param start the first character of the number
+	 * @param end   the character after the number
+	 * @return the parsed number
+	 */
+	private static int parseInt(String line, int start, int end) {
+		boolean negative = start < end && line.charAt(start) == '-';
+		int i = negative ? start + 1 : start;
+
+		if (i == end || end - i > 9) {
+			throw new IllegalArgumentException("Invalid number");
+		}
+
+		int value = 0;
+		for (; i < end; i++) {
+			char c = line.charAt(i);
+
+			if (c < '0' || c > '9') {
+				throw new IllegalArgumentException("Invalid number");
+			}
+
+			value = value * 10 + (c - '0');
+		}
+
+		return negative ? -value : value;
+	}
+
+	/**
+	 * Kinds of records
+	 */
+	private enum Kind {
+		SUBSCRIBER, MOVIE, SHOW, SEASON;
+	}
+
+	/**
+	 * Parsed record waiting in a batch. A subscriber is created while parsing; a
+	 * season uses the name of its show, the
+	 * number of scheduled episodes, the premier date and the trailer URL; a movie
+	 * uses number as its minimum watch age
+	 */
+	private static class Record {
+		private Kind kind;
+		private int lineNumber;
+		private Subscriber subscriber;
+		private String name;
+		private String nameOfDirector;
+		private String synopsis;
+		private LocalDate premierDate;
+		private String producer;
+		private int number;
+		private String trailerUrl;
+		private MovieCategory category;
+		private String[] protagonists;
+		private boolean censored;
+		private String censorMotif;
+	}
+
+	/**
+	 * Counts of the records loaded and rejected by a load
+	 */
+	public static class Summary {
+		private int subscribersAdded;
+		private int moviesAdded;
+		private int showsAdded;
+		private int seasonsAdded;
+		private int rejectedLines;
+		private List<String> errors = new ArrayList<>();
+
+		/**
+		 * Counts an added record
+		 *
+		 * @param kind the kind of the record
+		 */
+		private void count(Kind kind) {
+			switch (kind) {
+			case SUBSCRIBER:
+				subscribersAdded++;
+				break;
+			case MOVIE:
+				moviesAdded++;
+				break;
+			case SHOW:
+				showsAdded++;
+				break;
+			default:
+				seasonsAdded++;
+				break;
+			}
+		}
+
+		/**
+		 * Counts a rejected record and keeps its error if there are not too many
+		 *
+		 * @param lineNumber the number of the line of the record
+		 * @param message    the reason of the rejection
+		 */
+		private void reject(int lineNumber, String message) {
+			rejectedLines++;
+
+			if (errors.size() < MAX_REPORTED_ERRORS) {
+				errors.add("Line " + lineNumber + ": " + message);
+			}
+		}
+
+		/**
+		 * Returns the number of added subscribers
+		 *
+		 * @return the number of subscribers added to the channel
+		 */
+		public int getSubscribersAdded() {
+			return subscribersAdded;
+		}
+
+		/**
+		 * Returns the number of added movies
+		 *
+		 * @return the number of movies added to the channel
+		 */
+		public int getMoviesAdded() {
+			return moviesAdded;
+		}
+
+		/**
+		 * Returns the number of added shows
+		 *
+		 * @return the number of shows added to the channel
+		 */
+		public int getShowsAdded() {
+			return showsAdded;
+		}
+
+		/**
+		 * Returns the number of added seasons
+		 *
+		 * @return the number of seasons added to shows of the channel
+		 */
+		public int getSeasonsAdded() {
+			return seasonsAdded;
+		}
+
+		/**
+		 * Returns the number of rejected lines
+		 *
+		 * @return the number of lines that could not be loaded
+		 */
+		public int getRejectedLines() {
+			return rejectedLines;
+		}
+
+		/**
+		 * Returns the errors of the first rejected lines
+		 *
+		 * @return an unmodifiable list with the error of each of the first rejected
+		 *         lines
+		 */
+		public List<String> getErrors() {
+			return Collections.unmodifiableList(errors);
+		}
+
+		/**
+		 * Synthesizes the information of the summary in a String
+		 *
+		 * @return a string representation of the object
+		 */
+		@Override
+		public String toString() {
+			return "Subscribers added: " + subscribersAdded + " | Movies added: " + moviesAdded + " | Shows added: "
+					+ showsAdded + " | Seasons added: " + seasonsAdded + " | Rejected lines: " + rejectedLines;
+		}
+	}
+}
@@ -1,11 +1,39 @@
 package model;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
 import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
 
 public class Channel {
 	// Constants
-	public static final int MAX_SUBS = 50;
-	public static final int MAX_PRODUCTS = 85;
+	public static final int INITIAL_SUBS_CAPACITY = 50;
+	public static final int INITIAL_PRODUCTS_CAPACITY = 85;
+	public static final int ADULT_AGE = 18;
+
+	// The subscriber storage is compacted when removals leave at least this many
+	// empty slots and they are more than a quarter of the used slots
+	private static final int COMPACTION_MIN_FREE_SLOTS = 64;
+
+	/**
+	 * Attributes of a product by which it is kept in a secondary index
+	 */
+	enum IndexedField {
+		DIRECTOR, PREMIER_DATE, CATEGORY
+	}
 
 	// Attributes
 	private String nit;
@@ -13,8 +41,57 @@ public class Channel {
 	private String website;
 
 	// Relation
-	private Subscriber[] subscribers;
-	private Product[] products;
+	private SlotStore<Subscriber> subscribers;
+	private SlotStore<Product> products;
+
+	// Index of the subscribers by their id
+	private SubscriberIdIndex subscriberIndex;
+
+	// Index of the products by their case-folded name
+	private Map<String, Product> productIndex;
+
+	// Locks of a concurrent channel (null if the channel is not concurrent): one
+	// for the subscriber storage, one for the active subscriber counters and the
+	// hours ranking, and one for the product side and the data of the channel
+	// (NIT, address and website), so that checkpoints also exclude its changes.
+	// The subscriber id index locks its own segments. The locks are always taken
+	// in this order: segment of an id, subscriber storage, subscriber ranking
+	private ReentrantReadWriteLock subscriberStorageLock;
+	private ReentrantReadWriteLock subscriberRankingLock;
+	private ReentrantReadWriteLock productLock;
+
+	// Movies partitioned by their category, in the order in which they entered it.
+	// Products do not override equals, so the sets compare them by identity
+	private EnumMap<MovieCategory, LinkedHashSet<Movie>> moviesByCategory;
+
+	// Shows of the channel, in the order of the product storage
+	private ArrayList<Show> shows;
+
+	// Products by the case-folded name of their director
+	private Map<String, LinkedHashSet<Product>> productsByDirector;
+
+	// Products by premier date, in chronological order
+	private TreeMap<LocalDate, LinkedHashSet<Product>> productsByPremierDate;
+
+	// Products by the words of their name, synopsis and protagonists
+	private ProductTextIndex productText;
+
+	// Canonical instances of the repeated product metadata (directors, producers,
+	// protagonists and censor motifs)
+	private StringPool metadataPool;
+
+	// Active subscribers in total and by the ordinal of their type
+	private int activeSubs;
+	private int[] activeSubsByType;
+
+	// Subscribers by age, sorted by the hours they are willing to consume. The
+	// changes of the subscribers are recorded in the journal under the write lock
+	// of the ranking, so the records of a subscriber follow the order of its
+	// changes
+	private SubscriberRanking subscriberRanking;
+
+	// Journal in which the changes are recorded (null if they are not recorded)
+	private ChannelJournal journal;
 
 	/**
 	 * Constructor of the channel class
@@ -24,11 +101,76 @@ public class Channel {
 	 * @param website website of the channel
 	 */
 	public Channel(String nit, String address, String website) {
+		this(nit, address, website, INITIAL_SUBS_CAPACITY, INITIAL_PRODUCTS_CAPACITY);
+	}
+
+	/**
+	 * Constructor of the channel class with the initial capacities of the
+	 * subscriber and product storages. The storages grow when the capacities are
+	 * reached
+	 * 
+	 * @param nit                     NIT of the channel
+	 * @param address                 address of the channel
+	 * @param website                 website of the channel
+	 * @param initialSubsCapacity     subscribers that can be stored before the
+	 *                                first growth
+	 * @param initialProductsCapacity products that can be stored before the first
+	 *                                growth
+	 */
+	public Channel(String nit, String address, String website, int initialSubsCapacity,
+			int initialProductsCapacity) {
+		this(nit, address, website, initialSubsCapacity, initialProductsCapacity, false);
+	}
+
+	/**
+	 * Constructor of the channel class that may create a concurrent channel. A
+	 * concurrent channel can be used from many threads: the names are indexed in
+	 * a concurrent map, so searchProduct never blocks, and the subscriber ids in
+	 * an index split in segments with their own locks. The subscriber storage,
+	 * the subscriber ranking and the product side have read-write locks, so
+	 * lookups and listings run in parallel, and each change only holds the locks
+	 * of the structures it updates
+	 * 
+	 * @param nit                     NIT of the channel
+	 * @param address                 address of the channel
+	 * @param website                 website of the channel
+	 * @param initialSubsCapacity     subscribers that can be stored before the
+	 *                                first growth
+	 * @param initialProductsCapacity products that can be stored before the first
+	 *                                growth
+	 * @param concurrent              a boolean that determines if the channel can
+	 *                                be used from many threads
+	 */
+	public Channel(String nit, String address, String website, int initialSubsCapacity,
+			int initialProductsCapacity, boolean concurrent) {
 		this.nit = nit;
 		this.address = address;
 		this.website = website;
-		subscribers = new Subscriber[MAX_SUBS];
-		products = new Product[MAX_PRODUCTS];
+		subscribers = new SlotStore<>(initialSubsCapacity);
+		products = new SlotStore<>(initialProductsCapacity);
+		subscriberIndex = new SubscriberIdIndex(initialSubsCapacity, concurrent);
+
+		int productsIndexCapacity = Math.max(16, initialProductsCapacity * 4 / 3 + 1);
+		if (concurrent) {
+			productIndex = new ConcurrentHashMap<>(productsIndexCapacity);
+			subscriberStorageLock = new ReentrantReadWriteLock();
+			subscriberRankingLock = new ReentrantReadWriteLock();
+			productLock = new ReentrantReadWriteLock();
+		} else {
+			productIndex = new HashMap<>(productsIndexCapacity);
+		}
+
+		activeSubsByType = new int[SubscriberType.values().length];
+		subscriberRanking = new SubscriberRanking();
+		moviesByCategory = new EnumMap<>(MovieCategory.class);
+		for (MovieCategory category : MovieCategory.values()) {
+			moviesByCategory.put(category, new LinkedHashSet<>());
+		}
+		shows = new ArrayList<>();
+		productsByDirector = new HashMap<>();
+		productsByPremierDate = new TreeMap<>();
+		productText = new ProductTextIndex();
+		metadataPool = new StringPool();
 	}
 
 	/**
@@ -46,7 +188,17 @@ public class Channel {
 	 * @param nit the NIT to set
 	 */
 	public void setNit(String nit) {
-		this.nit = nit;
+		long sequence;
+
+		lockWrite(productLock);
+		try {
+			this.nit = nit;
+			sequence = journal == null ? 0 : journal.logChannel(this);
+		} finally {
+			unlockWrite(productLock);
+		}
+
+		commit(sequence);
 	}
 
 	/**
@@ -64,7 +216,17 @@ public class Channel {
 	 * @param address the address to set
 	 */
 	public void setAddress(String address) {
-		this.address = address;
+		long sequence;
+
+		lockWrite(productLock);
+		try {
+			this.address = address;
+			sequence = journal == null ? 0 : journal.logChannel(this);
+		} finally {
+			unlockWrite(productLock);
+		}
+
+		commit(sequence);
 	}
 
 	/**
@@ -82,7 +244,189 @@ public class Channel {
 	 * @param website the website to set
 	 */
 	public void setWebsite(String website) {
-		this.website = website;
+		long sequence;
+
+		lockWrite(productLock);
+		try {
+			this.website = website;
+			sequence = journal == null ? 0 : journal.logChannel(this);
+		} finally {
+			unlockWrite(productLock);
+		}
+
+		commit(sequence);
+	}
+
+	/**
+	 * Returns the journal
+	 * 
+	 * @return the journal in which the changes are recorded, or null if they are
+	 *         not recorded
+	 */
+	public ChannelJournal getJournal() {
+		return journal;
+	}
+
+	/**
+	 * Sets the journal in which the changes of the channel are recorded. A
+	 * checkpoint is made as soon as the journal is set, so the subscribers and
+	 * products that the channel already has are in the snapshot on top of which
+	 * the journal is replayed
+	 * 
+	 * <p>
+	 * <b>Precondition: </b> The journal is set before the channel is shared with
+	 * other threads
+	 * <p>
+	 * <b>Postcondition: </b> The snapshot holds the current content of the
+	 * channel, and every later change is recorded in the journal. If the
+	 * checkpoint fails, the channel is left without a journal
+	 * 
+	 * @param journal  the journal to use, or null to stop recording the changes
+	 * @param snapshot the file in which the base snapshot is written (not used
+	 *                 when the journal is null)
+	 * @throws IOException if the snapshot or the journal cannot be written
+	 */
+	public void setJournal(ChannelJournal journal, Path snapshot) throws IOException {
+		this.journal = journal;
+
+		if (journal != null) {
+			try {
+				commit(journal.logChannel(this));
+				journal.checkpoint(this, snapshot);
+			} catch (IOException | RuntimeException e) {
+				this.journal = null;
+				throw e;
+			}
+		}
+	}
+
+	/**
+	 * Returns if the channel can be used from many threads or not
+	 * 
+	 * @return a true or false value
+	 */
+	public boolean isConcurrent() {
+		return productLock != null;
+	}
+
+	/**
+	 * Returns the subscribers
+	 * 
+	 * @return a read-only view of the subscribers of the channel, in slot order.
+	 *         In a concurrent channel, the view must not be iterated while other
+	 *         threads add subscribers
+	 */
+	public Iterable<Subscriber> getSubscribers() {
+		return subscribers;
+	}
+
+	/**
+	 * Returns a query over the subscribers, to which conditions can be added
+	 * 
+	 * @return a query that matches every subscriber of the channel
+	 */
+	public SubscriberQuery subscribers() {
+		return new SubscriberQuery(this);
+	}
+
+	/**
+	 * Returns the products
+	 * 
+	 * @return a read-only view of the products of the channel, in slot order. In
+	 *         a concurrent channel, the view must not be iterated while other
+	 *         threads add products
+	 */
+	public Iterable<Product> getProducts() {
+		return products;
+	}
+
+	/**
+	 * Returns the number of subscribers
+	 * 
+	 * @return number of subscribers stored in the channel
+	 */
+	public int getSubscriberCount() {
+		lockRead(subscriberStorageLock);
+		try {
+			return subscribers.size();
+		} finally {
+			unlockRead(subscriberStorageLock);
+		}
+	}
+
+	/**
+	 * Returns the subscriber capacity
+	 * 
+	 * @return subscribers that can be stored before the storage grows
+	 */
+	public int getSubscriberCapacity() {
+		lockRead(subscriberStorageLock);
+		try {
+			return subscribers.capacity();
+		} finally {
+			unlockRead(subscriberStorageLock);
+		}
+	}
+
+	/**
+	 * Reserves room for a number of subscribers so that they can be added without
+	 * growing the storage
+	 * 
+	 * @param capacity the number of subscribers to make room for
+	 */
+	public void ensureSubscriberCapacity(int capacity) {
+		// The index locks its own segments, which come before the storage lock
+		subscriberIndex.ensureCapacity(capacity);
+
+		lockWrite(subscriberStorageLock);
+		try {
+			subscribers.ensureCapacity(capacity);
+		} finally {
+			unlockWrite(subscriberStorageLock);
+		}
+	}
+
+	/**
+	 * Returns the number of products
+	 * 
+	 * @return number of products stored in the channel
+	 */
+	public int getProductCount() {
+		lockRead(productLock);
+		try {
+			return products.size();
+		} finally {
+			unlockRead(productLock);
+		}
+	}
+
+	/**
+	 * Returns the product capacity
+	 * 
+	 * @return products that can be stored before the storage grows
+	 */
+	public int getProductCapacity() {
+		lockRead(productLock);
+		try {
+			return products.capacity();
+		} finally {
+			unlockRead(productLock);
+		}
+	}
+
+	/**
+	 * Reserves room for a number of products so that they can be added without
+	 * growing the storage
+	 * 
+	 * @param capacity the number of products to make room for
+	 */
+	public void ensureProductCapacity(int capacity) {
+		lockWrite(productLock);
+		try {
+			products.ensureCapacity(capacity);
+		} finally {
+			unlockWrite(productLock);
+		}
 	}
 
 	/**
@@ -92,472 +436,1426 @@ public class Channel {
 	 * <b>Precondition: </b> The user selected the option to add a new subscriber in
 	 * the menu and entered all the relevant data to the program
 	 * <p>
-	 * <b>Postcondition: </b> A message that may indicate the creation of a new
-	 * subscriber inside the subscriber array or not
+	 * <b>Postcondition: </b> A result that may indicate the creation of a new
+	 * subscriber inside the subscriber storage or not. As in addSubscribers, a
+	 * subscriber without an id is not valid
 	 * 
 	 * @param id             identification of the new subscriber
 	 * @param fullName       full name of the new subscriber
 	 * @param age            age of the new subscriber
 	 * @param hoursToConsume hours that the new subscriber is willing to consume
-	 * @return a message indicating the result of the operation
-	 */
-	public String addSubscriber(String id, String fullName, int age, int hoursToConsume) {
-		// A message that will notify the result of the operation
-		String message = "";
-
-		// Check if there is space in the array and if there is already a subscriber
-		// with the same id as the one that will be created
-		if (!checkSubscriberAvailability()) {
-			message = "Error, there is no room for more subscribers";
-		} else if (searchSubscriber(id) != null) {
-			message = "Error, there is already a subscriber with the same id";
-		} else {
-			// If a certain position in the subscriber array is empty, create a new
-			// subscriber inside and break out of the loop
-			for (int i = 0; i < subscribers.length; i++) {
-				if (subscribers[i] == null) {
-					subscribers[i] = new Subscriber(id, fullName, age, hoursToConsume);
-					break;
+	 * @return the result of the operation
+	 */
+	public OperationResult addSubscriber(String id, String fullName, int age, int hoursToConsume) {
+		// Subscribers are indexed by id, so every subscriber of a channel has one
+		if (id == null) {
+			return OperationResult.INVALID_SUBSCRIBER;
+		}
+
+		// The result of the operation
+		OperationResult result;
+
+		Subscriber newSubscriber = new Subscriber(id, fullName, age, hoursToConsume);
+		newSubscriber.channel = this;
+		int hash = SubscriberIdIndex.hash(newSubscriber);
+		long sequence = 0;
+
+		// Lock the id, so that it is not taken nor looked up until the new
+		// subscriber is stored and indexed
+		subscriberIndex.lock(hash);
+		try {
+			result = storeSubscriber(newSubscriber);
+
+			if (result == OperationResult.SUBSCRIBER_ADDED) {
+				sequence = rankSubscriber(newSubscriber);
+			}
+		} finally {
+			subscriberIndex.unlock(hash);
+		}
+
+		// Wait for the journal outside the locks, so that other changes are synced
+		// together with this one
+		commit(sequence);
+
+		// Return the result of the operation
+		return result;
+	}
+
+	/**
+	 * Adds a batch of new subscribers. Every record is checked with a single
+	 * lookup in the id index, which also rejects the ids repeated inside the
+	 * batch, and the storage is grown once for the whole batch when its size is
+	 * known. The subscribers keep their current attributes (activity, type, age
+	 * and hours)
+	 * 
+	 * <p>
+	 * <b>Precondition: </b> The subscribers have not been added to any channel
+	 * <p>
+	 * <b>Postcondition: </b> The valid records with a new id are stored, and the
+	 * status of every record is returned
+	 * 
+	 * @param newSubscribers the subscribers to add
+	 * @return the status of each record, in the order of the batch
+	 */
+	public SubscriberImportResult addSubscribers(Iterable<Subscriber> newSubscribers) {
+		int expected = newSubscribers instanceof Collection ? ((Collection<?>) newSubscribers).size() : 0;
+		SubscriberImportResult result = new SubscriberImportResult(expected);
+		long sequence = 0;
+
+		// Reserve the slots of the whole batch at once
+		if (expected > 0) {
+			int capacity;
+
+			lockWrite(subscriberStorageLock);
+			try {
+				capacity = (int) Math.min((long) subscribers.size() + expected, SlotStore.MAX_CAPACITY);
+				subscribers.ensureCapacity(capacity);
+			} finally {
+				unlockWrite(subscriberStorageLock);
+			}
+
+			subscriberIndex.ensureCapacity(capacity);
+		}
+
+		for (Subscriber newSubscriber : newSubscribers) {
+			if (newSubscriber == null || newSubscriber.hasId(null) || newSubscriber.channel != null) {
+				result.record(OperationResult.INVALID_SUBSCRIBER);
+				continue;
+			}
+
+			int hash = SubscriberIdIndex.hash(newSubscriber);
+			OperationResult status;
+
+			subscriberIndex.lock(hash);
+			try {
+				status = storeSubscriber(newSubscriber);
+
+				if (status == OperationResult.SUBSCRIBER_ADDED) {
+					long recorded = rankSubscriber(newSubscriber);
+					if (recorded > 0) {
+						sequence = recorded;
+					}
 				}
+			} finally {
+				subscriberIndex.unlock(hash);
 			}
 
-			message = "Subscriber added successfully";
+			result.record(status);
 		}
 
-		// Return the result of the operation
-		return message;
+		commit(sequence);
+
+		return result;
+	}
+
+	/**
+	 * Stores a new subscriber in a free slot and indexes it by its id, unless the
+	 * storage is full or another subscriber has the id
+	 * 
+	 * <p>
+	 * <b>Precondition: </b> The lock of the id of the subscriber is held
+	 * <p>
+	 * <b>Postcondition: </b> The subscriber belongs to this channel and can be
+	 * found by its id, but it is not ranked yet
+	 * 
+	 * @param newSubscriber the subscriber to store
+	 * @return SUBSCRIBER_ADDED, NO_ROOM_FOR_SUBSCRIBERS or DUPLICATE_SUBSCRIBER_ID
+	 */
+	private OperationResult storeSubscriber(Subscriber newSubscriber) {
+		lockWrite(subscriberStorageLock);
+		try {
+			if (subscribers.isFull() || !subscriberIndex.hasRoom(SubscriberIdIndex.hash(newSubscriber))) {
+				return OperationResult.NO_ROOM_FOR_SUBSCRIBERS;
+			}
+
+			// The reservation of the id fails if there is already a subscriber with it
+			if (subscriberIndex.putIfAbsent(newSubscriber) != null) {
+				return OperationResult.DUPLICATE_SUBSCRIBER_ID;
+			}
+
+			newSubscriber.channel = this;
+			newSubscriber.slot = subscribers.add(newSubscriber);
+
+			return OperationResult.SUBSCRIBER_ADDED;
+		} finally {
+			unlockWrite(subscriberStorageLock);
+		}
+	}
+
+	/**
+	 * Adds a stored subscriber to the active subscriber counters and the hours
+	 * ranking, and records it in the journal
+	 * 
+	 * @param newSubscriber the subscriber that was stored
+	 * @return the sequence number of its record, or 0 if it was not recorded
+	 */
+	private long rankSubscriber(Subscriber newSubscriber) {
+		lockWrite(subscriberRankingLock);
+		try {
+			indexSubscriber(newSubscriber);
+
+			return journal == null ? 0 : journal.logSubscriber(newSubscriber);
+		} finally {
+			unlockWrite(subscriberRankingLock);
+		}
+	}
+
+	/**
+	 * Adds a stream of new subscribers as a batch
+	 * 
+	 * @param newSubscribers the subscribers to add
+	 * @return the status of each record, in the order of the stream
+	 * @see #addSubscribers(Iterable)
+	 */
+	public SubscriberImportResult addSubscribers(Stream<Subscriber> newSubscribers) {
+		Iterable<Subscriber> records = newSubscribers::iterator;
+
+		return addSubscribers(records);
 	}
 
 	/**
-	 * Deactivates a subscriber according to user input and returns a message
-	 * indicating the result of the operation
+	 * Deactivates a subscriber according to user input and returns the result of
+	 * the operation
 	 * 
 	 * <p>
 	 * <b>Precondition: </b> At least one subscriber exists. The user selected the
 	 * option to deactivate a subscriber in the menu, and entered the position of
 	 * the subscriber according to a list that contains all of the subscribers
 	 * <p>
-	 * <b>Postcondition: </b> A message indicates if the subscriber is deactivated
+	 * <b>Postcondition: </b> The result indicates if the subscriber is deactivated
 	 * or not. This meaning that the active value would be set to false and the type
 	 * set to NORMAL
 	 * 
 	 * @param pos the position of the list that indicates the subscriber that will
 	 *            be deactivated
-	 * @return a message indicating the result of the operation
+	 * @return the result of the operation
 	 */
-	public String deactivateSubscriber(int pos) {
-		String message = "";
+	public OperationResult deactivateSubscriber(int pos) {
+		Subscriber subscriber;
+
+		lockRead(subscriberStorageLock);
+		try {
+			subscriber = subscribers.get(pos);
+		} finally {
+			unlockRead(subscriberStorageLock);
+		}
+
+		if (subscriber == null) {
+			return OperationResult.SUBSCRIBER_NOT_FOUND;
+		}
 
 		// Set the activity to false and the type to NORMAL (the selection for NORMAL is
-		// 1)
-		if (subscribers[pos] != null) {
-			subscribers[pos].setActive(false);
-			subscribers[pos].setType(1);
+		// 1). Each setter takes the locks it needs
+		subscriber.setActive(false);
+		subscriber.setType(1);
 
-			message = "Subscriber deactivated successfully";
-		} else {
-			message = "Error, subscriber does not exist";
+		return OperationResult.SUBSCRIBER_DEACTIVATED;
+	}
+
+	/**
+	 * Deactivates the subscriber with the given id. The subscriber is found
+	 * through the id index, so no list has to be printed or scanned
+	 * 
+	 * <p>
+	 * <b>Precondition: </b> The user entered the id of the subscriber that will be
+	 * deactivated
+	 * <p>
+	 * <b>Postcondition: </b> The subscriber is inactive and NORMAL, or the result
+	 * indicates that no subscriber has the id
+	 * 
+	 * @param id the id of the subscriber that will be deactivated
+	 * @return the result of the operation
+	 */
+	public OperationResult deactivateSubscriber(String id) {
+		Subscriber subscriber = searchSubscriber(id);
+
+		if (subscriber == null) {
+			return OperationResult.SUBSCRIBER_NOT_FOUND;
+		}
+
+		subscriber.setActive(false);
+		subscriber.setType(1);
+
+		return OperationResult.SUBSCRIBER_DEACTIVATED;
+	}
+
+	/**
+	 * Removes the subscriber with the given id from the channel. Its slot is
+	 * reused by the next subscriber, and the storage is compacted when removals
+	 * leave too many empty slots
+	 * 
+	 * <p>
+	 * <b>Precondition: </b> The user entered the id of the subscriber that will be
+	 * removed
+	 * <p>
+	 * <b>Postcondition: </b> The subscriber is no longer stored nor counted, or the
+	 * result indicates that no subscriber has the id
+	 * 
+	 * @param id the id of the subscriber that will be removed
+	 * @return the result of the operation
+	 */
+	public OperationResult removeSubscriber(String id) {
+		if (id == null) {
+			return OperationResult.SUBSCRIBER_NOT_FOUND;
+		}
+
+		int hash = SubscriberIdIndex.hash(id);
+		long sequence;
+
+		subscriberIndex.lock(hash);
+		try {
+			Subscriber subscriber = subscriberIndex.remove(id);
+
+			if (subscriber == null) {
+				return OperationResult.SUBSCRIBER_NOT_FOUND;
+			}
+
+			// The storage stays locked until the slot is freed, so a checkpoint never
+			// saves a subscriber whose removal it drops from the journal
+			lockWrite(subscriberStorageLock);
+			try {
+				lockWrite(subscriberRankingLock);
+				try {
+					unindexSubscriber(subscriber);
+					sequence = journal == null ? 0 : journal.logSubscriberRemoved(id);
+
+					// The removed subscriber can be added again, to this or another channel
+					subscriber.channel = null;
+				} finally {
+					unlockWrite(subscriberRankingLock);
+				}
+
+				subscribers.remove(subscriber.slot);
+				subscriber.slot = -1;
+
+				int freeSlots = subscribers.getFreeSlotCount();
+				if (freeSlots >= COMPACTION_MIN_FREE_SLOTS && freeSlots > subscribers.getLimit() / 4) {
+					compactSubscribers();
+				}
+			} finally {
+				unlockWrite(subscriberStorageLock);
+			}
+		} finally {
+			subscriberIndex.unlock(hash);
 		}
 
-		return message;
+		commit(sequence);
+
+		return OperationResult.SUBSCRIBER_REMOVED;
+	}
+
+	/**
+	 * Moves the subscribers to the lowest slots, keeping their order, so that the
+	 * listings and scans do not visit empty slots
+	 * 
+	 * <p>
+	 * <b>Precondition: </b> None
+	 * <p>
+	 * <b>Postcondition: </b> The subscribers are in contiguous slots and their
+	 * numbers in the subscriber list are updated
+	 */
+	public void compactSubscribers() {
+		lockWrite(subscriberStorageLock);
+		lockWrite(subscriberRankingLock);
+		try {
+			// The relative order of the slots does not change, so the hours ranking,
+			// which breaks ties by slot, stays sorted
+			subscribers.compact((subscriber, slot) -> subscriber.slot = slot);
+		} finally {
+			unlockWrite(subscriberRankingLock);
+			unlockWrite(subscriberStorageLock);
+		}
 	}
 
 	/**
-	 * Checks the availability of the subscriber array in order to add more
-	 * subscribers
+	 * Checks the availability of the subscriber storage in order to add more
+	 * subscribers. The storage grows on demand, so it is only unavailable when it
+	 * reached its maximum size
 	 * 
 	 * <p>
 	 * <b>Precondition: </b> The method is called in addSubscriber
 	 * <p>
-	 * <b>Postcondition: </b> The availability of the subscriber array is stated
+	 * <b>Postcondition: </b> The availability of the subscriber storage is stated
+	 * 
+	 * @return a boolean indicating the availability of the subscriber storage
+	 */
+	public boolean checkSubscriberAvailability() {
+		return getSubscriberCount() < SlotStore.MAX_CAPACITY;
+	}
+
+	/**
+	 * Checks the existence of at least one subscriber in the subscriber array
+	 * 
+	 * <p>
+	 * <b>Precondition: </b> The user wants to interact with methods that require at
+	 * least one subscriber
+	 * <p>
+	 * <b>Postcondition: </b> The existence of at least one subscriber is stated
+	 * 
+	 * @return a boolean indicating the existence of at least one subscriber in the
+	 *         subscriber storage
+	 */
+	public boolean checkSubscriberExistence() {
+		return getSubscriberCount() > 0;
+	}
+
+	/**
+	 * Looks for a subscriber by its id and returns it
+	 * 
+	 * <p>
+	 * <b>Precondition: </b> At least one subscriber exists and the user is going to
+	 * modify or interact in a certain way with a specific subscriber
+	 * <p>
+	 * <b>Postcondition: </b> A reference to the subscriber is returned
+	 * 
+	 * @param id the id of the subscriber to be found
+	 * @return a subscriber that has the same id as the one that was entered
+	 */
+	public Subscriber searchSubscriber(String id) {
+		// Look up the id in the index. If not found, then return null
+		return id == null ? null : subscriberIndex.get(id);
+	}
+
+	/**
+	 * Changes the id of a subscriber of this channel and indexes it by the new id
+	 * 
+	 * <p>
+	 * <b>Precondition: </b> The method is called in Subscriber.setId
+	 * <p>
+	 * <b>Postcondition: </b> The subscriber has the new id and is indexed by it,
+	 * unless the id is null or another subscriber already uses it
+	 * 
+	 * @param subscriber the subscriber whose id will change
+	 * @param newId      the id that will be set
+	 * @return a boolean indicating if the new id can be used
+	 */
+	boolean changeSubscriberId(Subscriber subscriber, String newId) {
+		// Subscribers are indexed by id, so every subscriber of a channel has one
+		if (newId == null) {
+			return false;
+		}
+
+		int newHash = SubscriberIdIndex.hash(newId);
+		long sequence = 0;
+
+		while (true) {
+			int oldHash = SubscriberIdIndex.hash(subscriber);
+
+			subscriberIndex.lock(oldHash, newHash);
+			try {
+				// Another thread changed the id before the locks were taken, so the
+				// segment of the current id is locked again
+				if (SubscriberIdIndex.hash(subscriber) != oldHash) {
+					continue;
+				}
+
+				Subscriber current = subscriberIndex.lookup(newId);
+
+				// Another subscriber already has this id, or the index cannot hold it, so
+				// the change is rejected
+				if (current != null && current != subscriber
+						|| current == null && !subscriberIndex.hasRoom(newHash, oldHash)) {
+					return false;
+				}
+
+				lockWrite(subscriberRankingLock);
+				try {
+					if (subscriber.channel != this) {
+						// The subscriber was removed meanwhile, so only its id changes
+						subscriber.assignId(newId);
+					} else {
+						sequence = journal == null ? 0 : journal.logSubscriberId(subscriber, newId);
+						subscriberIndex.remove(subscriber);
+						subscriber.assignId(newId);
+						subscriberIndex.putIfAbsent(subscriber);
+					}
+				} finally {
+					unlockWrite(subscriberRankingLock);
+				}
+			} finally {
+				subscriberIndex.unlock(oldHash, newHash);
+			}
+
+			commit(sequence);
+
+			return true;
+		}
+	}
+
+	/**
+	 * Returns the subscriber storage
+	 * 
+	 * @return the storage of the subscribers, which is read by the queries
+	 */
+	SlotStore<Subscriber> getSubscriberStore() {
+		return subscribers;
+	}
+
+	/**
+	 * Returns the subscriber ranking
+	 * 
+	 * @return the index of the subscribers by age and hours to consume
+	 */
+	SubscriberRanking getSubscriberRanking() {
+		return subscriberRanking;
+	}
+
+	/**
+	 * Returns the number of active subscribers of a type
+	 * 
+	 * @param type the type to count, or null to count every type
+	 * @return the number of active subscribers, read from the counters
+	 */
+	int countActiveSubscribers(SubscriberType type) {
+		return type == null ? activeSubs : activeSubsByType[type.ordinal()];
+	}
+
+	/**
+	 * Takes the read locks of the subscriber storage and ranking of a concurrent
+	 * channel, so that the subscribers can be read without changing. It does
+	 * nothing in other channels. The subscribers must not be changed nor looked
+	 * up by id while the locks are held
+	 */
+	void lockSubscribers() {
+		lockRead(subscriberStorageLock);
+		lockRead(subscriberRankingLock);
+	}
+
+	/**
+	 * Releases the locks taken by lockSubscribers
+	 */
+	void unlockSubscribers() {
+		unlockRead(subscriberRankingLock);
+		unlockRead(subscriberStorageLock);
+	}
+
+	/**
+	 * Takes the read lock of the product side of a concurrent channel, so that
+	 * the products and the data of the channel can be read without changing. It
+	 * does nothing in other channels
+	 */
+	void lockProducts() {
+		lockRead(productLock);
+	}
+
+	/**
+	 * Releases the lock taken by lockProducts
+	 */
+	void unlockProducts() {
+		unlockRead(productLock);
+	}
+
+	/**
+	 * Removes a subscriber of this channel from the active subscriber counters and
+	 * the hours ranking
+	 * 
+	 * <p>
+	 * <b>Precondition: </b> The method is called by the subscriber before one of
+	 * its indexed attributes (activity, type, age or hours to consume) changes
+	 * <p>
+	 * <b>Postcondition: </b> The subscriber is no longer counted nor ranked. In a
+	 * concurrent channel, the ranking lock is held until afterSubscriberUpdate
+	 * 
+	 * @param subscriber the subscriber that will change
+	 */
+	void beforeSubscriberUpdate(Subscriber subscriber) {
+		lockWrite(subscriberRankingLock);
+
+		// A subscriber removed by another thread is no longer ranked
+		if (subscriber.channel == this) {
+			unindexSubscriber(subscriber);
+		}
+	}
+
+	/**
+	 * Adds a subscriber of this channel back to the active subscriber counters and
+	 * the hours ranking
+	 * 
+	 * <p>
+	 * <b>Precondition: </b> The method is called by the subscriber after one of its
+	 * indexed attributes changed, and beforeSubscriberUpdate was called before
+	 * <p>
+	 * <b>Postcondition: </b> The subscriber is counted and ranked according to its
+	 * current attributes, and the ranking lock is released
+	 * 
+	 * @param subscriber the subscriber that changed
+	 */
+	void afterSubscriberUpdate(Subscriber subscriber) {
+		long sequence = 0;
+
+		try {
+			if (subscriber.channel == this) {
+				indexSubscriber(subscriber);
+				sequence = journal == null ? 0 : journal.logSubscriber(subscriber);
+			}
+		} finally {
+			unlockWrite(subscriberRankingLock);
+		}
+
+		commit(sequence);
+	}
+
+	/**
+	 * Records a change of a subscriber of this channel that no index depends on
+	 * 
+	 * <p>
+	 * <b>Precondition: </b> The method is called by the subscriber after the
+	 * change (e.g. of its full name)
+	 * <p>
+	 * <b>Postcondition: </b> The change is recorded in the journal, if the
+	 * channel has one
+	 * 
+	 * @param subscriber the subscriber that changed
+	 */
+	void subscriberChanged(Subscriber subscriber) {
+		if (journal == null) {
+			return;
+		}
+
+		long sequence = 0;
+
+		lockWrite(subscriberRankingLock);
+		try {
+			if (subscriber.channel == this) {
+				sequence = journal.logSubscriber(subscriber);
+			}
+		} finally {
+			unlockWrite(subscriberRankingLock);
+		}
+
+		commit(sequence);
+	}
+
+	/**
+	 * Removes a subscriber from the active subscriber counters and the hours
+	 * ranking
+	 * 
+	 * @param subscriber the subscriber to remove
+	 */
+	private void unindexSubscriber(Subscriber subscriber) {
+		if (subscriber.isActive()) {
+			activeSubs--;
+			activeSubsByType[subscriber.getType().ordinal()]--;
+		}
+
+		subscriberRanking.remove(subscriber);
+	}
+
+	/**
+	 * Adds a subscriber to the active subscriber counters and the hours ranking
+	 * 
+	 * @param subscriber the subscriber to add
+	 */
+	private void indexSubscriber(Subscriber subscriber) {
+		if (subscriber.isActive()) {
+			activeSubs++;
+			activeSubsByType[subscriber.getType().ordinal()]++;
+		}
+
+		subscriberRanking.add(subscriber);
+	}
+
+	/**
+	 * Returns a snapshot of the number of active subscribers by type. The counters
+	 * are kept up to date as subscribers change, so no subscriber is visited
+	 * 
+	 * @return the number of active subscribers in total and by type
+	 */
+	public ActiveSubscribersReport getActiveSubscribersByType() {
+		lockRead(subscriberRankingLock);
+		try {
+			return new ActiveSubscribersReport(activeSubs, activeSubsByType);
+		} finally {
+			unlockRead(subscriberRankingLock);
+		}
+	}
+
+	/**
+	 * Returns total active subscribers and a list stating the number of active
+	 * subscribers by type
+	 * 
+	 * <p>
+	 * <b>Precondition: </b> At least one subscriber exists and the user selected
+	 * the option to print the active subscribers by type in the menu
+	 * <p>
+	 * <b>Postcondition: </b> The list is returned
+	 * 
+	 * @return total active subscribers and a list with the active subscribers by
+	 *         type
+	 */
+	public String printActiveSubscribersByType() {
+		return getActiveSubscribersByType().toString();
+	}
+
+	/**
+	 * Returns the name of under-aged user with the most hours willing to consume
+	 * 
+	 * <p>
+	 * <b>Precondition: </b> At least one subscriber exists and the user selected
+	 * the option to print the minor user with most hours to consume in the menu
+	 * <p>
+	 * <b>Postcondition: </b> The name of the requested subscriber is returned
+	 * 
+	 * @return the name of the under-aged subscriber with the most hours willing to
+	 *         consume
+	 */
+	public String printMinorMostHoursSub() {
+		Subscriber subscriber = searchMinorMostHoursSub();
+
+		// Return a message in case no minor subscriber is found
+		if (subscriber == null) {
+			return "*No minor subscriber found*";
+		}
+
+		return subscriber.getFullName() + " - Hours: " + subscriber.getHoursToConsume();
+	}
+
+	/**
+	 * Looks for the under-aged subscriber with the most hours willing to consume.
+	 * If several have the same hours, the one listed first is returned
+	 * 
+	 * @return the subscriber, or null if no under-aged subscriber is willing to
+	 *         consume more than 0 hours
+	 */
+	public Subscriber searchMinorMostHoursSub() {
+		lockRead(subscriberRankingLock);
+		try {
+			Subscriber subscriber = subscriberRanking.first(Integer.MIN_VALUE, ADULT_AGE - 1);
+
+			return subscriber != null && subscriber.getHoursToConsume() > 0 ? subscriber : null;
+		} finally {
+			unlockRead(subscriberRankingLock);
+		}
+	}
+
+	/**
+	 * Returns the subscribers with the most hours willing to consume inside an age
+	 * band. The ranking is kept up to date as subscribers change, so only the ages
+	 * of the band and the returned subscribers are visited
+	 * 
+	 * @param minAge the minimum age of the band (inclusive)
+	 * @param maxAge the maximum age of the band (inclusive)
+	 * @param k      the maximum number of subscribers to return
+	 * @return up to k subscribers, from the most to the least hours willing to
+	 *         consume
+	 */
+	public List<Subscriber> getTopSubscribersByHours(int minAge, int maxAge, int k) {
+		lockRead(subscriberRankingLock);
+		try {
+			return subscriberRanking.top(minAge, maxAge, k);
+		} finally {
+			unlockRead(subscriberRankingLock);
+		}
+	}
+
+	/**
+	 * Aggregates every subscriber in parallel on the common fork/join pool
+	 * 
+	 * @return the statistics of the subscribers
+	 * @see #getSubscriberStatistics(ForkJoinPool)
+	 */
+	public SubscriberStatistics getSubscriberStatistics() {
+		return getSubscriberStatistics(ForkJoinPool.commonPool());
+	}
+
+	/**
+	 * Aggregates every subscriber: active subscribers and hours to consume by
+	 * type, subscribers by age and the minor with the most hours to consume. The
+	 * storage is split in chunks that are aggregated by the threads of a pool and
+	 * merged at the end, so large channels use every thread of the pool. Small
+	 * channels are aggregated in the calling thread
+	 * 
+	 * <p>
+	 * <b>Precondition: </b> The subscribers do not change while the statistics
+	 * are computed (in a concurrent channel, the read locks of the subscribers
+	 * are held)
+	 * <p>
+	 * <b>Postcondition: </b> The statistics of the subscribers are returned
+	 * 
+	 * @param pool the pool in which the chunks are aggregated
+	 * @return the statistics of the subscribers
+	 */
+	public SubscriberStatistics getSubscriberStatistics(ForkJoinPool pool) {
+		lockSubscribers();
+		try {
+			int limit = subscribers.getLimit();
+
+			if (limit <= SubscriberAggregation.CHUNK_SIZE) {
+				return SubscriberAggregation.aggregate(subscribers, 0, limit);
+			}
+
+			return pool.invoke(new SubscriberAggregation(subscribers, 0, limit));
+		} finally {
+			unlockSubscribers();
+		}
+	}
+
+	/**
+	 * Returns the statistics of the subscribers
+	 * 
+	 * <p>
+	 * <b>Precondition: </b> None
+	 * <p>
+	 * <b>Postcondition: </b> The statistics are returned
+	 * 
+	 * @return the active subscribers and hours to consume by type, the
+	 *         subscribers by age and the minor with the most hours to consume
+	 */
+	public String printSubscriberStatistics() {
+		return getSubscriberStatistics().toString();
+	}
+
+	/**
+	 * Returns a list containing all of the subscribers at the moment with their
+	 * respective information
+	 * 
+	 * <p>
+	 * <b>Precondition: </b> The user selected an option that requires the
+	 * subscribers to be shown in the menu (e.g. deactivate a subscriber)
+	 * <p>
+	 * <b>Postcondition: </b> The list is returned
+	 * 
+	 * @return a list with all of the current subscribers represented in Strings
+	 */
+	public String printSubscribers() {
+		StringBuilder subs = new StringBuilder();
+
+		try {
+			printSubscribers(subs);
+		} catch (IOException e) {
+			// A StringBuilder does not throw IOException
+			throw new UncheckedIOException(e);
+		}
+
+		return subs.toString();
+	}
+
+	/**
+	 * Writes a numbered list with all of the subscribers at the moment and their
+	 * respective information
+	 * 
+	 * <p>
+	 * <b>Precondition: </b> The output is not null
+	 * <p>
+	 * <b>Postcondition: </b> One line per subscriber is written to the output. The
+	 * number of each line is the position used by deactivateSubscriber plus one
+	 * 
+	 * @param out the output in which the list is written
+	 * @throws IOException if the output cannot be written
+	 */
+	public void printSubscribers(Appendable out) throws IOException {
+		// Buffer reused to build each line before it is written
+		StringBuilder line = new StringBuilder(128);
+
+		lockSubscribers();
+		try {
+			// Look for all of the slots that contain a subscriber and write them
+			for (int i = 0; i < subscribers.getLimit(); i++) {
+				Subscriber subscriber = subscribers.get(i);
+
+				if (subscriber != null) {
+					line.setLength(0);
+					line.append(i + 1).append(". ").append(subscriber.toString()).append('\n');
+					out.append(line);
+				}
+			}
+		} finally {
+			unlockSubscribers();
+		}
+	}
+
+	/**
+	 * An overloaded method to add a product. In this case, it is used to add a show
+	 * 
+	 * <p>
+	 * <b>Precondition: </b> The user selected the option to add a new show in
+	 * the menu and entered all the relevant data to the program
+	 * <p>
+	 * <b>Postcondition: </b> A result that may indicate the creation of a new
+	 * show inside the product storage or not
+	 * 
+	 * @param name name of the new show
+	 * @param nameOfDirector name of the director of the new show
+	 * @param synopsis synopsis of the new show
+	 * @param premierDate date in which the show premiered (first emission)
+	 * @param protagonists a string array indicating the protagonists of the new show
+	 * @param censored boolean to determine if the new show has been censored or not
+	 * @param censorMotif the censor motif of the new show
+	 * @return the result of the operation
+	 */
+	public OperationResult addProduct(String name, String nameOfDirector, String synopsis, LocalDate premierDate,
+			String[] protagonists, boolean censored, String censorMotif) {
+		// The result of the operation
+		OperationResult result;
+
+		// Check if there is space in the storage and store the new show. The show is not
+		// stored if it has no name or there is already a product with the same name
+		if (name == null) {
+			result = OperationResult.INVALID_PRODUCT;
+		} else if (!checkProductAvailability()) {
+			result = OperationResult.NO_ROOM_FOR_PRODUCTS;
+		} else if (!registerProduct(new Show(name, nameOfDirector, synopsis, premierDate, protagonists, censored,
+				censorMotif))) {
+			result = OperationResult.DUPLICATE_PRODUCT_NAME;
+		} else {
+			result = OperationResult.SHOW_ADDED;
+		}
+
+		// Return the result of the operation
+		return result;
+	}
+
+	/**
+	 * An overloaded method to add a product. In this case, it is used to add a movie
+	 * 
+	 * <p>
+	 * <b>Precondition: </b> The user selected the option to add a new movie in
+	 * the menu and entered all the relevant data to the program
+	 * <p>
+	 * <b>Postcondition: </b> A result that may indicate the creation of a new
+	 * movie inside the product storage or not
+	 * 
+	 * @param name name of the new movie
+	 * @param nameOfDirector name of the director of the new movie
+	 * @param synopsis synopsis of the new movie
+	 * @param premierDate date in which the movie premiered (first emission)
+	 * @param producer the name of the producer of the new movie
+	 * @param minimumWatchAge the minimum age required to watch the new movie
+	 * @param trailerUrl the URL in which the trailer for the new movie can be found
+	 * @param movieCategorySelection a selection of the movie category (<code>1</code>: Romantic, <code>2</code>: Action, <code>3</code>: Suspense, <code>4</code>: Horror, <code>5</code>: Comedy)
+	 * @return the result of the operation
+	 */
+	public OperationResult addProduct(String name, String nameOfDirector, String synopsis, LocalDate premierDate,
+			String producer, int minimumWatchAge, String trailerUrl, int movieCategorySelection) {
+		// The result of the operation
+		OperationResult result;
+
+		// Check if there is space in the storage and store the new movie. The movie is not
+		// stored if it has no name or there is already a product with the same name
+		if (name == null) {
+			result = OperationResult.INVALID_PRODUCT;
+		} else if (!checkProductAvailability()) {
+			result = OperationResult.NO_ROOM_FOR_PRODUCTS;
+		} else if (!registerProduct(new Movie(name, nameOfDirector, synopsis, premierDate, producer, minimumWatchAge,
+				trailerUrl, movieCategorySelection))) {
+			result = OperationResult.DUPLICATE_PRODUCT_NAME;
+		} else {
+			result = OperationResult.MOVIE_ADDED;
+		}
+
+		// Return the result of the operation
+		return result;
+	}
+
+	/**
+	 * Adds a season to a specified show
+	 * 
+	 * <p>
+	 * <b>Precondition: </b> At least one show exists and the user selected the option to add a new season to a show in
+	 * the menu and entered all the relevant data to the program
+	 * <p>
+	 * <b>Postcondition: </b> A result that may indicate the creation of a new
+	 * season inside the show or not
+	 * 
+	 * @param nameOfShow name of the show in which the season will be stored
+	 * @param scheduledEpisodes number of the scheduled episodes
+	 * @param premierDate premier date of the new season
+	 * @param trailerUrl the URL in which the trailer for the new season can be found
+	 * @return the result of the operation
+	 */
+	public OperationResult addSeasonToShow(String nameOfShow, int scheduledEpisodes, LocalDate premierDate,
+			String trailerUrl) {
+		OperationResult result;
+		Product foundProduct = searchProduct(nameOfShow); //Get the product that matches the given product name
+
+		// Check if the found product is null and if it corresponds to a show or not
+		if (foundProduct == null) {
+			result = OperationResult.SHOW_NOT_FOUND;
+		} else if (foundProduct instanceof Show) {
+			// Downcast the found product to a show
+			Show foundShow = (Show) foundProduct;
+
+			lockWrite(productLock);
+			try {
+				// Create a new season with the given information, inferring the season number
+				Season newSeason = new Season(foundShow.getSeasonCount() + 1, scheduledEpisodes, premierDate,
+						trailerUrl);
+
+				// Store the result of the season addition
+				result = foundShow.addSeason(newSeason);
+			} finally {
+				unlockWrite(productLock);
+			}
+		} else {
+			// In case it is a product
+			result = OperationResult.NOT_A_SHOW;
+		}
+
+		return result;
+	}
+
+	/**
+	 * Checks the availability of the product storage in order to add more
+	 * products. The storage grows on demand, so it is only unavailable when it
+	 * reached its maximum size
+	 * 
+	 * <p>
+	 * <b>Precondition: </b> The method is called in addProduct
+	 * <p>
+	 * <b>Postcondition: </b> The availability of the product storage is stated
+	 * 
+	 * @return a boolean indicating the availability of the product storage
+	 */
+	public boolean checkProductAvailability() {
+		return getProductCount() < SlotStore.MAX_CAPACITY;
+	}
+
+	/**
+	 * Checks the existence of at least one product in the product array
+	 * 
+	 * <p>
+	 * <b>Precondition: </b> The user wants to interact with methods that require at
+	 * least one product
+	 * <p>
+	 * <b>Postcondition: </b> The existence of at least one product is stated
+	 * 
+	 * @return a boolean indicating the existence of at least one product in the
+	 *         product storage
+	 */
+	public boolean checkProductExistence() {
+		return getProductCount() > 0;
+	}
+
+	/**
+	 * Looks for a product by its name and returns it
+	 * 
+	 * <p>
+	 * <b>Precondition: </b> At least one product exists and the user is going to
+	 * modify or interact in a certain way with a specific product
+	 * <p>
+	 * <b>Postcondition: </b> A reference to the product is returned
+	 * 
+	 * @param name the name of the product to be found
+	 * @return a product that has the same name as the one that was entered
+	 */
+	public Product searchProduct(String name) {
+		// Look up the case-folded name in the index. If not found, return null
+		return productIndex.get(foldName(name));
+	}
+
+	/**
+	 * Stores a new product and registers it in the product index, unless another
+	 * product has the same name
+	 * 
+	 * <p>
+	 * <b>Precondition: </b> There is room for the product
+	 * <p>
+	 * <b>Postcondition: </b> The product is stored and can be found by its name
+	 * 
+	 * @param product the product to store
+	 * @return a boolean indicating if the product was stored
+	 */
+	private boolean registerProduct(Product product) {
+		long sequence;
+
+		lockWrite(productLock);
+		try {
+			// Reserve the name in the index. The reservation fails if the name is used
+			if (productIndex.putIfAbsent(foldName(product.getName()), product) != null) {
+				return false;
+			}
+
+			product.channel = this;
+			product.internStrings(metadataPool);
+			product.slot = products.add(product);
+			if (product instanceof Show) {
+				shows.add((Show) product);
+			}
+			for (IndexedField field : IndexedField.values()) {
+				indexProduct(product, field);
+			}
+			productText.add(product.slot, product);
+			sequence = journal == null ? 0 : journal.logProduct(product);
+		} finally {
+			unlockWrite(productLock);
+		}
+
+		commit(sequence);
+
+		return true;
+	}
+
+	/**
+	 * Removes a product of this channel from the secondary index of an attribute
+	 * 
+	 * <p>
+	 * <b>Precondition: </b> The method is called by the product before the
+	 * attribute (director, premier date or movie category) changes
+	 * <p>
+	 * <b>Postcondition: </b> The product is no longer in the index of the
+	 * attribute. In a concurrent channel, the product lock is held until
+	 * afterProductUpdate
+	 * 
+	 * @param product the product that will change
+	 * @param field   the attribute that will change
+	 */
+	void beforeProductUpdate(Product product, IndexedField field) {
+		lockWrite(productLock);
+		unindexProduct(product, field);
+	}
+
+	/**
+	 * Adds a product of this channel back to the secondary index of an attribute
+	 * 
+	 * <p>
+	 * <b>Precondition: </b> The method is called by the product after the
+	 * attribute changed, and beforeProductUpdate was called before with the same
+	 * attribute
+	 * <p>
+	 * <b>Postcondition: </b> The product is indexed by the current value of the
+	 * attribute, and the product lock is released. The other indexes are not
+	 * touched
+	 * 
+	 * @param product the product that changed
+	 * @param field   the attribute that changed
+	 */
+	void afterProductUpdate(Product product, IndexedField field) {
+		long sequence;
+
+		try {
+			indexProduct(product, field);
+			sequence = journal == null ? 0 : journal.logProduct(product);
+		} finally {
+			unlockWrite(productLock);
+		}
+
+		commit(sequence);
+	}
+
+	/**
+	 * Returns the canonical instance of a metadata value of the products of this
+	 * channel
+	 * 
+	 * @param value the value set in a product, which may be null
+	 * @return the pooled instance equal to the value
+	 */
+	String internMetadata(String value) {
+		lockWrite(productLock);
+		try {
+			return metadataPool.intern(value);
+		} finally {
+			unlockWrite(productLock);
+		}
+	}
+
+	/**
+	 * Replaces every value of an array of metadata by its canonical instance
 	 * 
-	 * @return a boolean indicating the availability of the subscriber array
+	 * @param values the values set in a product, which may be null
+	 * @return the same array
 	 */
-	public boolean checkSubscriberAvailability() {
-		boolean availability = false;
-
-		// Goes over the subscriber array and checks if at least one position is null
-		for (int i = 0; i < subscribers.length && !availability; i++) {
-			if (subscribers[i] == null) {
-				availability = true;
-			}
+	String[] internMetadata(String[] values) {
+		lockWrite(productLock);
+		try {
+			return metadataPool.intern(values);
+		} finally {
+			unlockWrite(productLock);
 		}
-
-		return availability;
 	}
 
 	/**
-	 * Checks the existence of at least one subscriber in the subscriber array
+	 * Removes a product of this channel from the text index
 	 * 
 	 * <p>
-	 * <b>Precondition: </b> The user wants to interact with methods that require at
-	 * least one subscriber
+	 * <b>Precondition: </b> The method is called by the product before its name,
+	 * synopsis or protagonists change
 	 * <p>
-	 * <b>Postcondition: </b> The existence of at least one subscriber is stated
+	 * <b>Postcondition: </b> The words of the product are no longer indexed. In a
+	 * concurrent channel, the product lock is held until afterProductTextUpdate
 	 * 
-	 * @return a boolean indicating the existence of at least one subscriber in the
-	 *         subscriber array
+	 * @param product the product that will change
 	 */
-	public boolean checkSubscriberExistence() {
-		boolean existence = false;
-
-		// Goes over the subscriber array and checks if at least one position is not
-		// null
-		for (int i = 0; i < subscribers.length && !existence; i++) {
-			if (subscribers[i] != null) {
-				existence = true;
-			}
-		}
-
-		return existence;
+	void beforeProductTextUpdate(Product product) {
+		lockWrite(productLock);
+		productText.remove(product.slot, product);
 	}
 
 	/**
-	 * Looks for a subscriber by its id and returns it
+	 * Adds a product of this channel back to the text index
 	 * 
 	 * <p>
-	 * <b>Precondition: </b> At least one subscriber exists and the user is going to
-	 * modify or interact in a certain way with a specific subscriber
+	 * <b>Precondition: </b> The method is called by the product after its text
+	 * changed, and beforeProductTextUpdate was called before
 	 * <p>
-	 * <b>Postcondition: </b> A reference to the subscriber is returned
+	 * <b>Postcondition: </b> The current words of the product are indexed, and the
+	 * product lock is released
 	 * 
-	 * @param id the id of the subscriber to be found
-	 * @return a subscriber that has the same id as the one that was entered
+	 * @param product the product that changed
 	 */
-	public Subscriber searchSubscriber(String id) {
-		// For-each loop that checks the if any subscriber has an id that matches the id
-		// in the parameter
-		for (Subscriber subscriber : subscribers) {
-			if (subscriber != null && subscriber.getId().equals(id)) {
-				// If so, it returns the subscriber
-				return subscriber;
-			}
+	void afterProductTextUpdate(Product product) {
+		long sequence;
+
+		try {
+			productText.add(product.slot, product);
+			sequence = journal == null ? 0 : journal.logProduct(product);
+		} finally {
+			unlockWrite(productLock);
 		}
 
-		// If not found, then return null
-		return null;
+		commit(sequence);
 	}
 
 	/**
-	 * Returns total active subscribers and a list stating the number of active
-	 * subscribers by type
+	 * Records a change of a product of this channel that no index depends on
 	 * 
 	 * <p>
-	 * <b>Precondition: </b> At least one subscriber exists and the user selected
-	 * the option to print the active subscribers by type in the menu
+	 * <b>Precondition: </b> The method is called by the product after the change
+	 * (e.g. of the producer of a movie or the censorship of a show)
 	 * <p>
-	 * <b>Postcondition: </b> The list is returned
+	 * <b>Postcondition: </b> The change is recorded in the journal, if the
+	 * channel has one
 	 * 
-	 * @return total active subscribers and a list with the active subscribers by
-	 *         type
+	 * @param product the product that changed
 	 */
-	public String printActiveSubscribersByType() {
-		// Integers that will store the active subscribers by type and total
-		int activeSubs = 0;
-		int activeNormalSubs = 0;
-		int activeGoldSubs = 0;
-		int activePlatinumSubs = 0;
-		int activeDiamondSubs = 0;
-		String activeSubsByType = "";
-
-		// For-each loop that checks the null value and activity of the subscribers
-		// before counting by the type
-		for (Subscriber subscriber : subscribers) {
-			if (subscriber != null && subscriber.isActive()) {
-				activeSubs++;
-				// Switch case to count by type
-				switch (subscriber.getType()) {
-				case NORMAL:
-					activeNormalSubs++;
-					break;
-				case GOLD:
-					activeGoldSubs++;
-					break;
-				case PLATINUM:
-					activePlatinumSubs++;
-					break;
-				case DIAMOND:
-					activeDiamondSubs++;
-					break;
-				}
-			}
+	void productChanged(Product product) {
+		if (journal == null) {
+			return;
 		}
 
-		// Declaration of the list to be returned
-		activeSubsByType = "There are " + activeSubs + " active subscribers distributed like this: \nNormal: "
-				+ activeNormalSubs + "\nGold: " + activeGoldSubs + "\nPlatinum: " + activePlatinumSubs + "\nDiamond: "
-				+ activeDiamondSubs;
+		long sequence;
+
+		lockWrite(productLock);
+		try {
+			sequence = journal.logProduct(product);
+		} finally {
+			unlockWrite(productLock);
+		}
 
-		return activeSubsByType;
+		commit(sequence);
 	}
 
 	/**
-	 * Returns the name of under-aged user with the most hours willing to consume
+	 * Adds a season to a show of this channel. The season is stored and recorded
+	 * under the product lock, so readers and checkpoints never see a show in the
+	 * middle of the change
 	 * 
 	 * <p>
-	 * <b>Precondition: </b> At least one subscriber exists and the user selected
-	 * the option to print the minor user with most hours to consume in the menu
+	 * <b>Precondition: </b> The method is called in Show.addSeason
 	 * <p>
-	 * <b>Postcondition: </b> The name of the requested subscriber is returned
+	 * <b>Postcondition: </b> The season is the last one of the show and is
+	 * recorded in the journal, if the channel has one, unless it is null or
+	 * already belongs to a show
 	 * 
-	 * @return the name of the under-aged subscriber with the most hours willing to
-	 *         consume
+	 * @param show   the show that receives the season
+	 * @param season the season to add
+	 * @return the result of the operation
 	 */
-	public String printMinorMostHoursSub() {
-		// Initialize the name with a message in case no minor subscriber is found
-		String name = "*No minor subscriber found*";
-		int mostHours = 0;
+	OperationResult addSeason(Show show, Season season) {
+		OperationResult result;
+		long sequence = 0;
 
-		// For-each loop to evaluate the age and hours to consume of every subscriber
-		for (Subscriber subscriber : subscribers) {
-			if (subscriber != null && subscriber.getAge() < 18 && subscriber.getHoursToConsume() > mostHours) {
-				// If found, save the name
-				name = subscriber.getFullName() + " - Hours: " + subscriber.getHoursToConsume();
-				// And most hours in case another one containing more hours is found
-				mostHours = subscriber.getHoursToConsume();
+		lockWrite(productLock);
+		try {
+			result = show.storeSeason(season);
+
+			if (result == OperationResult.SEASON_ADDED && journal != null) {
+				sequence = journal.logSeason(show, season);
 			}
+		} finally {
+			unlockWrite(productLock);
 		}
 
-		return name;
+		commit(sequence);
+
+		return result;
 	}
 
 	/**
-	 * Returns a list containing all of the subscribers at the moment with their
-	 * respective information
+	 * Records a changed season of a show of this channel
 	 * 
 	 * <p>
-	 * <b>Precondition: </b> The user selected an option that requires the
-	 * subscribers to be shown in the menu (e.g. deactivate a subscriber)
+	 * <b>Precondition: </b> The method is called by the season after one of its
+	 * attributes changed
 	 * <p>
-	 * <b>Postcondition: </b> The list is returned
+	 * <b>Postcondition: </b> The current attributes of the season are recorded in
+	 * the journal, if the channel has one
 	 * 
-	 * @return a list with all of the current subscribers represented in Strings
+	 * @param show   the show of the season
+	 * @param season the season that changed
 	 */
-	public String printSubscribers() {
-		String subs = "";
+	void seasonChanged(Show show, Season season) {
+		if (journal == null) {
+			return;
+		}
 
-		// Look for all of the subscribers that contain information and add them to a
-		// String
-		for (int i = 0; i < subscribers.length; i++) {
-			if (subscribers[i] != null) {
-				subs += (i + 1) + ". " + subscribers[i].toString() + "\n";
-			}
+		long sequence;
+
+		lockWrite(productLock);
+		try {
+			sequence = journal.logSeason(show, season);
+		} finally {
+			unlockWrite(productLock);
 		}
 
-		return subs;
+		commit(sequence);
 	}
 
 	/**
-	 * An overloaded method to add a product. In this case, it is used to add a show
-	 * 
-	 * <p>
-	 * <b>Precondition: </b> The user selected the option to add a new show in
-	 * the menu and entered all the relevant data to the program
-	 * <p>
-	 * <b>Postcondition: </b> A message that may indicate the creation of a new
-	 * show inside the product array or not
+	 * Removes a product from the secondary index of an attribute: the category
+	 * partitions, the director index or the premier date index. The buckets are
+	 * sets, so the product is removed without scanning them
 	 * 
-	 * @param name name of the new show
-	 * @param nameOfDirector name of the director of the new show
-	 * @param synopsis synopsis of the new show
-	 * @param premierDate date in which the show premiered (first emission)
-	 * @param protagonists a string array indicating the protagonists of the new show
-	 * @param censored boolean to determine if the new show has been censored or not
-	 * @param censorMotif the censor motif of the new show
-	 * @return a message indicating the result of the operation
+	 * @param product the product to remove
+	 * @param field   the attribute whose index is updated
 	 */
-	public String addProduct(String name, String nameOfDirector, String synopsis, LocalDate premierDate,
-			String[] protagonists, boolean censored, String censorMotif) {
-		// A message that will notify the result of the operation
-		String message = "";
-
-		// Check if there is space in the array and if there is already a product
-		// with the same name as the one that will be created
-		if (!checkProductAvailability()) {
-			message = "Error, there is no room for more products";
-		} else if (searchProduct(name) != null) {
-			message = "Error, there is already a product with the same name";
-		} else {
-			// If a certain position in the product array is empty, create a new
-			// show inside and break out of the loop
-			for (int i = 0; i < products.length; i++) {
-				if (products[i] == null) {
-					products[i] = new Show(name, nameOfDirector, synopsis, premierDate, protagonists, censored,
-							censorMotif);
-					break;
+	private void unindexProduct(Product product, IndexedField field) {
+		switch (field) {
+		case CATEGORY:
+			if (product instanceof Movie && ((Movie) product).getCategory() != null) {
+				moviesByCategory.get(((Movie) product).getCategory()).remove(product);
+			}
+			break;
+		case DIRECTOR:
+			if (product.getNameOfDirector() != null) {
+				String director = foldName(product.getNameOfDirector());
+				LinkedHashSet<Product> directed = productsByDirector.get(director);
+
+				// Drop the directors without products so that the index does not keep them
+				if (directed != null && directed.remove(product) && directed.isEmpty()) {
+					productsByDirector.remove(director);
 				}
 			}
+			break;
+		case PREMIER_DATE:
+			if (product.getPremierDate() != null) {
+				LinkedHashSet<Product> premiered = productsByPremierDate.get(product.getPremierDate());
 
-			message = "Show added successfully";
+				if (premiered != null && premiered.remove(product) && premiered.isEmpty()) {
+					productsByPremierDate.remove(product.getPremierDate());
+				}
+			}
+			break;
 		}
-
-		// Return the result of the operation
-		return message;
 	}
 
 	/**
-	 * An overloaded method to add a product. In this case, it is used to add a movie
-	 * 
-	 * <p>
-	 * <b>Precondition: </b> The user selected the option to add a new movie in
-	 * the menu and entered all the relevant data to the program
-	 * <p>
-	 * <b>Postcondition: </b> A message that may indicate the creation of a new
-	 * movie inside the product array or not
+	 * Adds a product to the secondary index of an attribute
 	 * 
-	 * @param name name of the new movie
-	 * @param nameOfDirector name of the director of the new movie
-	 * @param synopsis synopsis of the new movie
-	 * @param premierDate date in which the movie premiered (first emission)
-	 * @param producer the name of the producer of the new movie
-	 * @param minimumWatchAge the minimum age required to watch the new movie
-	 * @param trailerUrl the URL in which the trailer for the new movie can be found
-	 * @param movieCategorySelection a selection of the movie category (<code>1</code>: Romantic, <code>2</code>: Action, <code>3</code>: Suspense, <code>4</code>: Horror, <code>5</code>: Comedy)
-	 * @return a message indicating the result of the operation
+	 * @param product the product to add
+	 * @param field   the attribute whose index is updated
 	 */
-	public String addProduct(String name, String nameOfDirector, String synopsis, LocalDate premierDate,
-			String producer, int minimumWatchAge, String trailerUrl, int movieCategorySelection) {
-		// A message that will notify the result of the operation
-		String message = "";
-
-		// Check if there is space in the array and if there is already a product
-		// with the same name as the one that will be created
-		if (!checkProductAvailability()) {
-			message = "Error, there is no room for more products";
-		} else if (searchProduct(name) != null) {
-			message = "Error, there is already a product with the same name";
-		} else {
-			// If a certain position in the product array is empty, create a new
-			// movie inside and break out of the loop
-			for (int i = 0; i < products.length; i++) {
-				if (products[i] == null) {
-					products[i] = new Movie(name, nameOfDirector, synopsis, premierDate, producer, minimumWatchAge,
-							trailerUrl, movieCategorySelection);
-					break;
-				}
+	private void indexProduct(Product product, IndexedField field) {
+		switch (field) {
+		case CATEGORY:
+			if (product instanceof Movie && ((Movie) product).getCategory() != null) {
+				moviesByCategory.get(((Movie) product).getCategory()).add((Movie) product);
 			}
-
-			message = "Movie added successfully";
+			break;
+		case DIRECTOR:
+			if (product.getNameOfDirector() != null) {
+				productsByDirector.computeIfAbsent(foldName(product.getNameOfDirector()), k -> new LinkedHashSet<>())
+						.add(product);
+			}
+			break;
+		case PREMIER_DATE:
+			if (product.getPremierDate() != null) {
+				productsByPremierDate.computeIfAbsent(product.getPremierDate(), k -> new LinkedHashSet<>())
+						.add(product);
+			}
+			break;
 		}
-
-		// Return the result of the operation
-		return message;
 	}
 
 	/**
-	 * Adds a season to a specified show
+	 * Changes the name of a product of this channel and indexes it by the new
+	 * name. The name is stored under the product lock, so that the indexes, the
+	 * journal and the product always agree on it
 	 * 
 	 * <p>
-	 * <b>Precondition: </b> At least one show exists and the user selected the option to add a new season to a show in
-	 * the menu and entered all the relevant data to the program
+	 * <b>Precondition: </b> The method is called in Product.setName
 	 * <p>
-	 * <b>Postcondition: </b> A message that may indicate the creation of a new
-	 * season inside the show or not
+	 * <b>Postcondition: </b> The product has the new name, is indexed by it and
+	 * by its words, and the change is recorded in the journal, unless the name is
+	 * null or another product already uses it. A rejected name changes nothing
 	 * 
-	 * @param nameOfShow name of the show in which the season will be stored
-	 * @param scheduledEpisodes number of the scheduled episodes
-	 * @param premierDate premier date of the new season
-	 * @param trailerUrl the URL in which the trailer for the new season can be found
-	 * @return a message indicating the result of the opertation
+	 * @param product the product whose name will change
+	 * @param newName the name that will be set
+	 * @return a boolean indicating if the new name was set
 	 */
-	public String addSeasonToShow(String nameOfShow, int scheduledEpisodes, LocalDate premierDate, String trailerUrl) {
-		String message = "";
-		Product foundProduct = searchProduct(nameOfShow); //Get the product that matches the given product name
+	boolean changeProductName(Product product, String newName) {
+		// Products are indexed by name, so every product of a channel has one
+		if (newName == null) {
+			return false;
+		}
 
-		// Check if the found product is null and if it corresponds to a show or not
-		if (foundProduct == null) {
-			message = "Error, there is no show by that name";
-		} else if (foundProduct instanceof Show) {
-			// Downcast the found product to a show
-			Show foundShow = (Show) foundProduct;
+		String newKey = foldName(newName);
+		long sequence;
 
-			// Create a new season with the given information, inferring the season number
-			Season newSeason = new Season(foundShow.searchSeasonsAvailableSpace() + 1, scheduledEpisodes, premierDate,
-					trailerUrl);
+		lockWrite(productLock);
+		try {
+			Product current = productIndex.get(newKey);
 
-			// Store in the message, the result of the season addition
-			message = foundShow.addSeason(newSeason);
-		} else {
-			// In case it is a product
-			message = "The introduced name of product does not correspond to a show";
+			// Another product already has this name, so the change is rejected
+			if (current != null && current != product) {
+				return false;
+			}
+
+			sequence = journal == null ? 0 : journal.logProductName(product.getName(), newName);
+			productText.remove(product.slot, product);
+			productIndex.remove(foldName(product.getName()));
+			productIndex.put(newKey, product);
+			product.assignName(newName);
+			productText.add(product.slot, product);
+		} finally {
+			unlockWrite(productLock);
 		}
 
-		return message;
+		// Wait for the journal outside the lock
+		commit(sequence);
+
+		return true;
 	}
 
 	/**
-	 * Checks the availability of the product array in order to add more products
-	 * 
-	 * <p>
-	 * <b>Precondition: </b> The method is called in addProduct
-	 * <p>
-	 * <b>Postcondition: </b> The availability of the product array is stated
+	 * Folds the case of a product name so that two names that are equal ignoring
+	 * case produce the same key. The folding is the same that
+	 * String.equalsIgnoreCase applies and does not depend on the default locale
 	 * 
-	 * @return a boolean indicating the availability of the product array
+	 * @param name the name to fold
+	 * @return the folded name, or null if the name is null
 	 */
-	public boolean checkProductAvailability() {
-		boolean availability = false;
-
-		// Goes over the product array and checks if at least one position is null
-		for (int i = 0; i < products.length && !availability; i++) {
-			if (products[i] == null) {
-				availability = true;
-			}
+	static String foldName(String name) {
+		if (name == null) {
+			return null;
 		}
 
-		return availability;
-	}
+		// Find the first character that changes. If there is none, the name is already
+		// folded and no copy is needed
+		int i = 0;
+		while (i < name.length() && foldChar(name.charAt(i)) == name.charAt(i)) {
+			i++;
+		}
 
-	/**
-	 * Checks the existence of at least one product in the product array
-	 * 
-	 * <p>
-	 * <b>Precondition: </b> The user wants to interact with methods that require at
-	 * least one product
-	 * <p>
-	 * <b>Postcondition: </b> The existence of at least one product is stated
-	 * 
-	 * @return a boolean indicating the existence of at least one product in the
-	 *         product array
-	 */
-	public boolean checkProductExistence() {
-		boolean existence = false;
+		if (i == name.length()) {
+			return name;
+		}
 
-		// Goes over the product array and checks if at least one position is not
-		// null
-		for (int i = 0; i < products.length && !existence; i++) {
-			if (products[i] != null) {
-				existence = true;
-			}
+		char[] folded = name.toCharArray();
+		for (; i < folded.length; i++) {
+			folded[i] = foldChar(folded[i]);
 		}
 
-		return existence;
+		return new String(folded);
 	}
 
 	/**
-	 * Looks for a product by its name and returns it
-	 * 
-	 * <p>
-	 * <b>Precondition: </b> At least one product exists and the user is going to
-	 * modify or interact in a certain way with a specific product
-	 * <p>
-	 * <b>Postcondition: </b> A reference to the product is returned
+	 * Folds the case of a single character
 	 * 
-	 * @param name the name of the product to be found
-	 * @return a product that has the same name as the one that was entered
+	 * @param c the character to fold
+	 * @return the folded character
 	 */
-	public Product searchProduct(String name) {
-		// For-each loop that checks the if any product has name that matches the name
-		// in the parameter
-		for (Product product : products) {
-			if (product != null && product.getName().equalsIgnoreCase(name)) {
-				// If so, return the product
-				return product;
-			}
-		}
-
-		// If not found, return null
-		return null;
+	private static char foldChar(char c) {
+		return Character.toLowerCase(Character.toUpperCase(c));
 	}
 
 	/**
@@ -577,7 +1875,7 @@ public class Channel {
 		String result = "";
 
 		// Check if the product is null or not
-		if (searchProduct(name) != null) {
+		if (productToPrint != null) {
 			// Identify if the found product is a show or a movie and ossign the toString value to the result
 			result = (productToPrint instanceof Show) ? "Found Show:" : "Found movie:";
 			result += "\n" + productToPrint.toString();
@@ -603,10 +1901,9 @@ public class Channel {
 	 */
 	public String printMoviesOfCategory(int categorySelection) {
 		MovieCategory selectedCategory = null;
-		String printedMovies = "";
-		boolean foundAMovieOfCategory = false;
+		StringBuilder printedMovies = new StringBuilder();
 
-		// Set a MovieCategory value to selectedCategory in order to make the comparisons with the movies
+		// Set a MovieCategory value to selectedCategory in order to get its movies
 		switch (categorySelection) {
 			case 1:
 				selectedCategory = MovieCategory.ROMANTIC;
@@ -627,22 +1924,166 @@ public class Channel {
 				return "Error, invalid selection";
 		}
 
-		// If the selection is not considered as invalid, continue with the program.
-		// Get through the array and search for a movie
-		for (Product product : products) {
-			if (product != null && product instanceof Movie) {
-				Movie aMovie = (Movie) product;
+		// If the selection is not considered as invalid, write the movies of the category
+		try {
+			if (!printMoviesOfCategory(selectedCategory, printedMovies)) {
+				return "*There are no movies by this category*";
+			}
+		} catch (IOException e) {
+			// A StringBuilder does not throw IOException
+			throw new UncheckedIOException(e);
+		}
+
+		return printedMovies.toString();
+	}
 
-				// Just add the movie to the resultant string if it meets the category condition
-				if (aMovie.getCategory() == selectedCategory) {
-					foundAMovieOfCategory = true;
-					printedMovies += "\n" + aMovie.toString() + "\n";
-				}
+	/**
+	 * Writes the information of the movies of a category
+	 * 
+	 * <p>
+	 * <b>Precondition: </b> The category is not null
+	 * <p>
+	 * <b>Postcondition: </b> Each movie of the category is written to the output,
+	 * in the order in which it entered the category
+	 * 
+	 * @param category the category of the movies to write
+	 * @param out      the output in which the movies are written
+	 * @return a boolean indicating if at least one movie was written
+	 * @throws IOException if the output cannot be written
+	 */
+	public boolean printMoviesOfCategory(MovieCategory category, Appendable out) throws IOException {
+		lockRead(productLock);
+		try {
+			LinkedHashSet<Movie> movies = moviesByCategory.get(category);
+
+			// Only the movies of the category are visited
+			for (Movie aMovie : movies) {
+				out.append('\n').append(aMovie.toString()).append('\n');
+			}
+
+			return !movies.isEmpty();
+		} finally {
+			unlockRead(productLock);
+		}
+	}
+
+	/**
+	 * Returns the products of a director
+	 * 
+	 * <p>
+	 * <b>Precondition: </b> None
+	 * <p>
+	 * <b>Postcondition: </b> The products are found through the director index,
+	 * without visiting the other products
+	 * 
+	 * @param nameOfDirector the name of the director, compared ignoring case
+	 * @return a list with the products of the director, in the order in which they
+	 *         were indexed (empty if there are none)
+	 */
+	public List<Product> searchProductsByDirector(String nameOfDirector) {
+		if (nameOfDirector == null) {
+			return new ArrayList<>();
+		}
+
+		lockRead(productLock);
+		try {
+			LinkedHashSet<Product> directed = productsByDirector.get(foldName(nameOfDirector));
+
+			return directed == null ? new ArrayList<>() : new ArrayList<>(directed);
+		} finally {
+			unlockRead(productLock);
+		}
+	}
+
+	/**
+	 * Returns the products that premiered between two dates. The dates are found
+	 * in the sorted premier date index, so the cost depends on the logarithm of
+	 * the number of dates plus the number of products returned
+	 * 
+	 * <p>
+	 * <b>Precondition: </b> The dates are not null
+	 * <p>
+	 * <b>Postcondition: </b> The products of the range are returned
+	 * 
+	 * @param from the first date of the range (inclusive)
+	 * @param to   the last date of the range (inclusive)
+	 * @return a list with the products of the range, from the oldest to the newest
+	 *         premier (empty if the range is inverted)
+	 */
+	public List<Product> searchProductsByPremierDate(LocalDate from, LocalDate to) {
+		List<Product> premiered = new ArrayList<>();
+
+		if (from.isAfter(to)) {
+			return premiered;
+		}
+
+		lockRead(productLock);
+		try {
+			for (LinkedHashSet<Product> ofDate : productsByPremierDate.subMap(from, true, to, true).values()) {
+				premiered.addAll(ofDate);
 			}
+		} finally {
+			unlockRead(productLock);
 		}
 
-		// Return the printed movies or a message indicating the absence of the movies by the category
-		return foundAMovieOfCategory ? printedMovies : "*There are no movies by this category*";
+		return premiered;
+	}
+
+	/**
+	 * Returns the products whose name, synopsis or protagonists contain the words
+	 * of a query. Words are runs of letters or digits and are compared ignoring
+	 * case. The products are found in the text index, so no product text is read
+	 * 
+	 * <p>
+	 * <b>Precondition: </b> None
+	 * <p>
+	 * <b>Postcondition: </b> The matching products are returned
+	 * 
+	 * @param query    the words to look for
+	 * @param allWords true to return the products that contain every word, false
+	 *                 to return the products that contain any of them
+	 * @return a list with the matching products, in the order of the product
+	 *         storage (empty if the query has no words)
+	 */
+	public List<Product> searchProductsByKeywords(String query, boolean allWords) {
+		List<Product> found = new ArrayList<>();
+
+		lockRead(productLock);
+		try {
+			for (int slot : productText.search(query, allWords)) {
+				found.add(products.get(slot));
+			}
+		} finally {
+			unlockRead(productLock);
+		}
+
+		return found;
+	}
+
+	/**
+	 * Passes each movie of a category to an action. In a concurrent channel, the
+	 * movies are copied under the lock and the action runs outside it, so the
+	 * action can change them
+	 * 
+	 * @param category the category of the movies
+	 * @param action   the action to perform on each movie
+	 */
+	public void forEachMovieOfCategory(MovieCategory category, Consumer<? super Movie> action) {
+		if (productLock == null) {
+			moviesByCategory.get(category).forEach(action);
+			return;
+		}
+
+		List<Movie> movies;
+
+		lockRead(productLock);
+		try {
+			movies = new ArrayList<>(moviesByCategory.get(category));
+		} finally {
+			unlockRead(productLock);
+		}
+
+		movies.forEach(action);
 	}
 
 	/**
@@ -657,35 +2098,112 @@ public class Channel {
 	 * @return a list with the information of the shows and their last seasons, or a message indicating its absence
 	 */
 	public String printShowsWithLastSeasons() {
-		String printedShows = "";
-		boolean foundAShow = false;
-		int lastSeasonIndex = 0;
-
-		// For-each loop to determine which product corresponds to a show and print its information
-		for (Product product : products) {
-			if (product != null && product instanceof Show) {
-				// At least one show has been found
-				foundAShow = true;
-
-				// Downcast the found product
-				Show aShow = (Show) product;
-
-				// Determine the index of the last season
-				if (aShow.searchSeasonsAvailableSpace() == -1) {
-					lastSeasonIndex = Show.MAX_SEASONS - 1;
-				} else {
-					lastSeasonIndex = aShow.searchSeasonsAvailableSpace() - 1;
-				}
+		StringBuilder printedShows = new StringBuilder();
+
+		try {
+			// Return the message if no show was found
+			if (!printShowsWithLastSeasons(printedShows)) {
+				return "*There are no shows yet*";
+			}
+		} catch (IOException e) {
+			// A StringBuilder does not throw IOException
+			throw new UncheckedIOException(e);
+		}
 
-				// Get the seasons of the found show
-				Season[] showSeasons = aShow.getSeasons(); 
+		return printedShows.toString();
+	}
 
-				// Add to the printed shows, the found show with its last season information
-				printedShows += "\n" + aShow.toString() + "\nLast Season Info: " + showSeasons[lastSeasonIndex].toString() + "\n";
+	/**
+	 * Writes the information of every show along with the information of its last
+	 * season. The shows are kept in their own partition and the last season of
+	 * each show is read directly, so the movies are not visited
+	 * 
+	 * <p>
+	 * <b>Precondition: </b> The output is not null
+	 * <p>
+	 * <b>Postcondition: </b> The shows are written to the output, in the order of
+	 * the product storage
+	 * 
+	 * @param out the output in which the shows are written
+	 * @return a boolean indicating if at least one show was written
+	 * @throws IOException if the output cannot be written
+	 */
+	public boolean printShowsWithLastSeasons(Appendable out) throws IOException {
+		lockRead(productLock);
+		try {
+			// Write the information of each show
+			for (Show aShow : shows) {
+				// Get the last season of the show
+				Season lastSeason = aShow.getLastSeason();
+
+				// Write the show with its last season information
+				out.append('\n').append(aShow.toString()).append("\nLast Season Info: ")
+						.append(lastSeason != null ? lastSeason.toString() : "*No seasons yet*").append('\n');
 			}
+
+			return !shows.isEmpty();
+		} finally {
+			unlockRead(productLock);
+		}
+	}
+
+	/**
+	 * Waits until a record of the journal is durable, according to the sync
+	 * policy of the journal. It is called after the locks of the change are
+	 * released
+	 * 
+	 * @param sequence the sequence number of the record, or 0 if nothing was
+	 *                 recorded
+	 */
+	private void commit(long sequence) {
+		ChannelJournal current = journal;
+
+		if (current != null && sequence > 0) {
+			current.commit(sequence);
+		}
+	}
+
+	/**
+	 * Takes the read lock of a concurrent channel
+	 * 
+	 * @param lock the lock to take, or null if the channel is not concurrent
+	 */
+	private static void lockRead(ReentrantReadWriteLock lock) {
+		if (lock != null) {
+			lock.readLock().lock();
+		}
+	}
+
+	/**
+	 * Releases the read lock of a concurrent channel
+	 * 
+	 * @param lock the lock to release, or null if the channel is not concurrent
+	 */
+	private static void unlockRead(ReentrantReadWriteLock lock) {
+		if (lock != null) {
+			lock.readLock().unlock();
+		}
+	}
+
+	/**
+	 * Takes the write lock of a concurrent channel
+	 * 
+	 * @param lock the lock to take, or null if the channel is not concurrent
+	 */
+	private static void lockWrite(ReentrantReadWriteLock lock) {
+		if (lock != null) {
+			lock.writeLock().lock();
 		}
+	}
 
-		// Return the printed shows or the message if at least a show was found or not
-		return foundAShow ? printedShows : "*There are no shows yet*";
+	/**
+	 * Releases the write lock of a concurrent channel
+	 * 
+	 * @param lock the lock to release, or null if the channel is not concurrent
+	 */
+	private static void unlockWrite(ReentrantReadWriteLock lock) {
+		if (lock != null) {
+			lock.writeLock().unlock();
+		}
 	}
-}
\ No newline at end of file
+}
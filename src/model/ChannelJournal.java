@@ -0,0 +1,1127 @@
+package model;
+
+import java.io.Closeable;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.zip.CRC32;
+
+/**
+ * Append-only journal of the changes of a channel. Once a channel has a
+ * journal, every change (new, updated, renamed and removed subscribers and
+ * products, new seasons and the data of the channel) is appended to it as a
+ * record, so the channel can be recovered by replaying the journal on top of
+ * the last snapshot.
+ *
+ * <p>
+ * Records are buffered in memory and written in batches. With the ALWAYS
+ * policy, a change returns once its record is on disk, and the threads that
+ * wait at the same time share a single sync (group commit). With the INTERVAL
+ * policy, a background thread syncs the journal periodically, so a crash loses
+ * at most the changes of the last interval. With the NEVER policy, the journal
+ * is only synced by sync(), checkpoint() and close().
+ *
+ * <p>
+ * Every record holds its length and a checksum, so a record that was only
+ * partly written before a crash is detected and dropped during recovery
+ */
+public class ChannelJournal implements Closeable {
+	// Constants
+	public static final int MAGIC = 0x4253574C; // "BSWL"
+	public static final short VERSION = 2;
+	public static final long DEFAULT_SYNC_INTERVAL_MILLIS = 10;
+
+	private static final int HEADER_SIZE = 6;
+	private static final int RECORD_HEADER_SIZE = 8;
+	private static final int MAX_RECORD_SIZE = 1 << 28;
+
+	// Buffered records are written when they reach this size, even if they do
+	// not have to be synced yet
+	private static final int WRITE_THRESHOLD = 1 << 20;
+
+	private static final byte CHANNEL = 1;
+	private static final byte SUBSCRIBER = 2;
+	private static final byte SUBSCRIBER_ID = 3;
+	private static final byte SUBSCRIBER_REMOVED = 4;
+	private static final byte PRODUCT = 5;
+	private static final byte PRODUCT_NAME = 6;
+	private static final byte SEASON = 7;
+
+	private static final byte MOVIE = 0;
+	private static final byte SHOW = 1;
+	private static final long NO_DATE = Long.MIN_VALUE;
+
+	/**
+	 * Moments in which the records are synced to the disk
+	 */
+	public enum SyncPolicy {
+		ALWAYS, INTERVAL, NEVER
+	}
+
+	// Attributes
+	// Absolute path of the journal and its open file, which a checkpoint replaces
+	// with a new one
+	private Path path;
+	private FileChannel file;
+	private SyncPolicy policy;
+	private long syncIntervalMillis;
+
+	// Records that have not been written yet, and the buffer that is being
+	// written (null while a write is in progress)
+	private ByteBuffer pending;
+	private ByteBuffer spare;
+
+	// Number of records appended, written and synced since the journal was opened
+	private long appended;
+	private long written;
+	private long synced;
+
+	// True while a thread writes or syncs outside the lock
+	private boolean flushing;
+	private boolean closed;
+	private IOException failure;
+
+	private CRC32 checksum;
+	private ReentrantLock lock;
+
+	// Checkpoints only take the read locks of the channel, so they run one at a
+	// time under this lock
+	private ReentrantLock checkpointLock;
+	private Condition flushed;
+	private Condition stopping;
+	private Thread syncer;
+
+	/**
+	 * Constructor of the channel journal class
+	 *
+	 * @param path               the path of the journal
+	 * @param file               the open journal file, positioned at its end
+	 * @param policy             the sync policy
+	 * @param syncIntervalMillis the time between syncs of the INTERVAL policy
+	 */
+	private ChannelJournal(Path path, FileChannel file, SyncPolicy policy, long syncIntervalMillis) {
+		this.path = path.toAbsolutePath();
+		this.file = file;
+		this.policy = policy;
+		this.syncIntervalMillis = syncIntervalMillis;
+		pending = ByteBuffer.allocate(WRITE_THRESHOLD + (WRITE_THRESHOLD >> 2));
+		spare = ByteBuffer.allocate(pending.capacity());
+		checksum = new CRC32();
+		lock = new ReentrantLock();
+		checkpointLock = new ReentrantLock();
+		flushed = lock.newCondition();
+		stopping = lock.newCondition();
+
+		if (policy == SyncPolicy.INTERVAL) {
+			syncer = new Thread(this::syncPeriodically, "channel-journal-sync");
+			syncer.setDaemon(true);
+			syncer.start();
+		}
+	}
+
+	/**
+	 * Opens a journal with the INTERVAL policy and the default interval
+	 *
+	 * @param path the journal file, which is created if it does not exist
+	 * @return the open journal
+	 * @throws IOException if the file cannot be opened or is not a journal
+	 * @see #open(Path, SyncPolicy, long)
+	 */
+	public static ChannelJournal open(Path path) throws IOException {
+		return open(path, SyncPolicy.INTERVAL, DEFAULT_SYNC_INTERVAL_MILLIS);
+	}
+
+	/**
+	 * Opens a journal to append records after the ones it already has
+	 *
+	 * <p>
+	 * <b>Precondition: </b> The journal was already recovered, as a record that
+	 * was only partly written is removed
+	 * <p>
+	 * <b>Postcondition: </b> The journal is open and positioned after its last
+	 * complete record
+	 *
+	 * @param path               the journal file, which is created if it does not
+	 *                           exist
+	 * @param policy             the moments in which the records are synced
+	 * @param syncIntervalMillis the time between syncs of the INTERVAL policy
+	 * @return the open journal
+	 * @throws IOException if the file cannot be opened or is not a journal
+	 */
+	public static ChannelJournal open(Path path, SyncPolicy policy, long syncIntervalMillis) throws IOException {
+		if (syncIntervalMillis <= 0) {
+			throw new IllegalArgumentException("The sync interval must be positive");
+		}
+
+		FileChannel file = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ,
+				StandardOpenOption.WRITE);
+
+		try {
+			if (file.size() == 0) {
+				writeHeader(file);
+			} else {
+				// Drop the incomplete record that a crash may have left at the end
+				file.truncate(validLength(file));
+			}
+
+			file.position(file.size());
+			return new ChannelJournal(path, file, policy, syncIntervalMillis);
+		} catch (IOException | RuntimeException e) {
+			file.close();
+			throw e;
+		}
+	}
+
+	/**
+	 * Recovers a channel from its last snapshot and its journal
+	 *
+	 * <p>
+	 * <b>Precondition: </b> The journal is not open
+	 * <p>
+	 * <b>Postcondition: </b> The channel of the snapshot is returned with every
+	 * complete record of the journal applied to it. Records that were already in
+	 * the snapshot (when a crash happened during a checkpoint) have no effect
+	 *
+	 * @param snapshot the last snapshot of the channel, which may not exist
+	 * @param journal  the journal of the channel, which may not exist
+	 * @return the recovered channel, without a journal
+	 * @throws IOException if the files cannot be read, or there is neither a
+	 *                     snapshot nor a journal that creates the channel
+	 */
+	public static Channel recover(Path snapshot, Path journal) throws IOException {
+		Channel channel = Files.exists(snapshot) ? ChannelSnapshot.read(snapshot) : null;
+
+		if (!Files.exists(journal)) {
+			if (channel == null) {
+				throw new IOException("There is no snapshot nor journal to recover");
+			}
+
+			return channel;
+		}
+
+		try (FileChannel file = FileChannel.open(journal, StandardOpenOption.READ)) {
+			ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+			if (file.size() > 0) {
+				readHeader(file, header);
+			}
+
+			BinaryInput in = new BinaryInput(file);
+			byte[] body;
+
+			while ((body = readRecord(in)) != null) {
+				channel = apply(channel, ByteBuffer.wrap(body));
+			}
+		}
+
+		if (channel == null) {
+			throw new IOException("The journal does not create a channel");
+		}
+
+		return channel;
+	}
+
+	/**
+	 * Returns the policy
+	 *
+	 * @return the moments in which the records are synced
+	 */
+	public SyncPolicy getPolicy() {
+		return policy;
+	}
+
+	/**
+	 * Writes and syncs every record appended so far
+	 *
+	 * @throws IOException if the journal cannot be written
+	 */
+	public void sync() throws IOException {
+		lock.lock();
+		try {
+			flush(appended, true);
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	/**
+	 * Saves a snapshot of a channel and starts a new empty journal, so that
+	 * recovery starts from the new snapshot. The new journal is written and
+	 * synced next to the old one before it replaces it, so a crash leaves either
+	 * the old journal, whose records are already in the snapshot, or the new one
+	 *
+	 * <p>
+	 * <b>Precondition: </b> The journal belongs to the channel
+	 * <p>
+	 * <b>Postcondition: </b> The snapshot holds every change of the channel and
+	 * the journal has no records. The changes made meanwhile wait for the
+	 * checkpoint to finish
+	 *
+	 * @param channel  the channel to save
+	 * @param snapshot the file in which the snapshot is written
+	 * @throws IOException if the snapshot or the journal cannot be written
+	 */
+	public void checkpoint(Channel channel, Path snapshot) throws IOException {
+		checkpointLock.lock();
+		channel.lockSubscribers();
+		channel.lockProducts();
+		try {
+			ChannelSnapshot.write(channel, snapshot);
+
+			lock.lock();
+			try {
+				// Records appended before the snapshot are in it, so they are dropped.
+				// The file is only replaced once no other thread is writing to it
+				flush(appended, false);
+				while (flushing) {
+					flushed.awaitUninterruptibly();
+				}
+
+				rotate();
+				synced = written;
+			} finally {
+				lock.unlock();
+			}
+		} finally {
+			channel.unlockProducts();
+			channel.unlockSubscribers();
+			checkpointLock.unlock();
+		}
+	}
+
+	/**
+	 * Syncs every record and closes the journal
+	 */
+	@Override
+	public void close() throws IOException {
+		lock.lock();
+		try {
+			if (closed) {
+				return;
+			}
+
+			closed = true;
+			stopping.signalAll();
+		} finally {
+			lock.unlock();
+		}
+
+		try {
+			if (syncer != null) {
+				syncer.join();
+			}
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+
+		try {
+			sync();
+		} finally {
+			file.close();
+		}
+	}
+
+	/**
+	 * Appends the data of a channel
+	 *
+	 * @param channel the channel to record
+	 * @return the sequence number of the record
+	 */
+	long logChannel(Channel channel) {
+		lock.lock();
+		try {
+			int start = begin(CHANNEL);
+			putString(channel.getNit());
+			putString(channel.getAddress());
+			putString(channel.getWebsite());
+
+			return end(start);
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	/**
+	 * Appends the current attributes of a subscriber, which is added when it is
+	 * replayed if its id is not registered yet
+	 *
+	 * @param subscriber the subscriber to record
+	 * @return the sequence number of the record
+	 */
+	long logSubscriber(Subscriber subscriber) {
+		lock.lock();
+		try {
+			int start = begin(SUBSCRIBER);
+			putId(subscriber);
+			putString(subscriber.getFullName());
+			ensureRoom(10);
+			pending.putInt(subscriber.getAge());
+			pending.putInt(subscriber.getHoursToConsume());
+			pending.put((byte) (subscriber.isActive() ? 1 : 0));
+			pending.put((byte) subscriber.getType().ordinal());
+
+			return end(start);
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	/**
+	 * Appends the change of the id of a subscriber
+	 *
+	 * @param subscriber the subscriber, which still has the id before the change
+	 * @param newId      the id after the change
+	 * @return the sequence number of the record
+	 */
+	long logSubscriberId(Subscriber subscriber, String newId) {
+		lock.lock();
+		try {
+			int start = begin(SUBSCRIBER_ID);
+			putId(subscriber);
+			putString(newId);
+
+			return end(start);
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	/**
+	 * Appends the removal of a subscriber
+	 *
+	 * @param id the id of the removed subscriber
+	 * @return the sequence number of the record
+	 */
+	long logSubscriberRemoved(String id) {
+		lock.lock();
+		try {
+			int start = begin(SUBSCRIBER_REMOVED);
+			putString(id);
+
+			return end(start);
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	/**
+	 * Appends the current attributes of a product, without its seasons. The
+	 * product is added when it is replayed if its name is not registered yet
+	 *
+	 * @param product the product to record
+	 * @return the sequence number of the record
+	 */
+	long logProduct(Product product) {
+		lock.lock();
+		try {
+			int start = begin(PRODUCT);
+			ensureRoom(1);
+			pending.put(product instanceof Show ? SHOW : MOVIE);
+			putString(product.getName());
+			putString(product.getNameOfDirector());
+			putString(product.getSynopsis());
+			putDate(product.getPremierDate());
+
+			if (product instanceof Show) {
+				Show show = (Show) product;
+				String[] protagonists = show.getProtagonists();
+
+				ensureRoom(4);
+				pending.putInt(protagonists == null ? -1 : protagonists.length);
+				if (protagonists != null) {
+					for (String protagonist : protagonists) {
+						putString(protagonist);
+					}
+				}
+
+				ensureRoom(1);
+				pending.put((byte) (show.isCensored() ? 1 : 0));
+				putString(show.getCensorMotif());
+			} else {
+				Movie movie = (Movie) product;
+
+				putString(movie.getProducer());
+				ensureRoom(4);
+				pending.putInt(movie.getMinimumWatchAge());
+				putString(movie.getTrailerUrl());
+				ensureRoom(1);
+				pending.put((byte) (movie.getCategory() == null ? -1 : movie.getCategory().ordinal()));
+			}
+
+			return end(start);
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	/**
+	 * Appends the change of the name of a product
+	 *
+	 * @param oldName the name before the change
+	 * @param newName the name after the change
+	 * @return the sequence number of the record
+	 */
+	long logProductName(String oldName, String newName) {
+		lock.lock();
+		try {
+			int start = begin(PRODUCT_NAME);
+			putString(oldName);
+			putString(newName);
+
+			return end(start);
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	/**
+	 * Appends the current attributes of a season of a show, identified by its
+	 * position in the show. The season is added when it is replayed if the show
+	 * does not have that position yet
+	 *
+	 * @param show   the show of the season
+	 * @param season the new or changed season
+	 * @return the sequence number of the record
+	 */
+	long logSeason(Show show, Season season) {
+		lock.lock();
+		try {
+			int start = begin(SEASON);
+			putString(show.getName());
+			ensureRoom(16);
+			pending.putInt(season.position);
+			pending.putInt(season.getSeasonNumber());
+			pending.putInt(season.getScheduledEpisodes());
+			pending.putInt(season.getPublishedEpisodes());
+			putDate(season.getPremierDate());
+			putString(season.getTrailerUrl());
+
+			return end(start);
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	/**
+	 * Waits until a record is durable according to the policy. Only the ALWAYS
+	 * policy waits, and the records of the threads that wait at the same time are
+	 * synced together
+	 *
+	 * @param sequence the sequence number of the record
+	 * @throws UncheckedIOException if the journal cannot be written
+	 */
+	void commit(long sequence) {
+		if (policy != SyncPolicy.ALWAYS) {
+			return;
+		}
+
+		lock.lock();
+		try {
+			flush(sequence, true);
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	/**
+	 * Starts a record in the pending buffer, leaving room for its length and
+	 * checksum
+	 *
+	 * @param type the type of the record
+	 * @return the position of the record in the buffer
+	 */
+	private int begin(byte type) {
+		if (failure != null) {
+			throw new UncheckedIOException("The journal cannot be written", failure);
+		}
+		if (closed) {
+			throw new IllegalStateException("The journal is closed");
+		}
+
+		ensureRoom(RECORD_HEADER_SIZE + 1);
+		int start = pending.position();
+		pending.position(start + RECORD_HEADER_SIZE);
+		pending.put(type);
+
+		return start;
+	}
+
+	/**
+	 * Completes the record that starts at a position of the pending buffer. The
+	 * buffer is written when it is large enough, unless every record is synced
+	 * on commit anyway
+	 *
+	 * @param start the position of the record in the buffer
+	 * @return the sequence number of the record
+	 */
+	private long end(int start) {
+		int bodyStart = start + RECORD_HEADER_SIZE;
+		int bodyLength = pending.position() - bodyStart;
+
+		checksum.reset();
+		checksum.update(pending.array(), bodyStart, bodyLength);
+		pending.putInt(start, bodyLength);
+		pending.putInt(start + 4, (int) checksum.getValue());
+
+		long sequence = ++appended;
+
+		if (policy != SyncPolicy.ALWAYS && pending.position() >= WRITE_THRESHOLD && !flushing) {
+			try {
+				flush(sequence, false);
+			} catch (IOException e) {
+				throw new UncheckedIOException(e);
+			}
+		}
+
+		return sequence;
+	}
+
+	/**
+	 * Writes, and optionally syncs, the records up to a sequence number. The
+	 * thread that finds no write in progress takes every pending record and
+	 * writes it outside the lock, while the others wait for it and keep
+	 * appending to a new buffer
+	 *
+	 * <p>
+	 * <b>Precondition: </b> The lock is held
+	 *
+	 * @param sequence the last record that must be written
+	 * @param force    true to also sync the records to the disk
+	 * @throws IOException if the journal cannot be written
+	 */
+	private void flush(long sequence, boolean force) throws IOException {
+		while (written < sequence || (force && synced < sequence)) {
+			if (failure != null) {
+				throw failure;
+			}
+
+			if (flushing) {
+				flushed.awaitUninterruptibly();
+				continue;
+			}
+
+			// Take the pending records and write them outside the lock
+			ByteBuffer batch = pending;
+			pending = spare;
+			spare = null;
+			long batchEnd = appended;
+			flushing = true;
+
+			IOException error = null;
+			lock.unlock();
+			try {
+				batch.flip();
+				while (batch.hasRemaining()) {
+					file.write(batch);
+				}
+
+				if (force) {
+					file.force(false);
+				}
+			} catch (IOException e) {
+				error = e;
+			} finally {
+				lock.lock();
+
+				batch.clear();
+				spare = batch;
+				flushing = false;
+
+				if (error == null) {
+					written = batchEnd;
+					if (force) {
+						synced = batchEnd;
+					}
+				} else {
+					failure = error;
+				}
+
+				flushed.signalAll();
+			}
+		}
+
+		if (failure != null) {
+			throw failure;
+		}
+	}
+
+	/**
+	 * Syncs the journal every interval until it is closed. It is run by the
+	 * background thread of the INTERVAL policy
+	 */
+	private void syncPeriodically() {
+		lock.lock();
+		try {
+			while (!closed && failure == null) {
+				stopping.await(syncIntervalMillis, TimeUnit.MILLISECONDS);
+
+				if (synced < appended) {
+					flush(appended, true);
+				}
+			}
+		} catch (IOException e) {
+			// The failure is kept, and the next change reports it
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	/**
+	 * Grows the pending buffer if it cannot hold a number of bytes
+	 *
+	 * @param bytes the number of bytes that will be put
+	 */
+	private void ensureRoom(int bytes) {
+		if (pending.remaining() < bytes) {
+			ByteBuffer grown = ByteBuffer.allocate(Math.max(pending.capacity() * 2, pending.position() + bytes));
+			pending.flip();
+			grown.put(pending);
+			pending = grown;
+		}
+	}
+
+	/**
+	 * Puts a string in the pending buffer as its UTF-8 length followed by its
+	 * bytes
+	 *
+	 * @param value the string to put, which may be null
+	 */
+	private void putString(String value) {
+		if (value == null) {
+			ensureRoom(4);
+			pending.putInt(-1);
+			return;
+		}
+
+		byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+		ensureRoom(4 + bytes.length);
+		pending.putInt(bytes.length);
+		pending.put(bytes);
+	}
+
+	/**
+	 * Puts the id of a subscriber in the pending buffer as a string. A numeric id
+	 * is put digit by digit, without building its string
+	 *
+	 * @param subscriber the subscriber whose id is put
+	 */
+	private void putId(Subscriber subscriber) {
+		int value = subscriber.numericId();
+
+		if (value < 0) {
+			putString(subscriber.getId());
+			return;
+		}
+
+		int digits = 1;
+		int divisor = 1;
+		while (value / divisor >= 10) {
+			divisor *= 10;
+			digits++;
+		}
+
+		ensureRoom(4 + digits);
+		pending.putInt(digits);
+		for (; divisor > 0; divisor /= 10) {
+			pending.put((byte) ('0' + value / divisor % 10));
+		}
+	}
+
+	/**
+	 * Puts a date in the pending buffer as its epoch day
+	 *
+	 * @param date the date to put, which may be null
+	 */
+	private void putDate(LocalDate date) {
+		ensureRoom(8);
+		pending.putLong(date == null ? NO_DATE : date.toEpochDay());
+	}
+
+	/**
+	 * Replaces the journal file with a new one that only has the header, and
+	 * closes the old one
+	 *
+	 * <p>
+	 * <b>Precondition: </b> The lock is held and no write is in progress
+	 * <p>
+	 * <b>Postcondition: </b> The new file is open and positioned after its header,
+	 * unless it could not be moved over the old one
+	 *
+	 * @throws IOException if the new file cannot be written, moved or synced
+	 */
+	private void rotate() throws IOException {
+		Path temporary = path.resolveSibling(path.getFileName() + ".tmp");
+		FileChannel rotated = FileChannel.open(temporary, StandardOpenOption.CREATE,
+				StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.READ, StandardOpenOption.WRITE);
+
+		try {
+			writeHeader(rotated);
+			rotated.force(true);
+			ChannelSnapshot.replace(temporary, path);
+		} catch (IOException | RuntimeException e) {
+			// Once the new file was moved, it is the journal even if the directory
+			// could not be synced
+			if (Files.exists(temporary)) {
+				rotated.close();
+				Files.deleteIfExists(temporary);
+			} else {
+				file.close();
+				file = rotated;
+			}
+			throw e;
+		}
+
+		file.close();
+		file = rotated;
+	}
+
+	/**
+	 * Writes the header of an empty journal
+	 *
+	 * @param file the journal file
+	 * @throws IOException if the file cannot be written
+	 */
+	private static void writeHeader(FileChannel file) throws IOException {
+		ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+		header.putInt(MAGIC);
+		header.putShort(VERSION);
+		header.flip();
+
+		while (header.hasRemaining()) {
+			file.write(header);
+		}
+	}
+
+	/**
+	 * Reads and checks the header of a journal
+	 *
+	 * @param file   the journal file, positioned at its start
+	 * @param header a buffer of the size of the header
+	 * @throws IOException if the file cannot be read or is not a journal
+	 */
+	private static void readHeader(FileChannel file, ByteBuffer header) throws IOException {
+		while (header.hasRemaining()) {
+			if (file.read(header) < 0) {
+				throw new IOException("The file is not a channel journal");
+			}
+		}
+		header.flip();
+
+		if (header.getInt() != MAGIC) {
+			throw new IOException("The file is not a channel journal");
+		}
+
+		short version = header.getShort();
+		if (version != VERSION) {
+			throw new IOException("Unsupported journal version: " + version);
+		}
+	}
+
+	/**
+	 * Returns the length of the complete records of a journal
+	 *
+	 * @param file the journal file
+	 * @return the position after the last complete record
+	 * @throws IOException if the file cannot be read or is not a journal
+	 */
+	private static long validLength(FileChannel file) throws IOException {
+		file.position(0);
+		readHeader(file, ByteBuffer.allocate(HEADER_SIZE));
+
+		BinaryInput in = new BinaryInput(file);
+		long length = HEADER_SIZE;
+		byte[] body;
+
+		while ((body = readRecord(in)) != null) {
+			length += RECORD_HEADER_SIZE + body.length;
+		}
+
+		return length;
+	}
+
+	/**
+	 * Reads the next record of a journal
+	 *
+	 * @param in the input positioned at the start of a record
+	 * @return the body of the record, or null if the journal ends or the record
+	 *         is incomplete or corrupted
+	 * @throws IOException if the journal cannot be read
+	 */
+	private static byte[] readRecord(BinaryInput in) throws IOException {
+		try {
+			if (in.isAtEnd()) {
+				return null;
+			}
+
+			int length = in.readInt();
+			int expected = in.readInt();
+
+			// A length past the end of the file is a torn or corrupted tail, so
+			// nothing is allocated for it
+			if (length <= 0 || length > MAX_RECORD_SIZE || length > in.remaining()) {
+				return null;
+			}
+
+			byte[] body = new byte[length];
+			in.readBytes(body);
+
+			CRC32 crc = new CRC32();
+			crc.update(body, 0, length);
+
+			return (int) crc.getValue() == expected ? body : null;
+		} catch (EOFException e) {
+			return null;
+		}
+	}
+
+	/**
+	 * Applies a record to a channel
+	 *
+	 * @param channel the channel, or null if no record created it yet
+	 * @param body    the body of the record
+	 * @return the channel after the record
+	 * @throws IOException if the record is not valid
+	 */
+	private static Channel apply(Channel channel, ByteBuffer body) throws IOException {
+		try {
+			byte type = body.get();
+
+			if (type == CHANNEL) {
+				String nit = getString(body);
+				String address = getString(body);
+				String website = getString(body);
+
+				if (channel == null) {
+					return new Channel(nit, address, website);
+				}
+
+				channel.setNit(nit);
+				channel.setAddress(address);
+				channel.setWebsite(website);
+				return channel;
+			}
+
+			if (channel == null) {
+				throw new IOException("The journal does not start with the data of the channel");
+			}
+
+			switch (type) {
+			case SUBSCRIBER:
+				applySubscriber(channel, body);
+				break;
+			case SUBSCRIBER_ID:
+				Subscriber subscriber = channel.searchSubscriber(getString(body));
+				if (subscriber != null) {
+					subscriber.setId(getString(body));
+				}
+				break;
+			case SUBSCRIBER_REMOVED:
+				channel.removeSubscriber(getString(body));
+				break;
+			case PRODUCT:
+				applyProduct(channel, body);
+				break;
+			case PRODUCT_NAME:
+				Product product = channel.searchProduct(getString(body));
+				if (product != null) {
+					product.setName(getString(body));
+				}
+				break;
+			case SEASON:
+				applySeason(channel, body);
+				break;
+			default:
+				throw new IOException("Unknown journal record: " + type);
+			}
+
+			return channel;
+		} catch (BufferUnderflowException e) {
+			throw new IOException("Corrupted journal record", e);
+		}
+	}
+
+	/**
+	 * Applies a subscriber record, adding the subscriber if its id is not
+	 * registered
+	 *
+	 * @param channel the channel
+	 * @param body    the body of the record, after its type
+	 */
+	private static void applySubscriber(Channel channel, ByteBuffer body) {
+		String id = getString(body);
+		String fullName = getString(body);
+		int age = body.getInt();
+		int hoursToConsume = body.getInt();
+		boolean active = body.get() != 0;
+		int typeOrdinal = body.get();
+
+		Subscriber subscriber = channel.searchSubscriber(id);
+
+		if (subscriber == null) {
+			channel.addSubscriber(id, fullName, age, hoursToConsume);
+			subscriber = channel.searchSubscriber(id);
+		} else {
+			subscriber.setFullName(fullName);
+			if (subscriber.getAge() != age) {
+				subscriber.setAge(age);
+			}
+			if (subscriber.getHoursToConsume() != hoursToConsume) {
+				subscriber.setHoursToConsume(hoursToConsume);
+			}
+		}
+
+		if (subscriber != null) {
+			if (subscriber.getType().ordinal() != typeOrdinal) {
+				subscriber.setType(typeOrdinal + 1);
+			}
+			if (subscriber.isActive() != active) {
+				subscriber.setActive(active);
+			}
+		}
+	}
+
+	/**
+	 * Applies a product record, adding the product if its name is not registered
+	 *
+	 * @param channel the channel
+	 * @param body    the body of the record, after its type
+	 */
+	private static void applyProduct(Channel channel, ByteBuffer body) {
+		byte kind = body.get();
+		String name = getString(body);
+		String nameOfDirector = getString(body);
+		String synopsis = getString(body);
+		LocalDate premierDate = getDate(body);
+		Product product = channel.searchProduct(name);
+
+		if (kind == SHOW) {
+			int count = body.getInt();
+			String[] protagonists = count < 0 ? null : new String[count];
+			for (int i = 0; i < count; i++) {
+				protagonists[i] = getString(body);
+			}
+
+			boolean censored = body.get() != 0;
+			String censorMotif = getString(body);
+
+			if (product == null) {
+				channel.addProduct(name, nameOfDirector, synopsis, premierDate, protagonists, censored, censorMotif);
+			} else if (product instanceof Show) {
+				Show show = (Show) product;
+				show.setProtagonists(protagonists);
+				show.setCensored(censored);
+				show.setCensorMotif(censorMotif);
+			}
+		} else {
+			String producer = getString(body);
+			int minimumWatchAge = body.getInt();
+			String trailerUrl = getString(body);
+			int categoryOrdinal = body.get();
+
+			if (product == null) {
+				channel.addProduct(name, nameOfDirector, synopsis, premierDate, producer, minimumWatchAge, trailerUrl,
+						categoryOrdinal + 1);
+			} else if (product instanceof Movie) {
+				Movie movie = (Movie) product;
+				movie.setProducer(producer);
+				movie.setMinimumWatchAge(minimumWatchAge);
+				movie.setTrailerUrl(trailerUrl);
+				if (movie.getCategory() == null || movie.getCategory().ordinal() != categoryOrdinal) {
+					movie.setCategory(categoryOrdinal + 1);
+				}
+			}
+		}
+
+		// The shared attributes of an existing product are updated last
+		if (product != null) {
+			product.setNameOfDirector(nameOfDirector);
+			product.setSynopsis(synopsis);
+			product.setPremierDate(premierDate);
+		}
+	}
+
+	/**
+	 * Applies a season record, updating the season in its position or adding it
+	 * if the show does not have that position yet
+	 *
+	 * @param channel the channel
+	 * @param body    the body of the record, after its type
+	 */
+	private static void applySeason(Channel channel, ByteBuffer body) {
+		Product product = channel.searchProduct(getString(body));
+		int position = body.getInt();
+		int seasonNumber = body.getInt();
+		int scheduledEpisodes = body.getInt();
+		int publishedEpisodes = body.getInt();
+		LocalDate premierDate = getDate(body);
+		String trailerUrl = getString(body);
+
+		if (!(product instanceof Show) || position < 0) {
+			return;
+		}
+
+		Show show = (Show) product;
+
+		if (position < show.getSeasonCount()) {
+			Season season = show.getSeason(position);
+			season.setSeasonNumber(seasonNumber);
+			season.setScheduledEpisodes(scheduledEpisodes);
+			season.setPublishedEpisodes(publishedEpisodes);
+			season.setPremierDate(premierDate);
+			season.setTrailerUrl(trailerUrl);
+		} else if (position == show.getSeasonCount()) {
+			Season season = new Season(seasonNumber, scheduledEpisodes, premierDate, trailerUrl);
+			season.setPublishedEpisodes(publishedEpisodes);
+
+			show.addSeason(season);
+		}
+	}
+
+	/**
+	 * Reads a string put by putString
+	 *
+	 * @param body the buffer to read
+	 * @return the string, which may be null
+	 */
+	private static String getString(ByteBuffer body) {
+		int length = body.getInt();
+
+		if (length < 0) {
+			return null;
+		}
+		if (length > body.remaining()) {
+			throw new BufferUnderflowException();
+		}
+
+		String value = new String(body.array(), body.arrayOffset() + body.position(), length, StandardCharsets.UTF_8);
+		body.position(body.position() + length);
+
+		return value;
+	}
+
+	/**
+	 * Reads a date put by putDate
+	 *
+	 * @param body the buffer to read
+	 * @return the date, which may be null
+	 */
+	private static LocalDate getDate(ByteBuffer body) {
+		long epochDay = body.getLong();
+
+		return epochDay == NO_DATE ? null : LocalDate.ofEpochDay(epochDay);
+	}
+}
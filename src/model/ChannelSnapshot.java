@@ -0,0 +1,396 @@
+package model;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+
+/**
+ * Binary snapshot of a whole channel. A snapshot starts with a magic number and
+ * a format version, followed by the channel data, its subscribers and its
+ * products with their seasons
+ */
+public class ChannelSnapshot {
+	// Constants
+	public static final int MAGIC = 0x42534E50; // "BSNP"
+	public static final short VERSION = 1;
+
+	private static final byte MOVIE = 0;
+	private static final byte SHOW = 1;
+	private static final long NO_DATE = Long.MIN_VALUE;
+
+	/**
+	 * Writes a snapshot of a channel to a file. The snapshot is written to a
+	 * temporary file first and forced to disk, so an existing snapshot is only
+	 * replaced by a complete one, and the replacement survives a crash
+	 *
+	 * <p>
+	 * <b>Precondition: </b> The directory of the file exists
+	 * <p>
+	 * <b>Postcondition: </b> The file contains the snapshot of the channel
+	 *
+	 * @param channel the channel to save
+	 * @param file    the file in which the snapshot is written
+	 * @throws IOException if the file cannot be written
+	 */
+	public static void write(Channel channel, Path file) throws IOException {
+		Path absolute = file.toAbsolutePath();
+		Path temporary = absolute.resolveSibling(absolute.getFileName() + ".tmp");
+
+		try (FileChannel fileChannel = FileChannel.open(temporary, StandardOpenOption.CREATE,
+				StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+				BinaryOutput out = new BinaryOutput(fileChannel)) {
+			write(channel, out);
+
+			// The snapshot must be on disk before it replaces the previous one, as a
+			// checkpoint empties the journal right after
+			out.flush();
+			fileChannel.force(true);
+		}
+
+		replace(temporary, absolute);
+	}
+
+	/**
+	 * Replaces a file with another one that is already on disk, and makes the
+	 * replacement durable. The rename is only durable once the directory that
+	 * contains the files is on disk too, so the directory is forced after the
+	 * move
+	 *
+	 * @param source the file that replaces the target, which is already forced
+	 * @param target the file to replace, in the same directory as the source
+	 * @throws IOException if the file cannot be moved or the directory cannot be
+	 *                     forced
+	 */
+	static void replace(Path source, Path target) throws IOException {
+		try {
+			Files.move(source, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+		} catch (AtomicMoveNotSupportedException e) {
+			Files.move(source, target, StandardCopyOption.REPLACE_EXISTING);
+		}
+
+		FileChannel directory;
+		try {
+			directory = FileChannel.open(target.getParent(), StandardOpenOption.READ);
+		} catch (IOException e) {
+			// Some platforms (e.g. Windows) cannot open a directory, and their file
+			// systems make the rename durable without it
+			return;
+		}
+
+		try (FileChannel opened = directory) {
+			opened.force(true);
+		}
+	}
+
+	/**
+	 * Reads a channel from a snapshot file
+	 *
+	 * <p>
+	 * <b>Precondition: </b> The file was written by this class
+	 * <p>
+	 * <b>Postcondition: </b> A new channel with the content of the snapshot is
+	 * returned
+	 *
+	 * @param file the file to read
+	 * @return the channel stored in the snapshot
+	 * @throws IOException if the file cannot be read or is not a valid snapshot
+	 */
+	public static Channel read(Path file) throws IOException {
+		try (BinaryInput in = new BinaryInput(FileChannel.open(file, StandardOpenOption.READ))) {
+			return read(in);
+		}
+	}
+
+	/**
+	 * Writes the header and the content of a channel
+	 *
+	 * @param channel the channel to save
+	 * @param out     the output in which the snapshot is written
+	 * @throws IOException if the output cannot be written
+	 */
+	static void write(Channel channel, BinaryOutput out) throws IOException {
+		out.writeInt(MAGIC);
+		out.writeShort(VERSION);
+
+		out.writeString(channel.getNit());
+		out.writeString(channel.getAddress());
+		out.writeString(channel.getWebsite());
+
+		// Subscribers
+		out.writeInt(channel.getSubscriberCount());
+		for (Subscriber subscriber : channel.getSubscribers()) {
+			writeId(out, subscriber);
+			out.writeString(subscriber.getFullName());
+			out.writeInt(subscriber.getAge());
+			out.writeInt(subscriber.getHoursToConsume());
+			out.writeBoolean(subscriber.isActive());
+			out.writeByte(subscriber.getType().ordinal());
+		}
+
+		// Products, each one preceded by its kind
+		out.writeInt(channel.getProductCount());
+		for (Product product : channel.getProducts()) {
+			out.writeByte(product instanceof Show ? SHOW : MOVIE);
+			out.writeString(product.getName());
+			out.writeString(product.getNameOfDirector());
+			out.writeString(product.getSynopsis());
+			writeDate(out, product.getPremierDate());
+
+			if (product instanceof Show) {
+				writeShowDetails(out, (Show) product);
+			} else {
+				Movie movie = (Movie) product;
+				out.writeString(movie.getProducer());
+				out.writeInt(movie.getMinimumWatchAge());
+				out.writeString(movie.getTrailerUrl());
+				out.writeByte(movie.getCategory() == null ? -1 : movie.getCategory().ordinal());
+			}
+		}
+	}
+
+	/**
+	 * Writes the id of a subscriber as a string. A numeric id is written digit by
+	 * digit, without building its string
+	 *
+	 * @param out        the output in which the id is written
+	 * @param subscriber the subscriber whose id is written
+	 * @throws IOException if the output cannot be written
+	 */
+	private static void writeId(BinaryOutput out, Subscriber subscriber) throws IOException {
+		int value = subscriber.numericId();
+
+		if (value < 0) {
+			out.writeString(subscriber.getId());
+			return;
+		}
+
+		int digits = 1;
+		int divisor = 1;
+		while (value / divisor >= 10) {
+			divisor *= 10;
+			digits++;
+		}
+
+		out.writeInt(digits);
+		for (; divisor > 0; divisor /= 10) {
+			out.writeByte('0' + value / divisor % 10);
+		}
+	}
+
+	/**
+	 * Reads the header and the content of a channel
+	 *
+	 * @param in the input from which the snapshot is read
+	 * @return the channel stored in the snapshot
+	 * @throws IOException if the input cannot be read or is not a valid snapshot
+	 */
+	static Channel read(BinaryInput in) throws IOException {
+		if (in.readInt() != MAGIC) {
+			throw new IOException("The file is not a channel snapshot");
+		}
+
+		short version = in.readShort();
+		if (version != VERSION) {
+			throw new IOException("Unsupported snapshot version: " + version);
+		}
+
+		String nit = in.readString();
+		String address = in.readString();
+		String website = in.readString();
+
+		// Subscribers. The storage is sized for all of them at once
+		int subscriberCount = readCount(in);
+		Channel channel = new Channel(nit, address, website, Math.max(subscriberCount, 1),
+				Channel.INITIAL_PRODUCTS_CAPACITY);
+
+		for (int i = 0; i < subscriberCount; i++) {
+			String id = in.readString();
+			String fullName = in.readString();
+			int age = in.readInt();
+			int hoursToConsume = in.readInt();
+			boolean active = in.readBoolean();
+			int typeOrdinal = in.readByte();
+
+			OperationResult result = channel.addSubscriber(id, fullName, age, hoursToConsume);
+			Subscriber subscriber = result == OperationResult.SUBSCRIBER_ADDED ? channel.searchSubscriber(id) : null;
+
+			if (subscriber == null) {
+				throw new IOException("Corrupted snapshot: the subscriber " + id + " cannot be added (" + result + ")");
+			}
+
+			// Subscribers are created active and NORMAL, so only other states are set
+			if (typeOrdinal != SubscriberType.NORMAL.ordinal()) {
+				subscriber.setType(typeOrdinal + 1);
+			}
+			if (!active) {
+				subscriber.setActive(false);
+			}
+		}
+
+		// Products
+		int productCount = readCount(in);
+		channel.ensureProductCapacity(productCount);
+
+		for (int i = 0; i < productCount; i++) {
+			byte kind = in.readByte();
+			String name = in.readString();
+			String nameOfDirector = in.readString();
+			String synopsis = in.readString();
+			LocalDate premierDate = readDate(in);
+
+			if (kind == SHOW) {
+				readShowDetails(in, channel, name, nameOfDirector, synopsis, premierDate);
+			} else if (kind == MOVIE) {
+				String producer = in.readString();
+				int minimumWatchAge = in.readInt();
+				String trailerUrl = in.readString();
+				int categoryOrdinal = in.readByte();
+
+				checkProduct(channel.addProduct(name, nameOfDirector, synopsis, premierDate, producer,
+						minimumWatchAge, trailerUrl, categoryOrdinal + 1), name);
+			} else {
+				throw new IOException("Unknown product kind: " + kind);
+			}
+		}
+
+		return channel;
+	}
+
+	/**
+	 * Writes the attributes and seasons that only shows have
+	 *
+	 * @param out  the output in which the show is written
+	 * @param show the show to write
+	 * @throws IOException if the output cannot be written
+	 */
+	private static void writeShowDetails(BinaryOutput out, Show show) throws IOException {
+		String[] protagonists = show.getProtagonists();
+
+		// A show without protagonists is written with a count of -1
+		out.writeInt(protagonists == null ? -1 : protagonists.length);
+		if (protagonists != null) {
+			for (String protagonist : protagonists) {
+				out.writeString(protagonist);
+			}
+		}
+
+		out.writeBoolean(show.isCensored());
+		out.writeString(show.getCensorMotif());
+
+		Season[] seasons = show.getSeasons();
+		out.writeInt(seasons.length);
+		for (Season season : seasons) {
+			out.writeInt(season.getSeasonNumber());
+			out.writeInt(season.getScheduledEpisodes());
+			out.writeInt(season.getPublishedEpisodes());
+			writeDate(out, season.getPremierDate());
+			out.writeString(season.getTrailerUrl());
+		}
+	}
+
+	/**
+	 * Reads the attributes and seasons of a show and adds it to the channel
+	 *
+	 * @param in             the input from which the show is read
+	 * @param channel        the channel in which the show is added
+	 * @param name           name of the show
+	 * @param nameOfDirector name of the director of the show
+	 * @param synopsis       synopsis of the show
+	 * @param premierDate    premier date of the show
+	 * @throws IOException if the input cannot be read or the show cannot be
+	 *                     added
+	 */
+	private static void readShowDetails(BinaryInput in, Channel channel, String name, String nameOfDirector,
+			String synopsis, LocalDate premierDate) throws IOException {
+		int protagonistCount = in.readInt();
+		if (protagonistCount < -1) {
+			throw new IOException("Corrupted element count: " + protagonistCount);
+		}
+
+		String[] protagonists = protagonistCount < 0 ? null : new String[protagonistCount];
+		for (int i = 0; i < protagonistCount; i++) {
+			protagonists[i] = in.readString();
+		}
+
+		boolean censored = in.readBoolean();
+		String censorMotif = in.readString();
+
+		checkProduct(channel.addProduct(name, nameOfDirector, synopsis, premierDate, protagonists, censored,
+				censorMotif), name);
+		Show show = (Show) channel.searchProduct(name);
+
+		// Seasons are added to the show directly, keeping their stored numbers
+		int seasonCount = readCount(in);
+		for (int i = 0; i < seasonCount; i++) {
+			Season season = new Season(in.readInt(), in.readInt(), null, null);
+			season.setPublishedEpisodes(in.readInt());
+			season.setPremierDate(readDate(in));
+			season.setTrailerUrl(in.readString());
+
+			if (show.addSeason(season) != OperationResult.SEASON_ADDED) {
+				throw new IOException("Corrupted snapshot: a season of " + name + " cannot be added");
+			}
+		}
+	}
+
+	/**
+	 * Checks that a product of the snapshot was added to the channel
+	 *
+	 * @param result the result of the addition
+	 * @param name   the name of the product
+	 * @throws IOException if the product was not added, as the snapshot cannot
+	 *                     have two products with the same name nor one without
+	 *                     a name
+	 */
+	private static void checkProduct(OperationResult result, String name) throws IOException {
+		if (!result.isSuccess()) {
+			throw new IOException("Corrupted snapshot: the product " + name + " cannot be added (" + result + ")");
+		}
+	}
+
+	/**
+	 * Writes a date as its epoch day
+	 *
+	 * @param out  the output in which the date is written
+	 * @param date the date to write, which may be null
+	 * @throws IOException if the output cannot be written
+	 */
+	static void writeDate(BinaryOutput out, LocalDate date) throws IOException {
+		out.writeLong(date == null ? NO_DATE : date.toEpochDay());
+	}
+
+	/**
+	 * Reads a date written by writeDate
+	 *
+	 * @param in the input from which the date is read
+	 * @return the date that was read, which may be null
+	 * @throws IOException if the input cannot be read
+	 */
+	static LocalDate readDate(BinaryInput in) throws IOException {
+		long epochDay = in.readLong();
+
+		return epochDay == NO_DATE ? null : LocalDate.ofEpochDay(epochDay);
+	}
+
+	/**
+	 * Reads a number of elements and checks that it is not negative
+	 *
+	 * @param in the input from which the number is read
+	 * @return the number of elements
+	 * @throws IOException if the input cannot be read or the number is negative
+	 */
+	private static int readCount(BinaryInput in) throws IOException {
+		int count = in.readInt();
+
+		if (count < 0) {
+			throw new IOException("Corrupted element count: " + count);
+		}
+
+		return count;
+	}
+}
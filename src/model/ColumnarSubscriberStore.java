@@ -0,0 +1,679 @@
+package model;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * Subscriber storage that keeps each attribute in its own memory-mapped column
+ * file instead of one object per subscriber. Ages and hours to consume are int
+ * columns, the activity and type share one byte column, and ids and names are
+ * stored in string tables, which keep null names apart from empty ones.
+ * Subscribers are identified by their row, and the
+ * reports run over the primitive columns without creating any subscriber
+ * object
+ */
+public class ColumnarSubscriberStore implements Closeable {
+	// Constants
+	public static final int MAGIC = 0x42534343; // "BSCC"
+	public static final int VERSION = 2;
+
+	private static final int INITIAL_ROWS = 1024;
+	private static final int ACTIVE_FLAG = 0x80;
+	private static final int TYPE_MASK = 0x7F;
+	private static final SubscriberType[] TYPES = SubscriberType.values();
+
+	// Attributes
+	private MappedColumn meta;
+	private MappedColumn ages;
+	private MappedColumn hours;
+	private MappedColumn flags;
+	private StringTable ids;
+	private StringTable names;
+	private int size;
+
+	// Open-addressing table from the hash of an id to its row plus one (0 is empty)
+	private int[] idTable;
+
+	/**
+	 * Constructor of the columnar subscriber store class. The column files are
+	 * created in the directory if they do not exist, otherwise the stored
+	 * subscribers are opened
+	 *
+	 * @param directory the directory of the column files
+	 * @throws IOException if the files cannot be opened or were not written by
+	 *                     this class
+	 */
+	public ColumnarSubscriberStore(Path directory) throws IOException {
+		Files.createDirectories(directory);
+
+		meta = new MappedColumn(directory.resolve("meta.col"), 16);
+		ByteBuffer header = meta.buffer();
+
+		// A new store has an empty header
+		if (header.getInt(0) == 0) {
+			header.putInt(0, MAGIC);
+			header.putInt(4, VERSION);
+			header.putInt(8, 0);
+		} else if (header.getInt(0) != MAGIC) {
+			throw new IOException("The directory does not contain a columnar subscriber store");
+		} else if (header.getInt(4) == 1) {
+			// Version 1 stored null names as empty ones, so its rows are read as they are
+			header.putInt(4, VERSION);
+		} else if (header.getInt(4) != VERSION) {
+			throw new IOException("Unsupported columnar store version: " + header.getInt(4));
+		}
+
+		size = header.getInt(8);
+
+		long rows = Math.max(size, INITIAL_ROWS);
+		ages = new MappedColumn(directory.resolve("age.col"), rows * 4);
+		hours = new MappedColumn(directory.resolve("hours.col"), rows * 4);
+		flags = new MappedColumn(directory.resolve("flags.col"), rows);
+		ids = new StringTable(directory, "id", rows);
+		names = new StringTable(directory, "name", rows);
+
+		// Rebuild the id table from the stored ids
+		idTable = new int[tableSizeFor(size)];
+		for (int row = 0; row < size; row++) {
+			insertIntoIdTable(row, ids.hashAt(row));
+		}
+	}
+
+	/**
+	 * Adds a subscriber. As in the channel, a new subscriber is active and NORMAL
+	 *
+	 * <p>
+	 * <b>Precondition: </b> The store is open
+	 * <p>
+	 * <b>Postcondition: </b> The subscriber is stored in a new row, unless its id
+	 * is null or another subscriber has the same id
+	 *
+	 * @param id             identification of the new subscriber
+	 * @param fullName       full name of the new subscriber, which may be null
+	 * @param age            age of the new subscriber
+	 * @param hoursToConsume hours that the new subscriber is willing to consume
+	 * @return the row of the new subscriber, or -1 if the id is null or already
+	 *         used
+	 * @throws IOException if the columns cannot grow
+	 */
+	public int addSubscriber(String id, String fullName, int age, int hoursToConsume) throws IOException {
+		return addSubscriber(id, fullName, age, hoursToConsume, true, SubscriberType.NORMAL);
+	}
+
+	/**
+	 * Copies subscribers into the store, keeping their activity and type
+	 *
+	 * @param subscribers the subscribers to copy (e.g. Channel.getSubscribers())
+	 * @return the number of subscribers that were added. Subscribers without an
+	 *         id or with an id that is already stored are skipped
+	 * @throws IOException if the columns cannot grow
+	 */
+	public int addAll(Iterable<Subscriber> subscribers) throws IOException {
+		int added = 0;
+
+		for (Subscriber subscriber : subscribers) {
+			if (addSubscriber(subscriber.getId(), subscriber.getFullName(), subscriber.getAge(),
+					subscriber.getHoursToConsume(), subscriber.isActive(), subscriber.getType()) != -1) {
+				added++;
+			}
+		}
+
+		return added;
+	}
+
+	/**
+	 * Looks for a subscriber by its id
+	 *
+	 * @param id the id of the subscriber to be found
+	 * @return the row of the subscriber, or -1 if it is not stored
+	 */
+	public int searchSubscriber(String id) {
+		if (id == null) {
+			return -1;
+		}
+
+		byte[] utf8 = id.getBytes(StandardCharsets.UTF_8);
+		return findRow(utf8, hash(utf8, 0, utf8.length));
+	}
+
+	/**
+	 * Returns the number of subscribers
+	 *
+	 * @return the number of stored subscribers
+	 */
+	public int size() {
+		return size;
+	}
+
+	/**
+	 * Returns the id of a subscriber
+	 *
+	 * @param row the row of the subscriber
+	 * @return id of the subscriber
+	 */
+	public String getId(int row) {
+		return ids.get(checkRow(row));
+	}
+
+	/**
+	 * Returns the full name of a subscriber
+	 *
+	 * @param row the row of the subscriber
+	 * @return full name of the subscriber, or null if it was stored without one
+	 */
+	public String getFullName(int row) {
+		return names.get(checkRow(row));
+	}
+
+	/**
+	 * Returns the age of a subscriber
+	 *
+	 * @param row the row of the subscriber
+	 * @return age of the subscriber
+	 */
+	public int getAge(int row) {
+		return ages.buffer().getInt(offset(checkRow(row), 4));
+	}
+
+	/**
+	 * Sets the age of a subscriber
+	 *
+	 * @param row the row of the subscriber
+	 * @param age the age to set
+	 */
+	public void setAge(int row, int age) {
+		ages.buffer().putInt(offset(checkRow(row), 4), age);
+	}
+
+	/**
+	 * Returns the hours to consume of a subscriber
+	 *
+	 * @param row the row of the subscriber
+	 * @return hours that the subscriber is willing to consume
+	 */
+	public int getHoursToConsume(int row) {
+		return hours.buffer().getInt(offset(checkRow(row), 4));
+	}
+
+	/**
+	 * Sets the hours to consume of a subscriber
+	 *
+	 * @param row            the row of the subscriber
+	 * @param hoursToConsume the hours to consume that will be set
+	 */
+	public void setHoursToConsume(int row, int hoursToConsume) {
+		hours.buffer().putInt(offset(checkRow(row), 4), hoursToConsume);
+	}
+
+	/**
+	 * Returns the activity state of a subscriber
+	 *
+	 * @param row the row of the subscriber
+	 * @return activity state of the subscriber (true : active, false : inactive)
+	 */
+	public boolean isActive(int row) {
+		return (flags.buffer().get(checkRow(row)) & ACTIVE_FLAG) != 0;
+	}
+
+	/**
+	 * Sets the activity state of a subscriber
+	 *
+	 * @param row    the row of the subscriber
+	 * @param active the activity state to set (true : active, false : inactive)
+	 */
+	public void setActive(int row, boolean active) {
+		int flag = flags.buffer().get(checkRow(row)) & TYPE_MASK;
+		flags.buffer().put(row, (byte) (active ? flag | ACTIVE_FLAG : flag));
+	}
+
+	/**
+	 * Returns the type of a subscriber
+	 *
+	 * @param row the row of the subscriber
+	 * @return type of the subscriber
+	 */
+	public SubscriberType getType(int row) {
+		return TYPES[flags.buffer().get(checkRow(row)) & TYPE_MASK];
+	}
+
+	/**
+	 * Sets the type of a subscriber
+	 *
+	 * @param row  the row of the subscriber
+	 * @param type the type to set
+	 */
+	public void setType(int row, SubscriberType type) {
+		int flag = flags.buffer().get(checkRow(row)) & ACTIVE_FLAG;
+		flags.buffer().put(row, (byte) (flag | type.ordinal()));
+	}
+
+	/**
+	 * Deactivates a subscriber, setting its type to NORMAL as the channel does
+	 *
+	 * @param row the row of the subscriber
+	 */
+	public void deactivateSubscriber(int row) {
+		flags.buffer().put(checkRow(row), (byte) SubscriberType.NORMAL.ordinal());
+	}
+
+	/**
+	 * Counts the active subscribers by type. Only the flag column is read
+	 *
+	 * @return the number of active subscribers in total and by type
+	 */
+	public ActiveSubscribersReport getActiveSubscribersByType() {
+		ByteBuffer flagColumn = flags.buffer();
+		int[] countsByType = new int[TYPES.length];
+		int total = 0;
+
+		for (int row = 0; row < size; row++) {
+			int flag = flagColumn.get(row);
+
+			if ((flag & ACTIVE_FLAG) != 0) {
+				total++;
+				countsByType[flag & TYPE_MASK]++;
+			}
+		}
+
+		return new ActiveSubscribersReport(total, countsByType);
+	}
+
+	/**
+	 * Returns total active subscribers and a list stating the number of active
+	 * subscribers by type
+	 *
+	 * @return total active subscribers and a list with the active subscribers by
+	 *         type
+	 */
+	public String printActiveSubscribersByType() {
+		return getActiveSubscribersByType().toString();
+	}
+
+	/**
+	 * Looks for the under-aged subscriber with the most hours willing to consume.
+	 * Only the age and hours columns are read
+	 *
+	 * @return the row of the subscriber, or -1 if no under-aged subscriber is
+	 *         willing to consume more than 0 hours
+	 */
+	public int searchMinorMostHoursSub() {
+		ByteBuffer ageColumn = ages.buffer();
+		ByteBuffer hoursColumn = hours.buffer();
+		int mostHours = 0;
+		int found = -1;
+
+		for (int row = 0; row < size; row++) {
+			int offset = offset(row, 4);
+
+			if (ageColumn.getInt(offset) < Channel.ADULT_AGE && hoursColumn.getInt(offset) > mostHours) {
+				mostHours = hoursColumn.getInt(offset);
+				found = row;
+			}
+		}
+
+		return found;
+	}
+
+	/**
+	 * Returns the name of under-aged subscriber with the most hours willing to
+	 * consume
+	 *
+	 * @return the name of the under-aged subscriber with the most hours willing to
+	 *         consume
+	 */
+	public String printMinorMostHoursSub() {
+		int row = searchMinorMostHoursSub();
+
+		if (row == -1) {
+			return "*No minor subscriber found*";
+		}
+
+		return getFullName(row) + " - Hours: " + getHoursToConsume(row);
+	}
+
+	/**
+	 * Writes the modified columns to the storage device
+	 */
+	public void force() {
+		meta.force();
+		ages.force();
+		hours.force();
+		flags.force();
+		ids.force();
+		names.force();
+	}
+
+	/**
+	 * Forces and closes every column file
+	 */
+	@Override
+	public void close() throws IOException {
+		meta.close();
+		ages.close();
+		hours.close();
+		flags.close();
+		ids.close();
+		names.close();
+	}
+
+	/**
+	 * Stores a subscriber in a new row
+	 *
+	 * @param id             identification of the subscriber
+	 * @param fullName       full name of the subscriber, which may be null
+	 * @param age            age of the subscriber
+	 * @param hoursToConsume hours that the subscriber is willing to consume
+	 * @param active         activity state of the subscriber
+	 * @param type           type of the subscriber
+	 * @return the row of the subscriber, or -1 if the id is null or already used
+	 * @throws IOException if the columns cannot grow
+	 */
+	private int addSubscriber(String id, String fullName, int age, int hoursToConsume, boolean active,
+			SubscriberType type) throws IOException {
+		// Every stored subscriber can be found by its id
+		if (id == null) {
+			return -1;
+		}
+
+		byte[] idBytes = id.getBytes(StandardCharsets.UTF_8);
+		int idHash = hash(idBytes, 0, idBytes.length);
+
+		if (findRow(idBytes, idHash) != -1) {
+			return -1;
+		}
+
+		int row = size;
+		long rows = (long) row + 1;
+		ages.ensureCapacity(rows * 4);
+		hours.ensureCapacity(rows * 4);
+		flags.ensureCapacity(rows);
+
+		ids.add(row, idBytes);
+		names.add(row, fullName == null ? null : fullName.getBytes(StandardCharsets.UTF_8));
+		ages.buffer().putInt(offset(row, 4), age);
+		hours.buffer().putInt(offset(row, 4), hoursToConsume);
+		flags.buffer().put(row, (byte) (active ? type.ordinal() | ACTIVE_FLAG : type.ordinal()));
+
+		// The row count is written last, so a row is only visible once it is complete
+		size++;
+		meta.buffer().putInt(8, size);
+
+		if (size * 2 > idTable.length) {
+			rehash();
+		}
+		insertIntoIdTable(row, idHash);
+
+		return row;
+	}
+
+	/**
+	 * Finds the row of an id in the id table
+	 *
+	 * @param idBytes the UTF-8 bytes of the id
+	 * @param idHash  the hash of the id
+	 * @return the row of the id, or -1 if it is not stored
+	 */
+	private int findRow(byte[] idBytes, int idHash) {
+		int mask = idTable.length - 1;
+
+		for (int i = idHash & mask; idTable[i] != 0; i = (i + 1) & mask) {
+			int row = idTable[i] - 1;
+
+			if (ids.equalsAt(row, idBytes)) {
+				return row;
+			}
+		}
+
+		return -1;
+	}
+
+	/**
+	 * Puts a row in the first free position of the id table for its hash
+	 *
+	 * @param row    the row to insert
+	 * @param idHash the hash of the id of the row
+	 */
+	private void insertIntoIdTable(int row, int idHash) {
+		int mask = idTable.length - 1;
+		int i = idHash & mask;
+
+		while (idTable[i] != 0) {
+			i = (i + 1) & mask;
+		}
+
+		idTable[i] = row + 1;
+	}
+
+	/**
+	 * Doubles the id table and inserts every row again
+	 */
+	private void rehash() {
+		idTable = new int[idTable.length * 2];
+
+		for (int row = 0; row < size; row++) {
+			insertIntoIdTable(row, ids.hashAt(row));
+		}
+	}
+
+	/**
+	 * Checks that a row is stored
+	 *
+	 * @param row the row to check
+	 * @return the same row
+	 */
+	private int checkRow(int row) {
+		if (row < 0 || row >= size) {
+			throw new IndexOutOfBoundsException("Row " + row + " is not stored");
+		}
+
+		return row;
+	}
+
+	/**
+	 * Returns the offset of a row in a column of values of the same width. The
+	 * offset is computed in long arithmetic, and a stored row always fits in a
+	 * mapped column
+	 *
+	 * @param row   the row of the value
+	 * @param width the number of bytes of each value
+	 * @return the offset of the first byte of the value
+	 */
+	private static int offset(int row, int width) {
+		return Math.toIntExact((long) row * width);
+	}
+
+	/**
+	 * Returns the size of an id table that keeps its load under one half
+	 *
+	 * @param rows the number of rows that will be inserted
+	 * @return a power of two
+	 */
+	private static int tableSizeFor(int rows) {
+		int tableSize = 16;
+
+		while (tableSize < rows * 2L) {
+			tableSize *= 2;
+		}
+
+		return tableSize;
+	}
+
+	/**
+	 * Hashes a range of bytes (FNV-1a followed by a final mix)
+	 *
+	 * @param bytes  the bytes to hash
+	 * @param from   the first byte of the range
+	 * @param length the length of the range
+	 * @return the hash of the range
+	 */
+	private static int hash(byte[] bytes, int from, int length) {
+		int h = 0x811C9DC5;
+
+		for (int i = from; i < from + length; i++) {
+			h = (h ^ (bytes[i] & 0xFF)) * 0x01000193;
+		}
+
+		return h ^ (h >>> 16);
+	}
+
+	/**
+	 * Strings stored one after the other in a byte column, with a second column
+	 * holding the end offset of each string. A null string has no bytes, and its
+	 * end offset carries the NULL_MARK bit
+	 */
+	private static class StringTable implements Closeable {
+		private static final long NULL_MARK = Long.MIN_VALUE;
+
+		private MappedColumn ends;
+		private MappedColumn bytes;
+
+		/**
+		 * Constructor of the string table class
+		 *
+		 * @param directory the directory of the column files
+		 * @param name      the name of the table, used to name its files
+		 * @param rows      the number of rows to map initially
+		 * @throws IOException if the files cannot be opened or mapped
+		 */
+		private StringTable(Path directory, String name, long rows) throws IOException {
+			ends = new MappedColumn(directory.resolve(name + ".end.col"), rows * 8);
+			bytes = new MappedColumn(directory.resolve(name + ".str.col"), rows * 16);
+		}
+
+		/**
+		 * Returns the offset of the first byte of a string
+		 *
+		 * @param row the row of the string
+		 * @return the start offset, which is the end of the previous string
+		 */
+		private long start(int row) {
+			return row == 0 ? 0 : end(row - 1);
+		}
+
+		/**
+		 * Returns the offset after the last byte of a string
+		 *
+		 * @param row the row of the string
+		 * @return the end offset
+		 */
+		private long end(int row) {
+			return ends.buffer().getLong(offset(row, 8)) & ~NULL_MARK;
+		}
+
+		/**
+		 * Checks if a string is null
+		 *
+		 * @param row the row of the string
+		 * @return a boolean indicating if the string was stored as null
+		 */
+		private boolean isNull(int row) {
+			return (ends.buffer().getLong(offset(row, 8)) & NULL_MARK) != 0;
+		}
+
+		/**
+		 * Appends a string to the table
+		 *
+		 * @param row   the row of the string, which must be the next row
+		 * @param value the UTF-8 bytes of the string, or null
+		 * @throws IOException if the columns cannot grow
+		 */
+		private void add(int row, byte[] value) throws IOException {
+			long start = start(row);
+			long end = value == null ? start : start + value.length;
+
+			ends.ensureCapacity((row + 1L) * 8);
+			bytes.ensureCapacity(end);
+
+			if (value != null) {
+				ByteBuffer column = bytes.buffer().duplicate();
+				column.position((int) start);
+				column.put(value);
+			}
+
+			ends.buffer().putLong(offset(row, 8), value == null ? end | NULL_MARK : end);
+		}
+
+		/**
+		 * Copies the bytes of a string
+		 *
+		 * @param row the row of the string
+		 * @return the UTF-8 bytes of the string
+		 */
+		private byte[] bytesAt(int row) {
+			int start = (int) start(row);
+			byte[] value = new byte[(int) (end(row) - start)];
+
+			ByteBuffer column = bytes.buffer().duplicate();
+			column.position(start);
+			column.get(value);
+
+			return value;
+		}
+
+		/**
+		 * Decodes a string
+		 *
+		 * @param row the row of the string
+		 * @return the string, which may be null
+		 */
+		private String get(int row) {
+			return isNull(row) ? null : new String(bytesAt(row), StandardCharsets.UTF_8);
+		}
+
+		/**
+		 * Hashes the bytes of a string
+		 *
+		 * @param row the row of the string
+		 * @return the hash of the string
+		 */
+		private int hashAt(int row) {
+			byte[] value = bytesAt(row);
+			return hash(value, 0, value.length);
+		}
+
+		/**
+		 * Compares a stored string with some bytes without decoding it
+		 *
+		 * @param row   the row of the string
+		 * @param value the UTF-8 bytes to compare
+		 * @return a boolean indicating if the string has the same bytes
+		 */
+		private boolean equalsAt(int row, byte[] value) {
+			int start = (int) start(row);
+
+			if (end(row) - start != value.length) {
+				return false;
+			}
+
+			ByteBuffer column = bytes.buffer();
+			for (int i = 0; i < value.length; i++) {
+				if (column.get(start + i) != value[i]) {
+					return false;
+				}
+			}
+
+			return true;
+		}
+
+		/**
+		 * Writes the modified columns to the storage device
+		 */
+		private void force() {
+			ends.force();
+			bytes.force();
+		}
+
+		/**
+		 * Forces and closes the column files
+		 */
+		@Override
+		public void close() throws IOException {
+			ends.close();
+			bytes.close();
+		}
+	}
+}
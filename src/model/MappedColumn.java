@@ -0,0 +1,87 @@
+package model;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * File mapped in memory that holds the values of one column. The mapping is
+ * doubled when more room is needed, up to the size of a single mapping
+ */
+class MappedColumn implements Closeable {
+	// Constants
+	static final long MAX_BYTES = Integer.MAX_VALUE;
+
+	// Attributes
+	private FileChannel channel;
+	private MappedByteBuffer buffer;
+
+	/**
+	 * Constructor of the mapped column class. The file is created if it does not
+	 * exist, and its current content is kept if it does
+	 *
+	 * @param file         the file of the column
+	 * @param initialBytes the minimum number of bytes to map
+	 * @throws IOException if the file cannot be opened or mapped
+	 */
+	MappedColumn(Path file, long initialBytes) throws IOException {
+		channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ,
+				StandardOpenOption.WRITE);
+		map(Math.min(Math.max(channel.size(), Math.max(initialBytes, 8)), MAX_BYTES));
+	}
+
+	/**
+	 * Returns the mapped buffer. The buffer changes when the column grows, so it
+	 * must not be kept across calls to ensureCapacity
+	 *
+	 * @return the buffer of the column
+	 */
+	MappedByteBuffer buffer() {
+		return buffer;
+	}
+
+	/**
+	 * Makes sure that a number of bytes are mapped
+	 *
+	 * @param bytes the number of bytes that must be mapped
+	 * @throws IOException if the file cannot be mapped again
+	 */
+	void ensureCapacity(long bytes) throws IOException {
+		if (bytes > buffer.capacity()) {
+			if (bytes > MAX_BYTES) {
+				throw new IOException("The column cannot hold more than " + MAX_BYTES + " bytes");
+			}
+
+			map(Math.min(Math.max(bytes, (long) buffer.capacity() * 2), MAX_BYTES));
+		}
+	}
+
+	/**
+	 * Writes the modified content of the column to the storage device
+	 */
+	void force() {
+		buffer.force();
+	}
+
+	/**
+	 * Forces the content of the column and closes its file
+	 */
+	@Override
+	public void close() throws IOException {
+		force();
+		channel.close();
+	}
+
+	/**
+	 * Maps the first bytes of the file, extending the file if it is shorter
+	 *
+	 * @param bytes the number of bytes to map
+	 * @throws IOException if the file cannot be mapped
+	 */
+	private void map(long bytes) throws IOException {
+		buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, bytes);
+	}
+}
@@ -45,7 +45,12 @@ public class Movie extends Product{
 	 * @param producer the producer to set
 	 */
     public void setProducer(String producer) {
-        this.producer = producer;
+        this.producer = channel == null ? producer : channel.internMetadata(producer);
+
+        // Let the channel record the change
+        if (channel != null) {
+            channel.productChanged(this);
+        }
     }
 
     /**
@@ -62,6 +67,11 @@ public class Movie extends Product{
      */
     public void setMinimumWatchAge(int minimumWatchAge) {
         this.minimumWatchAge = minimumWatchAge;
+
+        // Let the channel record the change
+        if (channel != null) {
+            channel.productChanged(this);
+        }
     }
 
     /**
@@ -78,6 +88,11 @@ public class Movie extends Product{
      */
     public void setTrailerUrl(String trailerUrl) {
         this.trailerUrl = trailerUrl;
+
+        // Let the channel record the change
+        if (channel != null) {
+            channel.productChanged(this);
+        }
     }
 
     /**
@@ -93,6 +108,11 @@ public class Movie extends Product{
      * @param movieCategorySelection the selection of the movie category (<code>1</code>: Romantic, <code>2</code>: Action, <code>3</code>: Suspense, <code>4</code>: Horror, <code>5</code>: Comedy)
      */
     public void setCategory(int movieCategorySelection) {
+        // Let the channel move the movie to its new category
+        if (channel != null) {
+            channel.beforeProductUpdate(this, Channel.IndexedField.CATEGORY);
+        }
+
         switch (movieCategorySelection) {
             case 1:
                 category = MovieCategory.ROMANTIC;
@@ -110,6 +130,21 @@ public class Movie extends Product{
                 category = MovieCategory.COMEDY;
                 break;
         }
+
+        if (channel != null) {
+            channel.afterProductUpdate(this, Channel.IndexedField.CATEGORY);
+        }
+    }
+
+    /**
+     * Replaces the repeated metadata of the movie (director and producer) by the
+     * canonical strings of a pool
+     * @param pool the pool of canonical strings
+     */
+    @Override
+    void internStrings(StringPool pool) {
+        super.internStrings(pool);
+        producer = pool.intern(producer);
     }
 
     /**
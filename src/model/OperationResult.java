@@ -0,0 +1,35 @@
+package model;
+
+/**
+ * Enum for the possible results of the operations that change a channel. The
+ * results carry no text, so returning one never allocates; the user interface
+ * decides how each result is shown
+ */
+public enum OperationResult {
+	SUBSCRIBER_ADDED(true), SUBSCRIBER_DEACTIVATED(true), SUBSCRIBER_REMOVED(true), MOVIE_ADDED(true),
+	SHOW_ADDED(true), SEASON_ADDED(true), NO_ROOM_FOR_SUBSCRIBERS(false), DUPLICATE_SUBSCRIBER_ID(false),
+	INVALID_SUBSCRIBER(false), SUBSCRIBER_NOT_FOUND(false), NO_ROOM_FOR_PRODUCTS(false),
+	DUPLICATE_PRODUCT_NAME(false), INVALID_PRODUCT(false), SHOW_NOT_FOUND(false), NOT_A_SHOW(false),
+	INVALID_SEASON(false);
+
+	// Attributes
+	private final boolean success;
+
+	/**
+	 * Constructor of the operation result enum
+	 *
+	 * @param success a boolean indicating if the operation changed the channel
+	 */
+	private OperationResult(boolean success) {
+		this.success = success;
+	}
+
+	/**
+	 * Returns the success state
+	 *
+	 * @return a boolean indicating if the operation changed the channel
+	 */
+	public boolean isSuccess() {
+		return success;
+	}
+}
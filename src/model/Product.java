@@ -9,6 +9,11 @@ public abstract class Product {
     private String synopsis;
     private LocalDate premierDate;
 
+    // Channel in which the product is registered (null if it has not been added)
+    // and slot that it occupies in the channel
+    Channel channel;
+    int slot;
+
     /**
      * Constructor of the product class. This is an abstract class and parent of Show and Movie, it cannot be instantiated
      * @param name name of the product
@@ -32,10 +37,28 @@ public abstract class Product {
     }
 
     /**
-	 * Sets the name
+	 * Sets the name. If the product belongs to a channel, the name is not changed
+	 * when it is null or another product of that channel already has it (ignoring
+	 * case)
 	 * @param name the name to set
 	 */
     public void setName(String name) {
+        Channel owner = channel;
+
+        // The channel indexes and records the new name by itself
+        if (owner == null) {
+            this.name = name;
+        } else {
+            owner.changeProductName(this, name);
+        }
+    }
+
+    /**
+     * Stores the name. The channel calls it while the product is reindexed by
+     * its new name
+     * @param name the name to store
+     */
+    void assignName(String name) {
         this.name = name;
     }
 
@@ -52,7 +75,16 @@ public abstract class Product {
      * @param nameOfDirector the name of the director to set
      */
     public void setNameOfDirector(String nameOfDirector) {
-        this.nameOfDirector = nameOfDirector;
+        // Let the channel move the product to its new director
+        if (channel != null) {
+            channel.beforeProductUpdate(this, Channel.IndexedField.DIRECTOR);
+        }
+
+        this.nameOfDirector = channel == null ? nameOfDirector : channel.internMetadata(nameOfDirector);
+
+        if (channel != null) {
+            channel.afterProductUpdate(this, Channel.IndexedField.DIRECTOR);
+        }
     }
 
     /**
@@ -68,7 +100,16 @@ public abstract class Product {
      * @param synopsis the synopsis to set
      */
     public void setSynopsis(String synopsis) {
+        // Let the channel reindex the words of the product around the change
+        if (channel != null) {
+            channel.beforeProductTextUpdate(this);
+        }
+
         this.synopsis = synopsis;
+
+        if (channel != null) {
+            channel.afterProductTextUpdate(this);
+        }
     }
 
     /**
@@ -84,7 +125,25 @@ public abstract class Product {
      * @param premierDate the premier date to set
      */
     public void setPremierDate(LocalDate premierDate) {
+        // Let the channel move the product to its new premier date
+        if (channel != null) {
+            channel.beforeProductUpdate(this, Channel.IndexedField.PREMIER_DATE);
+        }
+
         this.premierDate = premierDate;
+
+        if (channel != null) {
+            channel.afterProductUpdate(this, Channel.IndexedField.PREMIER_DATE);
+        }
+    }
+
+    /**
+     * Replaces the repeated metadata of the product (the name of the director)
+     * by the canonical strings of a pool
+     * @param pool the pool of canonical strings
+     */
+    void internStrings(StringPool pool) {
+        nameOfDirector = pool.intern(nameOfDirector);
     }
 
     /**
@@ -0,0 +1,583 @@
+package model;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Inverted index of the words in the name, synopsis and protagonists of the
+ * products. Every word maps to the sorted slots of the products that contain
+ * it. The slots are stored as the gaps between them, each one encoded in as
+ * few bytes as possible (7 bits per byte), and every block of slots has a skip
+ * entry so that intersections can jump over the blocks they do not need
+ */
+class ProductTextIndex {
+	// Constants
+	private static final int BLOCK_SIZE = 64;
+
+	// Attributes
+	private Map<String, PostingList> postings;
+
+	/**
+	 * Constructor of the product text index class
+	 */
+	ProductTextIndex() {
+		postings = new HashMap<>();
+	}
+
+	/**
+	 * Adds the words of a product to the index
+	 *
+	 * @param slot    the slot of the product
+	 * @param product the product to add
+	 */
+	void add(int slot, Product product) {
+		for (String word : words(product)) {
+			PostingList list = postings.get(word);
+
+			if (list == null) {
+				list = new PostingList();
+				postings.put(word, list);
+			}
+
+			list.add(slot);
+		}
+	}
+
+	/**
+	 * Removes the words of a product from the index. The product must have the
+	 * same text it had when it was added
+	 *
+	 * @param slot    the slot of the product
+	 * @param product the product to remove
+	 */
+	void remove(int slot, Product product) {
+		for (String word : words(product)) {
+			PostingList list = postings.get(word);
+
+			// Drop the words that no product contains anymore
+			if (list != null && list.remove(slot) && list.count == 0) {
+				postings.remove(word);
+			}
+		}
+	}
+
+	/**
+	 * Returns the slots of the products that contain the words of a query
+	 *
+	 * @param query    the words to look for
+	 * @param allWords true to require every word (AND), false to require any of
+	 *                 them (OR)
+	 * @return the sorted slots of the matching products
+	 */
+	int[] search(String query, boolean allWords) {
+		Set<String> words = new LinkedHashSet<>();
+		tokenize(query, words);
+
+		if (words.isEmpty()) {
+			return new int[0];
+		}
+
+		List<PostingList> lists = new ArrayList<>(words.size());
+		for (String word : words) {
+			PostingList list = postings.get(word);
+
+			if (list != null) {
+				lists.add(list);
+			} else if (allWords) {
+				// A missing word leaves nothing to intersect
+				return new int[0];
+			}
+		}
+
+		if (lists.isEmpty()) {
+			return new int[0];
+		}
+
+		// Intersections start from the shortest list, so the partial result only
+		// shrinks
+		if (allWords) {
+			lists.sort((a, b) -> Integer.compare(a.count, b.count));
+		}
+
+		int[] result = lists.get(0).decode();
+		for (int i = 1; i < lists.size(); i++) {
+			result = allWords ? intersect(result, lists.get(i)) : union(result, lists.get(i));
+		}
+
+		return result;
+	}
+
+	/**
+	 * Returns the number of indexed words
+	 *
+	 * @return the number of distinct words of the indexed products
+	 */
+	int size() {
+		return postings.size();
+	}
+
+	/**
+	 * Returns the distinct words of the text of a product
+	 *
+	 * @param product the product to read
+	 * @return the words of the name, synopsis and protagonists of the product
+	 */
+	private static Set<String> words(Product product) {
+		Set<String> words = new LinkedHashSet<>();
+
+		tokenize(product.getName(), words);
+		tokenize(product.getSynopsis(), words);
+
+		if (product instanceof Show) {
+			String[] protagonists = ((Show) product).getProtagonists();
+
+			if (protagonists != null) {
+				for (String protagonist : protagonists) {
+					tokenize(protagonist, words);
+				}
+			}
+		}
+
+		return words;
+	}
+
+	/**
+	 * Splits a text in words. A word is a run of letters or digits, and its case
+	 * is folded the same way as the product names
+	 *
+	 * @param text  the text to split, which may be null
+	 * @param words the collection in which the words are added
+	 */
+	static void tokenize(String text, Collection<String> words) {
+		if (text == null) {
+			return;
+		}
+
+		StringBuilder word = new StringBuilder();
+
+		for (int i = 0; i <= text.length(); i++) {
+			char c = i < text.length() ? text.charAt(i) : ' ';
+
+			if (Character.isLetterOrDigit(c)) {
+				word.append(Character.toLowerCase(Character.toUpperCase(c)));
+			} else if (word.length() > 0) {
+				words.add(word.toString());
+				word.setLength(0);
+			}
+		}
+	}
+
+	/**
+	 * Keeps the slots of a sorted array that are also in a posting list. The
+	 * list is only decoded in the blocks that may contain a slot of the array
+	 *
+	 * @param slots the sorted slots
+	 * @param list  the posting list
+	 * @return the sorted slots that are in both
+	 */
+	private static int[] intersect(int[] slots, PostingList list) {
+		int[] result = new int[Math.min(slots.length, list.count)];
+		int size = 0;
+
+		// Current block, position of the next byte to decode, slots left in the
+		// block and last decoded slot
+		int block = -1;
+		int position = 0;
+		int remaining = 0;
+		int slot = 0;
+		int current = -1;
+
+		for (int target : slots) {
+			if (current < target) {
+				// Jump to the last block that starts before the target
+				int next = Math.max(block, 0);
+				while (next + 1 < list.blocks && list.blockBases[next + 1] < target) {
+					next++;
+				}
+				if (next > block) {
+					block = next;
+					position = list.blockOffsets[block];
+					remaining = list.blockCounts[block];
+					slot = list.blockBases[block];
+				}
+
+				while (current < target) {
+					// Continue in the next block when the current one is exhausted
+					if (remaining == 0) {
+						if (block + 1 >= list.blocks) {
+							break;
+						}
+
+						block++;
+						position = list.blockOffsets[block];
+						remaining = list.blockCounts[block];
+						slot = list.blockBases[block];
+					}
+
+					int value = 0;
+					int shift = 0;
+					byte b;
+					do {
+						b = list.bytes[position++];
+						value |= (b & 0x7F) << shift;
+						shift += 7;
+					} while (b < 0);
+
+					slot += value;
+					current = slot;
+					remaining--;
+				}
+
+				if (current < target) {
+					break;
+				}
+			}
+
+			if (current == target) {
+				result[size++] = target;
+			}
+		}
+
+		return Arrays.copyOf(result, size);
+	}
+
+	/**
+	 * Merges the slots of a sorted array with the slots of a posting list
+	 *
+	 * @param slots the sorted slots
+	 * @param list  the posting list
+	 * @return the sorted slots that are in any of them, without repetitions
+	 */
+	private static int[] union(int[] slots, PostingList list) {
+		int[] other = list.decode();
+		int[] result = new int[slots.length + other.length];
+		int size = 0;
+		int i = 0;
+		int j = 0;
+
+		while (i < slots.length || j < other.length) {
+			if (j == other.length || (i < slots.length && slots[i] < other[j])) {
+				result[size++] = slots[i++];
+			} else if (i == slots.length || other[j] < slots[i]) {
+				result[size++] = other[j++];
+			} else {
+				result[size++] = slots[i++];
+				j++;
+			}
+		}
+
+		return Arrays.copyOf(result, size);
+	}
+
+	/**
+	 * Sorted slots of the products that contain a word, stored as variable-length
+	 * gaps. New products have the highest slots, so they are appended without
+	 * decoding the list. For every block of slots, the list keeps the offset of
+	 * its first byte, the slot from which its first gap is counted and its number
+	 * of slots, so the blocks are decoded independently: a slot inserted or
+	 * removed in the middle of the list only re-encodes its block and shifts the
+	 * bytes that follow it
+	 */
+	private static class PostingList {
+		private byte[] bytes = new byte[4];
+		private int length;
+		private int count;
+		private int lastSlot = -1;
+		private int[] blockOffsets = new int[1];
+		private int[] blockBases = new int[1];
+		private int[] blockCounts = new int[1];
+		private int blocks;
+
+		/**
+		 * Adds a slot to the list
+		 *
+		 * @param slot the slot to add
+		 */
+		private void add(int slot) {
+			if (slot > lastSlot) {
+				append(slot);
+				return;
+			}
+
+			// A product indexed again (after its text changed) is inserted in order
+			// in its block
+			int block = findBlock(slot);
+			int size = blockCounts[block];
+			int[] slots = decodeBlock(block, 1);
+			int position = Arrays.binarySearch(slots, 0, size, slot);
+
+			if (position < 0) {
+				int insertion = -position - 1;
+				System.arraycopy(slots, insertion, slots, insertion + 1, size - insertion);
+				slots[insertion] = slot;
+
+				count++;
+				replaceBlock(block, slots, size + 1);
+			}
+		}
+
+		/**
+		 * Removes a slot from the list
+		 *
+		 * @param slot the slot to remove
+		 * @return a boolean indicating if the slot was in the list
+		 */
+		private boolean remove(int slot) {
+			if (slot > lastSlot || slot < 0) {
+				return false;
+			}
+
+			int block = findBlock(slot);
+			int size = blockCounts[block];
+			int[] slots = decodeBlock(block, 0);
+			int position = Arrays.binarySearch(slots, slot);
+
+			if (position < 0) {
+				return false;
+			}
+
+			System.arraycopy(slots, position + 1, slots, position, size - position - 1);
+
+			count--;
+			replaceBlock(block, slots, size - 1);
+
+			// The next appended slot is counted from the new last slot
+			if (slot == lastSlot) {
+				if (blocks == 0) {
+					lastSlot = -1;
+				} else {
+					int[] last = decodeBlock(blocks - 1, 0);
+					lastSlot = last[last.length - 1];
+				}
+			}
+
+			return true;
+		}
+
+		/**
+		 * Appends a slot higher than every slot of the list
+		 *
+		 * @param slot the slot to append
+		 */
+		private void append(int slot) {
+			int base = lastSlot < 0 ? 0 : lastSlot;
+
+			// Open a new block when the last one is full
+			if (blocks == 0 || blockCounts[blocks - 1] >= BLOCK_SIZE) {
+				insertBlock(blocks, length, base, 0);
+			}
+
+			if (length + 5 > bytes.length) {
+				bytes = Arrays.copyOf(bytes, Math.max(bytes.length * 2, length + 5));
+			}
+
+			length = writeGap(slot - base, bytes, length);
+
+			blockCounts[blocks - 1]++;
+			lastSlot = slot;
+			count++;
+		}
+
+		/**
+		 * Returns the block in which a slot is or would be
+		 *
+		 * @param slot the slot to look for
+		 * @return the last block whose first gap is counted from a lower slot, or
+		 *         the first block if there is none
+		 */
+		private int findBlock(int slot) {
+			int low = 1;
+			int high = blocks - 1;
+
+			while (low <= high) {
+				int middle = (low + high) >>> 1;
+
+				if (blockBases[middle] < slot) {
+					low = middle + 1;
+				} else {
+					high = middle - 1;
+				}
+			}
+
+			return high < 1 ? 0 : high;
+		}
+
+		/**
+		 * Replaces the slots of a block and shifts the bytes of the following
+		 * blocks. A block left without slots is dropped, and a block that grew to
+		 * twice the block size is split in halves
+		 *
+		 * @param block the block to replace
+		 * @param slots the new sorted slots of the block, between the slots of the
+		 *              previous and the next blocks
+		 * @param size  the number of slots to use
+		 */
+		private void replaceBlock(int block, int[] slots, int size) {
+			// The first block may start below its previous base, so it is counted
+			// from 0
+			int base = block == 0 ? 0 : blockBases[block];
+			int start = blockOffsets[block];
+			int end = block + 1 < blocks ? blockOffsets[block + 1] : length;
+			int firstSize = size > 2 * BLOCK_SIZE ? size / 2 : size;
+
+			byte[] encoded = new byte[size * 5];
+			int encodedLength = 0;
+			for (int i = 0; i < firstSize; i++) {
+				encodedLength = writeGap(slots[i] - (i == 0 ? base : slots[i - 1]), encoded, encodedLength);
+			}
+
+			int secondOffset = encodedLength;
+			for (int i = firstSize; i < size; i++) {
+				encodedLength = writeGap(slots[i] - slots[i - 1], encoded, encodedLength);
+			}
+
+			// Move the following bytes and write the block in its place
+			int delta = encodedLength - (end - start);
+			if (length + delta > bytes.length) {
+				bytes = Arrays.copyOf(bytes, Math.max(bytes.length * 2, length + delta));
+			}
+			System.arraycopy(bytes, end, bytes, end + delta, length - end);
+			System.arraycopy(encoded, 0, bytes, start, encodedLength);
+			length += delta;
+
+			for (int b = block + 1; b < blocks; b++) {
+				blockOffsets[b] += delta;
+			}
+
+			if (size == 0) {
+				removeBlock(block);
+			} else {
+				blockBases[block] = base;
+				blockCounts[block] = firstSize;
+
+				if (firstSize < size) {
+					insertBlock(block + 1, start + secondOffset, slots[firstSize - 1], size - firstSize);
+				}
+			}
+
+			// Release the memory of lists that shrank a lot
+			if (bytes.length > 64 && length < bytes.length / 4) {
+				bytes = Arrays.copyOf(bytes, length * 2);
+			}
+		}
+
+		/**
+		 * Inserts the skip entry of a block
+		 *
+		 * @param block  the position of the new block
+		 * @param offset the offset of its first byte
+		 * @param base   the slot from which its first gap is counted
+		 * @param size   its number of slots
+		 */
+		private void insertBlock(int block, int offset, int base, int size) {
+			if (blocks == blockOffsets.length) {
+				blockOffsets = Arrays.copyOf(blockOffsets, blocks * 2);
+				blockBases = Arrays.copyOf(blockBases, blocks * 2);
+				blockCounts = Arrays.copyOf(blockCounts, blocks * 2);
+			}
+
+			System.arraycopy(blockOffsets, block, blockOffsets, block + 1, blocks - block);
+			System.arraycopy(blockBases, block, blockBases, block + 1, blocks - block);
+			System.arraycopy(blockCounts, block, blockCounts, block + 1, blocks - block);
+
+			blockOffsets[block] = offset;
+			blockBases[block] = base;
+			blockCounts[block] = size;
+			blocks++;
+		}
+
+		/**
+		 * Removes the skip entry of a block without slots
+		 *
+		 * @param block the position of the block
+		 */
+		private void removeBlock(int block) {
+			System.arraycopy(blockOffsets, block + 1, blockOffsets, block, blocks - block - 1);
+			System.arraycopy(blockBases, block + 1, blockBases, block, blocks - block - 1);
+			System.arraycopy(blockCounts, block + 1, blockCounts, block, blocks - block - 1);
+			blocks--;
+		}
+
+		/**
+		 * Decodes the slots of a block
+		 *
+		 * @param block the block to decode
+		 * @param extra the number of free positions to leave at the end
+		 * @return an array with the sorted slots of the block
+		 */
+		private int[] decodeBlock(int block, int extra) {
+			int[] slots = new int[blockCounts[block] + extra];
+			decodeBlock(block, slots, 0);
+
+			return slots;
+		}
+
+		/**
+		 * Decodes the slots of a block into an array
+		 *
+		 * @param block the block to decode
+		 * @param slots the array in which the slots are written
+		 * @param from  the position of the first slot in the array
+		 */
+		private void decodeBlock(int block, int[] slots, int from) {
+			int position = blockOffsets[block];
+			int slot = blockBases[block];
+
+			for (int i = 0; i < blockCounts[block]; i++) {
+				int value = 0;
+				int shift = 0;
+				byte b;
+				do {
+					b = bytes[position++];
+					value |= (b & 0x7F) << shift;
+					shift += 7;
+				} while (b < 0);
+
+				slot += value;
+				slots[from + i] = slot;
+			}
+		}
+
+		/**
+		 * Decodes every slot of the list
+		 *
+		 * @return the sorted slots
+		 */
+		private int[] decode() {
+			int[] slots = new int[count];
+			int from = 0;
+
+			for (int block = 0; block < blocks; block++) {
+				decodeBlock(block, slots, from);
+				from += blockCounts[block];
+			}
+
+			return slots;
+		}
+
+		/**
+		 * Writes a gap in 7 bits per byte, with the high bit set on every byte
+		 * but the last
+		 *
+		 * @param gap      the gap to write, which is not negative
+		 * @param out      the array in which it is written
+		 * @param position the position of its first byte
+		 * @return the position after its last byte
+		 */
+		private static int writeGap(int gap, byte[] out, int position) {
+			while ((gap & ~0x7F) != 0) {
+				out[position++] = (byte) ((gap & 0x7F) | 0x80);
+				gap >>>= 7;
+			}
+			out[position++] = (byte) gap;
+
+			return position;
+		}
+	}
+}
@@ -10,6 +10,12 @@ public class Season {
     private LocalDate premierDate;
     private String trailerUrl;
 
+    // Relation
+    // Show to which the season was added (null if it has not been added) and
+    // position of the season in the show
+    Show show;
+    int position;
+
     /**
      * Constructor of the season class. The published episodes are set as 0
      * 
@@ -39,6 +45,9 @@ public class Season {
      */
     public void setSeasonNumber(int seasonNumber) {
         this.seasonNumber = seasonNumber;
+
+        // Let the channel of the show record the change
+        recordChange();
     }
 
     /**
@@ -55,6 +64,9 @@ public class Season {
      */
     public void setScheduledEpisodes(int scheduledEpisodes) {
         this.scheduledEpisodes = scheduledEpisodes;
+
+        // Let the channel of the show record the change
+        recordChange();
     }
 
     /**
@@ -71,6 +83,9 @@ public class Season {
      */
     public void setPublishedEpisodes(int publishedEpisodes) {
         this.publishedEpisodes = publishedEpisodes;
+
+        // Let the channel of the show record the change
+        recordChange();
     }
 
     /**
@@ -87,6 +102,9 @@ public class Season {
      */
     public void setPremierDate(LocalDate premierDate) {
         this.premierDate = premierDate;
+
+        // Let the channel of the show record the change
+        recordChange();
     }
 
     /**
@@ -103,6 +121,21 @@ public class Season {
      */
     public void setTrailerUrl(String trailerUrl) {
         this.trailerUrl = trailerUrl;
+
+        // Let the channel of the show record the change
+        recordChange();
+    }
+
+    /**
+     * Records the change of the season in the channel of its show, if the season
+     * was added to a show of a channel
+     */
+    private void recordChange() {
+        Show owner = show;
+
+        if (owner != null && owner.channel != null) {
+            owner.channel.seasonChanged(owner, this);
+        }
     }
 
     /**
@@ -1,10 +1,11 @@
 package model;
 
 import java.time.LocalDate;
+import java.util.Arrays;
 
 public class Show extends Product{
     // Constants
-    public static final int MAX_SEASONS = 10;
+    public static final int INITIAL_SEASONS_CAPACITY = 10;
 
     // Attributes
     private String[] protagonists;
@@ -13,7 +14,9 @@ public class Show extends Product{
 
     // Relation
     private Season[] seasons;
-    
+    private int seasonCount;
+    private Season lastSeason;
+
     /**
      * Constructor of the show class
      * 
@@ -31,7 +34,7 @@ public class Show extends Product{
         this.protagonists = protagonists;
         this.censored = censored;
         this.censorMotif = censorMotif;
-        seasons = new Season[MAX_SEASONS];
+        seasons = new Season[INITIAL_SEASONS_CAPACITY];
     }
 
     /**
@@ -47,7 +50,16 @@ public class Show extends Product{
 	 * @param protagonists the protagonists to set
 	 */
     public void setProtagonists(String[] protagonists) {
-        this.protagonists = protagonists;
+        // Let the channel reindex the words of the show around the change
+        if (channel != null) {
+            channel.beforeProductTextUpdate(this);
+        }
+
+        this.protagonists = channel == null ? protagonists : channel.internMetadata(protagonists);
+
+        if (channel != null) {
+            channel.afterProductTextUpdate(this);
+        }
     }
 
     /**
@@ -64,6 +76,11 @@ public class Show extends Product{
      */
     public void setCensored(boolean censored) {
         this.censored = censored;
+
+        // Let the channel record the change
+        if (channel != null) {
+            channel.productChanged(this);
+        }
     }
 
     /**
@@ -79,52 +96,98 @@ public class Show extends Product{
      * @param censorMotif the censor motif to set
      */
     public void setCensorMotif(String censorMotif) {
-        this.censorMotif = censorMotif;
+        this.censorMotif = channel == null ? censorMotif : channel.internMetadata(censorMotif);
+
+        // Let the channel record the change
+        if (channel != null) {
+            channel.productChanged(this);
+        }
+    }
+
+    /**
+     * Adds a season to the show. If the show belongs to a channel, the season is
+     * added under the product lock of that channel
+     * 
+     * @param newSeason the season object
+     * @return the result of the operation, INVALID_SEASON if the season is null or
+     * already belongs to a show
+     */
+    public OperationResult addSeason(Season newSeason) {
+        Channel owner = channel;
+
+        // Let the channel store and record the new season
+        return owner == null ? storeSeason(newSeason) : owner.addSeason(this, newSeason);
     }
 
     /**
-     * Adds a season to the show
+     * Stores a season at the end of the show. The season storage grows when it is
+     * full
      * 
      * @param newSeason the season object
-     * @return a message indicating the result of the operation
+     * @return the result of the operation
      */
-    public String addSeason(Season newSeason) {
-        String message = "";
-        int pos = searchSeasonsAvailableSpace();
-
-        // Identify if the seasons are already full or not. Return a message accordingly
-        if (pos == -1) {
-            message = "Error, the seasons are full";
-        } else {
-            seasons[pos] = newSeason;
-            message = "The season has been added successfully";
+    OperationResult storeSeason(Season newSeason) {
+        // A season belongs to a single show
+        if (newSeason == null || newSeason.show != null) {
+            return OperationResult.INVALID_SEASON;
         }
 
-        return message;
+        // Double the season array if every position is used
+        if (seasonCount == seasons.length) {
+            seasons = Arrays.copyOf(seasons, seasons.length * 2);
+        }
+
+        newSeason.show = this;
+        newSeason.position = seasonCount;
+        seasons[seasonCount++] = newSeason;
+        lastSeason = newSeason;
+
+        return OperationResult.SEASON_ADDED;
     }
 
     /**
-     * Returns the season array
-     * @return the season array of the show
+     * Returns the seasons
+     * @return an array with the seasons of the show, in the order they were added
      */
     public Season[] getSeasons(){
-        return seasons;
+        return Arrays.copyOf(seasons, seasonCount);
     }
 
     /**
-     * Gets the index of an available space of the season array
-     * @return the index of the free space. Returns <code>-1</code> if the array is full
+     * Returns a season
+     * @param position the position of the season, in the order they were added
+     * @return the season in that position
      */
-    public int searchSeasonsAvailableSpace() {
-        // Goes over the array and returns the index that contains a null value
-        for (int i = 0; i < seasons.length; i++) {
-            if (seasons[i] == null) {
-                return i;
-            }
-        }
+    Season getSeason(int position) {
+        return seasons[position];
+    }
 
-        // If not found, the array is full, so return -1
-        return -1;
+    /**
+     * Returns the number of seasons
+     * @return the number of seasons of the show
+     */
+    public int getSeasonCount() {
+        return seasonCount;
+    }
+
+    /**
+     * Returns the last season
+     * @return the last season added to the show, or null if it has no seasons
+     */
+    public Season getLastSeason() {
+        return lastSeason;
+    }
+
+    /**
+     * Replaces the repeated metadata of the show (director, protagonists and
+     * censor motif) by the canonical strings of a pool
+     * @param pool the pool of canonical strings
+     */
+    @Override
+    void internStrings(StringPool pool) {
+        super.internStrings(pool);
+        pool.intern(protagonists);
+        censorMotif = pool.intern(censorMotif);
     }
 
     /**
@@ -133,23 +196,21 @@ public class Show extends Product{
 	 */
     @Override
     public String toString() {
-        String message = super.toString();
+        StringBuilder message = new StringBuilder(super.toString());
         String censoredString = (censored) ? "Censored" : "Not censored";
 
-        message += " | " + censoredString;
-        message += censored ? " | Censor Motif: " + censorMotif : "";
-        message += "\nProtagonists:";
+        message.append(" | ").append(censoredString);
+        if (censored) {
+            message.append(" | Censor Motif: ").append(censorMotif);
+        }
+        message.append("\nProtagonists:");
 
         // For loop to add the protagonists
         for (int i = 0; i < protagonists.length; i++) {
-            if (i == 0) {
-                message += " " + protagonists[i];
-            } else {
-                message += ", " + protagonists[i];
-            }
+            message.append(i == 0 ? " " : ", ").append(protagonists[i]);
         }
 
-        return message;
+        return message.toString();
     }
 
 }
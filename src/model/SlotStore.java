@@ -0,0 +1,265 @@
+package model;
+
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.function.ObjIntConsumer;
+
+/**
+ * Growable storage that keeps each element in a numbered slot. Slots of removed
+ * elements are kept in a free list and reused by the next additions, and the
+ * storage can be compacted to close the gaps left by removals
+ *
+ * @param <E> type of the stored elements
+ */
+public class SlotStore<E> implements Iterable<E> {
+	// Constants
+	public static final int MAX_CAPACITY = Integer.MAX_VALUE - 8;
+
+	// Attributes
+	private Object[] elements;
+	private int limit;
+	private int size;
+	private int[] freeSlots;
+	private int freeCount;
+
+	/**
+	 * Constructor of the slot store class
+	 *
+	 * @param initialCapacity number of slots reserved before the first growth
+	 */
+	public SlotStore(int initialCapacity) {
+		elements = new Object[Math.max(initialCapacity, 1)];
+		freeSlots = new int[8];
+	}
+
+	/**
+	 * Stores an element in a free slot, growing the storage if every slot is used
+	 *
+	 * <p>
+	 * <b>Precondition: </b> The store is not full
+	 * <p>
+	 * <b>Postcondition: </b> The element is stored and its slot is returned
+	 *
+	 * @param element the element to store
+	 * @return the slot in which the element was stored
+	 */
+	public int add(E element) {
+		int slot;
+
+		// Reuse the last freed slot if there is one, otherwise use the next slot after
+		// the used ones
+		if (freeCount > 0) {
+			slot = freeSlots[--freeCount];
+		} else {
+			if (limit == elements.length) {
+				grow(limit + 1);
+			}
+			slot = limit++;
+		}
+
+		elements[slot] = element;
+		size++;
+
+		return slot;
+	}
+
+	/**
+	 * Returns the element stored in a slot
+	 *
+	 * @param slot the slot to read
+	 * @return the element in the slot, or null if the slot is empty or does not
+	 *         exist
+	 */
+	@SuppressWarnings("unchecked")
+	public E get(int slot) {
+		if (slot < 0 || slot >= limit) {
+			return null;
+		}
+
+		return (E) elements[slot];
+	}
+
+	/**
+	 * Removes the element stored in a slot and keeps the slot for reuse
+	 *
+	 * @param slot the slot to empty
+	 * @return the removed element, or null if the slot was already empty
+	 */
+	public E remove(int slot) {
+		E element = get(slot);
+
+		if (element != null) {
+			elements[slot] = null;
+			size--;
+
+			// Save the slot in the free list
+			if (freeCount == freeSlots.length) {
+				freeSlots = Arrays.copyOf(freeSlots, freeCount * 2);
+			}
+			freeSlots[freeCount++] = slot;
+		}
+
+		return element;
+	}
+
+	/**
+	 * Moves every element down to the lowest free slots, keeping their order, so
+	 * that the used slots are contiguous again
+	 *
+	 * <p>
+	 * <b>Precondition: </b> The relocation action does not change the store
+	 * <p>
+	 * <b>Postcondition: </b> The elements are in the slots from 0 to size - 1, in
+	 * the same relative order, and the free list is empty
+	 *
+	 * @param relocation action called with every element that changes its slot and
+	 *                   its new slot
+	 */
+	public void compact(ObjIntConsumer<? super E> relocation) {
+		int write = 0;
+
+		for (int read = 0; read < limit; read++) {
+			@SuppressWarnings("unchecked")
+			E element = (E) elements[read];
+
+			if (element != null) {
+				if (read != write) {
+					elements[write] = element;
+					elements[read] = null;
+					relocation.accept(element, write);
+				}
+				write++;
+			}
+		}
+
+		limit = write;
+		freeCount = 0;
+	}
+
+	/**
+	 * Returns the number of free slots below the limit
+	 *
+	 * @return the number of empty slots left by removed elements
+	 */
+	public int getFreeSlotCount() {
+		return freeCount;
+	}
+
+	/**
+	 * Reserves enough slots to store a number of elements without growing again
+	 *
+	 * @param minCapacity the number of slots that must be available
+	 */
+	public void ensureCapacity(int minCapacity) {
+		if (minCapacity > elements.length) {
+			grow(minCapacity);
+		}
+	}
+
+	/**
+	 * Returns the number of stored elements
+	 *
+	 * @return the number of stored elements
+	 */
+	public int size() {
+		return size;
+	}
+
+	/**
+	 * Returns the capacity
+	 *
+	 * @return the number of slots that can be used before the storage grows
+	 */
+	public int capacity() {
+		return elements.length;
+	}
+
+	/**
+	 * Returns the limit of the used slots. Every stored element is in a slot lower
+	 * than the limit
+	 *
+	 * @return the limit of the used slots
+	 */
+	public int getLimit() {
+		return limit;
+	}
+
+	/**
+	 * Returns if the store is empty or not
+	 *
+	 * @return a true or false value
+	 */
+	public boolean isEmpty() {
+		return size == 0;
+	}
+
+	/**
+	 * Returns if the store can hold more elements or not
+	 *
+	 * @return a true or false value
+	 */
+	public boolean isFull() {
+		return size == MAX_CAPACITY;
+	}
+
+	/**
+	 * Returns an iterator over the stored elements in slot order
+	 *
+	 * @return an iterator that skips the empty slots
+	 */
+	@Override
+	public Iterator<E> iterator() {
+		return new Iterator<E>() {
+			private int next = nextUsedSlot(0);
+
+			@Override
+			public boolean hasNext() {
+				return next < limit;
+			}
+
+			@Override
+			public E next() {
+				if (next >= limit) {
+					throw new NoSuchElementException();
+				}
+
+				E element = get(next);
+				next = nextUsedSlot(next + 1);
+
+				return element;
+			}
+		};
+	}
+
+	/**
+	 * Finds the first slot that is used, starting at a given slot
+	 *
+	 * @param from the first slot to check
+	 * @return the used slot, or the limit if there is none
+	 */
+	private int nextUsedSlot(int from) {
+		while (from < limit && elements[from] == null) {
+			from++;
+		}
+
+		return from;
+	}
+
+	/**
+	 * Grows the element array to at least the given capacity. The capacity is
+	 * doubled to keep the additions in amortized constant time
+	 *
+	 * @param minCapacity the minimum capacity after the growth
+	 */
+	private void grow(int minCapacity) {
+		if (minCapacity > MAX_CAPACITY || minCapacity < 0) {
+			throw new IllegalStateException("The store cannot hold more elements");
+		}
+
+		long doubled = (long) elements.length * 2;
+		int newCapacity = (int) Math.min(Math.max(doubled, minCapacity), MAX_CAPACITY);
+
+		elements = Arrays.copyOf(elements, newCapacity);
+	}
+}
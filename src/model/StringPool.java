@@ -0,0 +1,69 @@
+package model;
+
+import java.lang.ref.WeakReference;
+import java.util.WeakHashMap;
+
+/**
+ * Pool of canonical strings. Equal strings passed to the pool are replaced by a
+ * single instance, so repeated values share their memory. The pool only holds
+ * weak references, so a value is dropped once no object uses it
+ */
+class StringPool {
+	// Attributes
+	private WeakHashMap<String, WeakReference<String>> values;
+
+	/**
+	 * Constructor of the string pool class
+	 */
+	StringPool() {
+		values = new WeakHashMap<>();
+	}
+
+	/**
+	 * Returns the canonical instance of a string
+	 *
+	 * @param value the string to look up, which may be null
+	 * @return the instance equal to the string that was pooled first, or the
+	 *         string itself if no equal string is in use
+	 */
+	String intern(String value) {
+		if (value == null) {
+			return null;
+		}
+
+		WeakReference<String> reference = values.get(value);
+		String canonical = reference == null ? null : reference.get();
+
+		if (canonical == null) {
+			values.put(value, new WeakReference<>(value));
+			canonical = value;
+		}
+
+		return canonical;
+	}
+
+	/**
+	 * Replaces every string of an array by its canonical instance
+	 *
+	 * @param array the array to update, which may be null
+	 * @return the same array
+	 */
+	String[] intern(String[] array) {
+		if (array != null) {
+			for (int i = 0; i < array.length; i++) {
+				array[i] = intern(array[i]);
+			}
+		}
+
+		return array;
+	}
+
+	/**
+	 * Returns the number of pooled strings
+	 *
+	 * @return the number of distinct strings in use
+	 */
+	int size() {
+		return values.size();
+	}
+}
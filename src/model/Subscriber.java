@@ -1,16 +1,36 @@
 package model;
 
 public class Subscriber {
+	// Constants
+	// Layout of the packed state: age in the high 32 bits and hours in the low 32 bits
+	private static final int AGE_SHIFT = 32;
+	private static final long HOURS_MASK = 0xFFFFFFFFL;
+
+	// Layout of the flags: numeric id in the low 28 bits, a bit set when the id is
+	// kept as that number, type ordinal in 2 bits and the active flag in the sign bit
+	private static final int ID_MASK = (1 << 28) - 1;
+	private static final int NUMERIC_BIT = 1 << 28;
+	private static final int TYPE_SHIFT = 29;
+	private static final int TYPE_MASK = 3 << TYPE_SHIFT;
+	private static final int ACTIVE_BIT = 1 << 31;
+	private static final SubscriberType[] TYPES = SubscriberType.values();
 
 	// Attributes
+	// The id is kept as a number in the flags when it is written as one (no sign
+	// nor leading zeros) and fits in their bits, in which case the string is null
 	private String id;
 	private String fullName;
-	private int age;
-	private int hoursToConsume;
-	private boolean active;
 
-	//Relation
-	private SubscriberType type;
+	// Age and hours to consume
+	private long state;
+
+	// Numeric id, activity and type
+	private int flags;
+
+	// Channel in which the subscriber is registered (null if it has not been added)
+	// and slot that it occupies in the channel
+	Channel channel;
+	int slot;
 
 	/**
 	 * Constructor of the subscriber class. The active state and the type are set by default in active and NORMAL respectively
@@ -20,28 +40,137 @@ public class Subscriber {
 	 * @param hoursToConsume hours that the new subscriber is willing to consume
 	 */
 	public Subscriber(String id, String fullName, int age, int hoursToConsume) {
-		this.id = id;
+		flags = ACTIVE_BIT | (SubscriberType.NORMAL.ordinal() << TYPE_SHIFT);
+		assignId(id);
 		this.setFullName(fullName);
-		this.age = age;
-		this.hoursToConsume = hoursToConsume;
-		this.active = true;
-		type = SubscriberType.NORMAL;
+		state = ((long) age << AGE_SHIFT) | (hoursToConsume & HOURS_MASK);
 	}
 
 	/**
-	 * Returns the id
+	 * Returns the id. The string of a numeric id is built on every call, so the
+	 * channel, its journal and its snapshots work with numericId and idHash
+	 * instead
 	 * @return id of the subscriber
 	 */
 	public String getId() {
-		return this.id;
+		return (flags & NUMERIC_BIT) != 0 ? Integer.toString(flags & ID_MASK) : this.id;
 	}
 
 	/**
-	 * Sets the id 
+	 * Returns the id when it is kept as a number, so that it can be written
+	 * without building its string
+	 * @return the value of the id, or -1 if it is kept as a string
+	 */
+	int numericId() {
+		return (flags & NUMERIC_BIT) != 0 ? flags & ID_MASK : -1;
+	}
+
+	/**
+	 * Sets the id. If the subscriber belongs to a channel, the id is not changed
+	 * when it is null or another subscriber of that channel already has it
 	 * @param id the id to set
 	 */
 	public void setId(String id) {
-		this.id = id;
+		Channel owner = channel;
+
+		if (owner == null) {
+			assignId(id);
+		} else {
+			owner.changeSubscriberId(this, id);
+		}
+	}
+
+	/**
+	 * Stores an id, as a number when it is written as one
+	 * @param id the id to store
+	 */
+	void assignId(String id) {
+		int value = numericValue(id);
+
+		if (value >= 0 && value <= ID_MASK) {
+			flags = (flags & ~ID_MASK) | NUMERIC_BIT | value;
+			this.id = null;
+		} else {
+			flags &= ~(NUMERIC_BIT | ID_MASK);
+			this.id = id;
+		}
+	}
+
+	/**
+	 * Returns if the subscriber has an id or not
+	 * @param key the id to compare
+	 * @return a true or false value
+	 */
+	boolean hasId(String key) {
+		if ((flags & NUMERIC_BIT) != 0) {
+			return numericValue(key) == (flags & ID_MASK);
+		}
+
+		return id == null ? key == null : id.equals(key);
+	}
+
+	/**
+	 * Returns if two subscribers have the same id or not
+	 * @param other the subscriber to compare
+	 * @return a true or false value
+	 */
+	boolean hasSameId(Subscriber other) {
+		if (((flags | other.flags) & NUMERIC_BIT) != 0) {
+			return (flags & (NUMERIC_BIT | ID_MASK)) == (other.flags & (NUMERIC_BIT | ID_MASK));
+		}
+
+		return id == null ? other.id == null : id.equals(other.id);
+	}
+
+	/**
+	 * Returns the hash code of the id, equal to the hash code of getId() but
+	 * computed without building the string of a numeric id
+	 * @return the hash code of the id (0 for a null id)
+	 */
+	int idHash() {
+		if ((flags & NUMERIC_BIT) == 0) {
+			return id == null ? 0 : id.hashCode();
+		}
+
+		int numericId = flags & ID_MASK;
+
+		// Hash of the decimal digits, from the most significant one
+		int divisor = 1;
+		while (numericId / divisor >= 10) {
+			divisor *= 10;
+		}
+
+		int hash = 0;
+		for (; divisor > 0; divisor /= 10) {
+			hash = 31 * hash + ('0' + numericId / divisor % 10);
+		}
+
+		return hash;
+	}
+
+	/**
+	 * Returns the value of an id written as a number
+	 * @param id the id to read
+	 * @return the value of the id, or -1 if it has a sign, leading zeros or
+	 *         characters other than digits, or does not fit in an int
+	 */
+	static int numericValue(String id) {
+		if (id == null || id.isEmpty() || id.length() > 10 || (id.charAt(0) == '0' && id.length() > 1)) {
+			return -1;
+		}
+
+		long value = 0;
+		for (int i = 0; i < id.length(); i++) {
+			char c = id.charAt(i);
+
+			if (c < '0' || c > '9') {
+				return -1;
+			}
+
+			value = value * 10 + (c - '0');
+		}
+
+		return value > Integer.MAX_VALUE ? -1 : (int) value;
 	}
 
 	/**
@@ -58,6 +187,12 @@ public class Subscriber {
 	 */
 	public void setFullName(String fullName) {
 		this.fullName = fullName;
+
+		// Let the channel record the change
+		Channel owner = channel;
+		if (owner != null) {
+			owner.subscriberChanged(this);
+		}
 	}
 
 	/**
@@ -65,7 +200,7 @@ public class Subscriber {
 	 * @return age of the subscriber
 	 */
 	public int getAge() {
-		return this.age;
+		return (int) (state >> AGE_SHIFT);
 	}
 
 	/**
@@ -73,7 +208,18 @@ public class Subscriber {
 	 * @param age the age to set
 	 */
 	public void setAge(int age) {
-		this.age = age;
+		// Let the channel update its indexes around the change. The channel is read
+		// once, as another thread may remove the subscriber meanwhile
+		Channel owner = channel;
+		if (owner != null) {
+			owner.beforeSubscriberUpdate(this);
+		}
+
+		state = ((long) age << AGE_SHIFT) | (state & HOURS_MASK);
+
+		if (owner != null) {
+			owner.afterSubscriberUpdate(this);
+		}
 	}
 
 	/**
@@ -81,7 +227,7 @@ public class Subscriber {
 	 * @return hours that the subscriber is willing to consume 
 	 */
 	public int getHoursToConsume() {
-		return this.hoursToConsume;
+		return (int) state;
 	}
 
 	/**
@@ -89,7 +235,18 @@ public class Subscriber {
 	 * @param hoursToConsume the hours to consume that will be set
 	 */
 	public void setHoursToConsume(int hoursToConsume) {
-		this.hoursToConsume = hoursToConsume;
+		// Let the channel update its indexes around the change. The channel is read
+		// once, as another thread may remove the subscriber meanwhile
+		Channel owner = channel;
+		if (owner != null) {
+			owner.beforeSubscriberUpdate(this);
+		}
+
+		state = (state & ~HOURS_MASK) | (hoursToConsume & HOURS_MASK);
+
+		if (owner != null) {
+			owner.afterSubscriberUpdate(this);
+		}
 	}
 
 	/**
@@ -97,7 +254,7 @@ public class Subscriber {
 	 * @return activity state of the subscriber (true : active, false : inactive)
 	 */
 	public boolean isActive() {
-		return this.active;
+		return flags < 0;
 	}
 
 	/**
@@ -105,7 +262,18 @@ public class Subscriber {
 	 * @param active a boolean that determines the activity state (true : active, false : inactive)
 	 */
 	public void setActive(boolean active) {
-		this.active = active;
+		// Let the channel update its indexes around the change. The channel is read
+		// once, as another thread may remove the subscriber meanwhile
+		Channel owner = channel;
+		if (owner != null) {
+			owner.beforeSubscriberUpdate(this);
+		}
+
+		flags = active ? flags | ACTIVE_BIT : flags & ~ACTIVE_BIT;
+
+		if (owner != null) {
+			owner.afterSubscriberUpdate(this);
+		}
 	}
 
 	/**
@@ -113,7 +281,7 @@ public class Subscriber {
 	 * @return type of the subscriber
 	 */
 	public SubscriberType getType() {
-		return type;
+		return TYPES[(flags & TYPE_MASK) >>> TYPE_SHIFT];
 	}
 
 	/**
@@ -121,6 +289,15 @@ public class Subscriber {
 	 * @param selection the number that determines the type to set (<code>1</code>: Normal, <code>2</code>: Gold, <code>3</code>: Platinum, <code>4</code>: Diamond)
 	 */
 	public void setType(int selection) {
+		// Let the channel update its indexes around the change. The channel is read
+		// once, as another thread may remove the subscriber meanwhile
+		Channel owner = channel;
+		if (owner != null) {
+			owner.beforeSubscriberUpdate(this);
+		}
+
+		SubscriberType type = null;
+
 		switch (selection) {
 			case 1:
 				type = SubscriberType.NORMAL;
@@ -135,6 +312,14 @@ public class Subscriber {
 				type = SubscriberType.DIAMOND;
 				break;
 		}
+
+		if (type != null) {
+			flags = (flags & ~TYPE_MASK) | (type.ordinal() << TYPE_SHIFT);
+		}
+
+		if (owner != null) {
+			owner.afterSubscriberUpdate(this);
+		}
 	}
 
 	/**
@@ -142,11 +327,18 @@ public class Subscriber {
 	 * @return a string representation of the object
 	 */
 	public String toString() {
-		String info = "";
-		String status = active ? "Active" : "Inactive";
+		StringBuilder info = new StringBuilder("id: ");
+		String status = isActive() ? "Active" : "Inactive";
+
+		// A numeric id is appended as a number, without building its string
+		if ((flags & NUMERIC_BIT) != 0) {
+			info.append(flags & ID_MASK);
+		} else {
+			info.append(id);
+		}
 
-		info = "id: " + id + " | " + status + " | Type: " + type + " | Full name: " + fullName + " | Age: " + age + " | Hours willing to Consume: " + hoursToConsume;
+		info.append(" | ").append(status).append(" | Type: ").append(getType()).append(" | Full name: ").append(fullName).append(" | Age: ").append(getAge()).append(" | Hours willing to Consume: ").append(getHoursToConsume());
 
-		return info;
+		return info.toString();
 	}
 }
\ No newline at end of file
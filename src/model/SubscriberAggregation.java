@@ -0,0 +1,78 @@
+package model;
+
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * Fork/join task that aggregates a range of slots of the subscriber storage.
+ * Ranges larger than a chunk are split in halves that run in parallel, and
+ * every chunk is aggregated in its own statistics, so the workers share no
+ * mutable state until the partial statistics are merged
+ */
+class SubscriberAggregation extends RecursiveTask<SubscriberStatistics> {
+	// Constants
+	private static final long serialVersionUID = 1L;
+
+	// Number of slots that a task aggregates without splitting
+	static final int CHUNK_SIZE = 1 << 15;
+
+	// Attributes
+	private final transient SlotStore<Subscriber> subscribers;
+	private final int from;
+	private final int to;
+
+	/**
+	 * Constructor of the subscriber aggregation class
+	 *
+	 * @param subscribers the storage to aggregate, which must not change while
+	 *                    the task runs
+	 * @param from        the first slot of the range (inclusive)
+	 * @param to          the last slot of the range (exclusive)
+	 */
+	SubscriberAggregation(SlotStore<Subscriber> subscribers, int from, int to) {
+		this.subscribers = subscribers;
+		this.from = from;
+		this.to = to;
+	}
+
+	/**
+	 * Aggregates the range, splitting it if it is larger than a chunk
+	 *
+	 * @return the statistics of the subscribers in the range
+	 */
+	@Override
+	protected SubscriberStatistics compute() {
+		if (to - from <= CHUNK_SIZE) {
+			return aggregate(subscribers, from, to);
+		}
+
+		int middle = (from + to) >>> 1;
+		SubscriberAggregation left = new SubscriberAggregation(subscribers, from, middle);
+		left.fork();
+
+		SubscriberStatistics right = new SubscriberAggregation(subscribers, middle, to).compute();
+
+		return left.join().merge(right);
+	}
+
+	/**
+	 * Aggregates a range of slots in the current thread
+	 *
+	 * @param subscribers the storage to aggregate
+	 * @param from        the first slot of the range (inclusive)
+	 * @param to          the last slot of the range (exclusive)
+	 * @return the statistics of the subscribers in the range
+	 */
+	static SubscriberStatistics aggregate(SlotStore<Subscriber> subscribers, int from, int to) {
+		SubscriberStatistics statistics = new SubscriberStatistics();
+
+		for (int slot = from; slot < to; slot++) {
+			Subscriber subscriber = subscribers.get(slot);
+
+			if (subscriber != null) {
+				statistics.add(subscriber);
+			}
+		}
+
+		return statistics;
+	}
+}
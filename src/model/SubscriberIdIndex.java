@@ -0,0 +1,537 @@
+package model;
+
+import java.util.concurrent.locks.StampedLock;
+
+/**
+ * Index of the subscribers of a channel by their id. The subscribers are kept
+ * in open-addressing tables with linear probing, next to the hash of their id,
+ * so numeric ids are never turned into strings to be looked up and no entry
+ * objects are allocated per subscriber.
+ *
+ * <p>
+ * The index of a concurrent channel is split in segments, each one with its own
+ * table and lock, so changes of subscribers whose ids fall in different
+ * segments do not wait for each other. The segment of an id is locked while a
+ * subscriber with that id is added, removed or renamed, and lookups read it
+ * optimistically without taking its lock
+ */
+class SubscriberIdIndex {
+	// Constants
+	private static final int MIN_CAPACITY = 16;
+	private static final int MAX_CAPACITY = 1 << 30;
+
+	// Number of optimistic reads of a segment that a lookup tries before waiting
+	// for the lock of the segment
+	private static final int OPTIMISTIC_READS = 3;
+
+	// Number of segments of a concurrent index. The segment of an id is selected
+	// by the high bits of its scrambled hash, and the position inside the segment
+	// by the low bits of its hash
+	private static final int CONCURRENT_SEGMENTS = 16;
+	private static final int SEGMENT_SHIFT = 28;
+
+	// Attributes
+	private Segment[] segments;
+
+	/**
+	 * Table of the subscribers whose ids fall in a segment of the index
+	 */
+	private static class Segment {
+		// Attributes
+		private Subscriber[] table;
+		private int[] hashes;
+		private int size;
+
+		// Lock of the segment (null if the index is not concurrent) and stamp of
+		// the write lock while it is held
+		private final StampedLock lock;
+		private long writeStamp;
+
+		/**
+		 * Constructor of the segment class
+		 *
+		 * @param capacity   the length of the table, a power of two
+		 * @param concurrent a boolean that determines if the segment has a lock
+		 */
+		Segment(int capacity, boolean concurrent) {
+			lock = concurrent ? new StampedLock() : null;
+			allocate(capacity);
+		}
+
+		/**
+		 * Looks for a subscriber by its id
+		 *
+		 * @param id   the id to look for
+		 * @param hash the spread hash of the id
+		 * @return the subscriber with the id, or null if there is none
+		 */
+		Subscriber get(String id, int hash) {
+			// The arrays are read once, and the probes are bounded by their length, so
+			// an optimistic read that races with a resize ends and is then discarded
+			Subscriber[] table = this.table;
+			int[] hashes = this.hashes;
+
+			if (hashes.length != table.length) {
+				return null;
+			}
+
+			int mask = table.length - 1;
+			int i = hash & mask;
+
+			for (int probes = 0; probes < table.length; probes++) {
+				Subscriber subscriber = table[i];
+
+				if (subscriber == null) {
+					return null;
+				}
+
+				if (hashes[i] == hash && subscriber.hasId(id)) {
+					return subscriber;
+				}
+
+				i = (i + 1) & mask;
+			}
+
+			return null;
+		}
+
+		/**
+		 * Returns if the segment can index one more subscriber
+		 *
+		 * @return false if the table cannot grow and is three quarters full
+		 */
+		boolean hasRoom() {
+			return table.length < MAX_CAPACITY || size < MAX_CAPACITY - (MAX_CAPACITY >>> 2);
+		}
+
+		/**
+		 * Indexes a subscriber unless another one already has its id
+		 *
+		 * <p>
+		 * <b>Precondition: </b> The segment has room for the subscriber
+		 *
+		 * @param subscriber the subscriber to index
+		 * @param hash       the spread hash of its id
+		 * @return the subscriber that already had the id, or null if the
+		 *         subscriber was indexed
+		 */
+		Subscriber putIfAbsent(Subscriber subscriber, int hash) {
+			int mask = table.length - 1;
+			int i = hash & mask;
+
+			for (; table[i] != null; i = (i + 1) & mask) {
+				if (hashes[i] == hash && table[i].hasSameId(subscriber)) {
+					return table[i];
+				}
+			}
+
+			table[i] = subscriber;
+			hashes[i] = hash;
+
+			// Keep the table at most three quarters full while it can grow
+			if (++size > table.length - (table.length >>> 2) && table.length < MAX_CAPACITY) {
+				resize(table.length * 2);
+			}
+
+			return null;
+		}
+
+		/**
+		 * Removes a subscriber from the segment
+		 *
+		 * @param subscriber the subscriber to remove
+		 * @param hash       the spread hash of its current id
+		 * @return a boolean indicating if the subscriber was in the segment
+		 */
+		boolean remove(Subscriber subscriber, int hash) {
+			int mask = table.length - 1;
+			int i = hash & mask;
+
+			while (table[i] != subscriber) {
+				if (table[i] == null) {
+					return false;
+				}
+				i = (i + 1) & mask;
+			}
+
+			// Move back the following entries of the run that would no longer be
+			// reachable from their home position
+			int gap = i;
+			for (int j = (gap + 1) & mask; table[j] != null; j = (j + 1) & mask) {
+				int home = hashes[j] & mask;
+
+				if (((j - home) & mask) >= ((j - gap) & mask)) {
+					table[gap] = table[j];
+					hashes[gap] = hashes[j];
+					gap = j;
+				}
+			}
+
+			table[gap] = null;
+			size--;
+
+			return true;
+		}
+
+		/**
+		 * Replaces the table with an empty one
+		 *
+		 * @param capacity the length of the new table
+		 */
+		private void allocate(int capacity) {
+			table = new Subscriber[capacity];
+			hashes = new int[capacity];
+		}
+
+		/**
+		 * Moves every subscriber to a table of a new length
+		 *
+		 * @param capacity the length of the new table
+		 */
+		void resize(int capacity) {
+			Subscriber[] oldTable = table;
+			int[] oldHashes = hashes;
+			allocate(capacity);
+
+			int mask = capacity - 1;
+			for (int i = 0; i < oldTable.length; i++) {
+				if (oldTable[i] != null) {
+					int j = oldHashes[i] & mask;
+					while (table[j] != null) {
+						j = (j + 1) & mask;
+					}
+
+					table[j] = oldTable[i];
+					hashes[j] = oldHashes[i];
+				}
+			}
+		}
+
+		/**
+		 * Takes the write lock of the segment, if it has one
+		 */
+		void lock() {
+			if (lock != null) {
+				writeStamp = lock.writeLock();
+			}
+		}
+
+		/**
+		 * Releases the write lock of the segment, if it has one
+		 */
+		void unlock() {
+			if (lock != null) {
+				lock.unlockWrite(writeStamp);
+			}
+		}
+	}
+
+	/**
+	 * Constructor of the subscriber id index class
+	 *
+	 * @param expectedSize number of subscribers that can be indexed before the
+	 *                     first growth
+	 * @param concurrent   a boolean that determines if the index is split in
+	 *                     segments with their own locks
+	 */
+	SubscriberIdIndex(int expectedSize, boolean concurrent) {
+		segments = new Segment[concurrent ? CONCURRENT_SEGMENTS : 1];
+
+		int capacity = capacityFor(expectedSize / segments.length);
+		for (int i = 0; i < segments.length; i++) {
+			segments[i] = new Segment(capacity, concurrent);
+		}
+	}
+
+	/**
+	 * Returns the number of indexed subscribers
+	 *
+	 * @return the number of subscribers in the index
+	 */
+	int size() {
+		int size = 0;
+
+		for (Segment segment : segments) {
+			size += segment.size;
+		}
+
+		return size;
+	}
+
+	/**
+	 * Looks for a subscriber by its id. In a concurrent index, the segment of the
+	 * id is read without its lock and the read is validated afterwards. Only a
+	 * lookup that keeps racing with changes of the same segment waits for its
+	 * read lock
+	 *
+	 * @param id the id to look for
+	 * @return the subscriber with the id, or null if there is none
+	 */
+	Subscriber get(String id) {
+		int hash = hash(id);
+		Segment segment = segmentFor(hash);
+
+		if (segment.lock == null) {
+			return segment.get(id, hash);
+		}
+
+		for (int i = 0; i < OPTIMISTIC_READS; i++) {
+			long stamp = segment.lock.tryOptimisticRead();
+
+			if (stamp != 0) {
+				Subscriber subscriber = segment.get(id, hash);
+
+				if (segment.lock.validate(stamp)) {
+					return subscriber;
+				}
+			}
+		}
+
+		long stamp = segment.lock.readLock();
+		try {
+			return segment.get(id, hash);
+		} finally {
+			segment.lock.unlockRead(stamp);
+		}
+	}
+
+	/**
+	 * Looks for a subscriber by its id while the lock of the id is held
+	 *
+	 * <p>
+	 * <b>Precondition: </b> The lock of the id is held (in a concurrent index)
+	 *
+	 * @param id the id to look for
+	 * @return the subscriber with the id, or null if there is none
+	 */
+	Subscriber lookup(String id) {
+		int hash = hash(id);
+
+		return segmentFor(hash).get(id, hash);
+	}
+
+	/**
+	 * Returns if the segment of an id can index one more subscriber
+	 *
+	 * <p>
+	 * <b>Precondition: </b> The lock of the id is held (in a concurrent index)
+	 *
+	 * @param hash the hash of the id
+	 * @return false if the table of the segment is as large and as full as it
+	 *         can be
+	 */
+	boolean hasRoom(int hash) {
+		return segmentFor(hash).hasRoom();
+	}
+
+	/**
+	 * Returns if the segment of an id can index one more subscriber once a
+	 * subscriber leaves the segment of another id
+	 *
+	 * <p>
+	 * <b>Precondition: </b> The locks of both ids are held (in a concurrent index)
+	 *
+	 * @param hash        the hash of the id to index
+	 * @param leavingHash the hash of the id that is removed
+	 * @return false if the segment of the id would remain without room
+	 */
+	boolean hasRoom(int hash, int leavingHash) {
+		Segment segment = segmentFor(hash);
+
+		return segment == segmentFor(leavingHash) || segment.hasRoom();
+	}
+
+	/**
+	 * Indexes a subscriber unless another one already has its id
+	 *
+	 * <p>
+	 * <b>Precondition: </b> The lock of the id of the subscriber is held (in a
+	 * concurrent index), and hasRoom is true for it
+	 *
+	 * @param subscriber the subscriber to index
+	 * @return the subscriber that already had the id, or null if the subscriber
+	 *         was indexed
+	 */
+	Subscriber putIfAbsent(Subscriber subscriber) {
+		int hash = hash(subscriber);
+
+		return segmentFor(hash).putIfAbsent(subscriber, hash);
+	}
+
+	/**
+	 * Removes the subscriber with an id from the index
+	 *
+	 * <p>
+	 * <b>Precondition: </b> The lock of the id is held (in a concurrent index)
+	 *
+	 * @param id the id of the subscriber to remove
+	 * @return the removed subscriber, or null if no subscriber has the id
+	 */
+	Subscriber remove(String id) {
+		int hash = hash(id);
+		Segment segment = segmentFor(hash);
+		Subscriber subscriber = segment.get(id, hash);
+
+		if (subscriber != null) {
+			segment.remove(subscriber, hash);
+		}
+
+		return subscriber;
+	}
+
+	/**
+	 * Removes a subscriber from the index
+	 *
+	 * <p>
+	 * <b>Precondition: </b> The lock of the id of the subscriber is held (in a
+	 * concurrent index)
+	 *
+	 * @param subscriber the subscriber to remove, indexed by its current id
+	 * @return a boolean indicating if the subscriber was in the index
+	 */
+	boolean remove(Subscriber subscriber) {
+		int hash = hash(subscriber);
+
+		return segmentFor(hash).remove(subscriber, hash);
+	}
+
+	/**
+	 * Takes the lock of the segment of an id. It does nothing in an index that is
+	 * not concurrent. The lock is not reentrant
+	 *
+	 * @param hash the hash of the id, returned by one of the hash methods
+	 */
+	void lock(int hash) {
+		segmentFor(hash).lock();
+	}
+
+	/**
+	 * Releases the lock taken by lock
+	 *
+	 * @param hash the hash of the id
+	 */
+	void unlock(int hash) {
+		segmentFor(hash).unlock();
+	}
+
+	/**
+	 * Takes the locks of the segments of two ids, in the order of the segments so
+	 * that two threads never wait for each other. The lock of a segment is only
+	 * taken once when both ids fall in it
+	 *
+	 * @param hash      the hash of an id
+	 * @param otherHash the hash of the other id
+	 */
+	void lock(int hash, int otherHash) {
+		int first = segmentIndex(hash);
+		int second = segmentIndex(otherHash);
+
+		segments[Math.min(first, second)].lock();
+		if (first != second) {
+			segments[Math.max(first, second)].lock();
+		}
+	}
+
+	/**
+	 * Releases the locks taken by lock(int, int)
+	 *
+	 * @param hash      the hash of an id
+	 * @param otherHash the hash of the other id
+	 */
+	void unlock(int hash, int otherHash) {
+		int first = segmentIndex(hash);
+		int second = segmentIndex(otherHash);
+
+		if (first != second) {
+			segments[Math.max(first, second)].unlock();
+		}
+		segments[Math.min(first, second)].unlock();
+	}
+
+	/**
+	 * Grows the tables so that they can hold a number of subscribers without
+	 * growing again, as long as the ids are spread evenly among the segments
+	 *
+	 * @param expectedSize the number of subscribers that will be indexed
+	 */
+	void ensureCapacity(int expectedSize) {
+		int capacity = capacityFor(expectedSize / segments.length);
+
+		for (Segment segment : segments) {
+			segment.lock();
+			try {
+				if (capacity > segment.table.length) {
+					segment.resize(capacity);
+				}
+			} finally {
+				segment.unlock();
+			}
+		}
+	}
+
+	/**
+	 * Returns the hash of an id
+	 *
+	 * @param id the id, which may be null
+	 * @return the spread hash code of the id
+	 */
+	static int hash(String id) {
+		return spread(id == null ? 0 : id.hashCode());
+	}
+
+	/**
+	 * Returns the hash of the current id of a subscriber
+	 *
+	 * @param subscriber the subscriber
+	 * @return the spread hash code of its id
+	 */
+	static int hash(Subscriber subscriber) {
+		return spread(subscriber.idHash());
+	}
+
+	/**
+	 * Returns the table length needed for a number of subscribers
+	 *
+	 * @param expectedSize the number of subscribers
+	 * @return a power of two in which the subscribers fill at most three
+	 *         quarters of the table
+	 */
+	private static int capacityFor(int expectedSize) {
+		long needed = Math.max(MIN_CAPACITY, (long) expectedSize * 4 / 3 + 1);
+
+		return (int) Math.min(Long.highestOneBit(needed - 1) << 1, MAX_CAPACITY);
+	}
+
+	/**
+	 * Mixes the high bits of a hash into the low ones, which select the position
+	 * in the table
+	 *
+	 * @param hash the hash of an id
+	 * @return the spread hash
+	 */
+	private static int spread(int hash) {
+		return hash ^ (hash >>> 16);
+	}
+
+	/**
+	 * Returns the position of the segment of a hash. The hash is scrambled first,
+	 * so ids with small hashes (e.g. short numeric ids) are spread among every
+	 * segment too
+	 *
+	 * @param hash the spread hash of an id
+	 * @return the position of its segment
+	 */
+	private int segmentIndex(int hash) {
+		return ((hash * 0x9E3779B9) >>> SEGMENT_SHIFT) & (segments.length - 1);
+	}
+
+	/**
+	 * Returns the segment of a hash
+	 *
+	 * @param hash the spread hash of an id
+	 * @return the segment in which the id is indexed
+	 */
+	private Segment segmentFor(int hash) {
+		return segments[segmentIndex(hash)];
+	}
+}
@@ -0,0 +1,114 @@
+package model;
+
+import java.util.Arrays;
+
+/**
+ * Result of a batch import of subscribers, with the status of every record in
+ * the order in which the records were given
+ */
+public class SubscriberImportResult {
+	// Constants
+	private static final OperationResult[] STATUSES = OperationResult.values();
+
+	// Attributes
+	private byte[] statuses;
+	private int size;
+	private int addedCount;
+
+	/**
+	 * Constructor of the subscriber import result class
+	 *
+	 * @param expectedRecords number of records expected in the batch, used to size
+	 *                        the status array
+	 */
+	SubscriberImportResult(int expectedRecords) {
+		statuses = new byte[Math.max(expectedRecords, 16)];
+	}
+
+	/**
+	 * Saves the status of the next record
+	 *
+	 * @param status the status of the record
+	 */
+	void record(OperationResult status) {
+		if (size == statuses.length) {
+			statuses = Arrays.copyOf(statuses, size * 2);
+		}
+
+		statuses[size++] = (byte) status.ordinal();
+
+		if (status.isSuccess()) {
+			addedCount++;
+		}
+	}
+
+	/**
+	 * Returns the number of records
+	 *
+	 * @return the number of records of the batch
+	 */
+	public int size() {
+		return size;
+	}
+
+	/**
+	 * Returns the number of added records
+	 *
+	 * @return the number of records that were added as subscribers
+	 */
+	public int getAddedCount() {
+		return addedCount;
+	}
+
+	/**
+	 * Returns the number of rejected records
+	 *
+	 * @return the number of records that were not added
+	 */
+	public int getRejectedCount() {
+		return size - addedCount;
+	}
+
+	/**
+	 * Returns the status of a record
+	 *
+	 * @param index the position of the record in the batch
+	 * @return the status of the record (SUBSCRIBER_ADDED, DUPLICATE_SUBSCRIBER_ID,
+	 *         INVALID_SUBSCRIBER or NO_ROOM_FOR_SUBSCRIBERS)
+	 */
+	public OperationResult getStatus(int index) {
+		if (index < 0 || index >= size) {
+			throw new IndexOutOfBoundsException("Record " + index + " is not in the batch");
+		}
+
+		return STATUSES[statuses[index]];
+	}
+
+	/**
+	 * Returns the positions of the rejected records
+	 *
+	 * @return an array with the positions of the records that were not added
+	 */
+	public int[] getRejectedIndexes() {
+		int[] rejected = new int[getRejectedCount()];
+		int next = 0;
+
+		for (int i = 0; i < size && next < rejected.length; i++) {
+			if (!STATUSES[statuses[i]].isSuccess()) {
+				rejected[next++] = i;
+			}
+		}
+
+		return rejected;
+	}
+
+	/**
+	 * Synthesizes the information of the result in a String
+	 *
+	 * @return a string representation of the object
+	 */
+	@Override
+	public String toString() {
+		return "Imported records: " + size + " | Added: " + addedCount + " | Rejected: " + getRejectedCount();
+	}
+}
@@ -0,0 +1,532 @@
+package model;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.PriorityQueue;
+import java.util.function.Predicate;
+
+/**
+ * Query over the subscribers of a channel. The conditions are combined with
+ * AND, and every condition returns a new query, so a query can be reused as the
+ * base of others:
+ *
+ * <pre>
+ * channel.subscribers().ageBetween(0, 17).ofType(SubscriberType.GOLD).topByHours(10)
+ * </pre>
+ *
+ * When the results are requested, the query is planned against the indexes of
+ * the channel: a query by id is a single lookup, a narrow age band only visits
+ * the subscribers of its ages, and a count of active subscribers by type reads
+ * the counters. Any other query is a single scan of the storage that checks
+ * every condition on each subscriber
+ */
+public class SubscriberQuery implements Iterable<Subscriber> {
+	// Constants
+	// An age band is read from the age index when it holds at most this fraction
+	// of the subscribers (1 / AGE_INDEX_MAX_FRACTION). Larger bands are cheaper
+	// to scan in slot order
+	private static final int AGE_INDEX_MAX_FRACTION = 4;
+
+	/**
+	 * Ways in which a query can be run
+	 */
+	public enum Plan {
+		ID_LOOKUP, AGE_INDEX, ACTIVE_COUNTERS, SCAN
+	}
+
+	// Attributes
+	private String id;
+	private boolean byId;
+	private int minAge = Integer.MIN_VALUE;
+	private int maxAge = Integer.MAX_VALUE;
+	private int minHours = Integer.MIN_VALUE;
+	private int maxHours = Integer.MAX_VALUE;
+	private SubscriberType type;
+	private Boolean active;
+	private Predicate<? super Subscriber> predicate;
+
+	// True when two conditions contradict each other, so no subscriber matches
+	private boolean empty;
+
+	// Relation
+	private Channel channel;
+
+	/**
+	 * Constructor of the subscriber query class, matching every subscriber of a
+	 * channel
+	 *
+	 * @param channel the channel whose subscribers are queried
+	 */
+	SubscriberQuery(Channel channel) {
+		this.channel = channel;
+	}
+
+	/**
+	 * Returns a copy of the query, to which a condition is added
+	 *
+	 * @return the copy
+	 */
+	private SubscriberQuery copy() {
+		SubscriberQuery copy = new SubscriberQuery(channel);
+
+		copy.id = id;
+		copy.byId = byId;
+		copy.minAge = minAge;
+		copy.maxAge = maxAge;
+		copy.minHours = minHours;
+		copy.maxHours = maxHours;
+		copy.type = type;
+		copy.active = active;
+		copy.predicate = predicate;
+		copy.empty = empty;
+
+		return copy;
+	}
+
+	/**
+	 * Keeps the subscriber with an id
+	 *
+	 * @param id the id of the subscriber
+	 * @return a query with the condition added
+	 */
+	public SubscriberQuery withId(String id) {
+		SubscriberQuery query = copy();
+
+		// Two different ids leave no subscriber
+		if (query.byId && (query.id == null ? id != null : !query.id.equals(id))) {
+			query.empty = true;
+		}
+
+		query.id = id;
+		query.byId = true;
+
+		return query;
+	}
+
+	/**
+	 * Keeps the subscribers inside an age band
+	 *
+	 * @param minAge the minimum age (inclusive)
+	 * @param maxAge the maximum age (inclusive)
+	 * @return a query with the condition added
+	 */
+	public SubscriberQuery ageBetween(int minAge, int maxAge) {
+		SubscriberQuery query = copy();
+
+		query.minAge = Math.max(query.minAge, minAge);
+		query.maxAge = Math.min(query.maxAge, maxAge);
+
+		return query;
+	}
+
+	/**
+	 * Keeps the under-aged subscribers
+	 *
+	 * @return a query with the condition added
+	 */
+	public SubscriberQuery minors() {
+		return ageBetween(Integer.MIN_VALUE, Channel.ADULT_AGE - 1);
+	}
+
+	/**
+	 * Keeps the subscribers whose hours to consume are inside a range
+	 *
+	 * @param minHours the minimum hours (inclusive)
+	 * @param maxHours the maximum hours (inclusive)
+	 * @return a query with the condition added
+	 */
+	public SubscriberQuery hoursBetween(int minHours, int maxHours) {
+		SubscriberQuery query = copy();
+
+		query.minHours = Math.max(query.minHours, minHours);
+		query.maxHours = Math.min(query.maxHours, maxHours);
+
+		return query;
+	}
+
+	/**
+	 * Keeps the subscribers of a type
+	 *
+	 * @param type the type of the subscribers
+	 * @return a query with the condition added
+	 */
+	public SubscriberQuery ofType(SubscriberType type) {
+		SubscriberQuery query = copy();
+
+		// Two different types leave no subscriber
+		if (query.type != null && query.type != type) {
+			query.empty = true;
+		}
+
+		query.type = type;
+
+		return query;
+	}
+
+	/**
+	 * Keeps the subscribers with an activity state
+	 *
+	 * @param active the activity state (true : active, false : inactive)
+	 * @return a query with the condition added
+	 */
+	public SubscriberQuery active(boolean active) {
+		SubscriberQuery query = copy();
+
+		// Both states leave no subscriber
+		if (query.active != null && query.active != active) {
+			query.empty = true;
+		}
+
+		query.active = active;
+
+		return query;
+	}
+
+	/**
+	 * Keeps the subscribers that satisfy a condition. The condition cannot use
+	 * the indexes, so it is checked on the subscribers selected by the other
+	 * conditions. In a concurrent channel, it is checked under the subscriber
+	 * locks, so it must not change the subscribers
+	 *
+	 * @param condition the condition to check
+	 * @return a query with the condition added
+	 */
+	public SubscriberQuery where(Predicate<? super Subscriber> condition) {
+		SubscriberQuery query = copy();
+
+		if (predicate == null) {
+			query.predicate = condition;
+		} else {
+			Predicate<? super Subscriber> previous = predicate;
+			query.predicate = subscriber -> previous.test(subscriber) && condition.test(subscriber);
+		}
+
+		return query;
+	}
+
+	/**
+	 * Returns the plan with which the subscribers of the query are visited
+	 *
+	 * @return ID_LOOKUP for a query by id, AGE_INDEX for an age band that holds
+	 *         few subscribers, or SCAN
+	 */
+	public Plan getPlan() {
+		channel.lockSubscribers();
+		try {
+			return plan();
+		} finally {
+			channel.unlockSubscribers();
+		}
+	}
+
+	/**
+	 * Returns the subscribers of the query. The order depends on the plan: slot
+	 * order for a scan, and by age and then hours for the age index. In a
+	 * concurrent channel, the subscribers are collected under the subscriber locks
+	 * when the iteration starts; otherwise they are found lazily as the iterator
+	 * advances, and the subscribers must not change meanwhile
+	 *
+	 * @return an iterator over the subscribers of the query
+	 */
+	@Override
+	public Iterator<Subscriber> iterator() {
+		if (channel.isConcurrent()) {
+			return toList().iterator();
+		}
+
+		return filter(source(plan(), findById()));
+	}
+
+	/**
+	 * Returns the subscribers of the query in a list
+	 *
+	 * @return the subscribers, in the order of the iterator
+	 */
+	public List<Subscriber> toList() {
+		List<Subscriber> result = new ArrayList<>();
+		Subscriber found = findById();
+
+		channel.lockSubscribers();
+		try {
+			Iterator<Subscriber> matches = filter(source(plan(), found));
+			while (matches.hasNext()) {
+				result.add(matches.next());
+			}
+		} finally {
+			channel.unlockSubscribers();
+		}
+
+		return result;
+	}
+
+	/**
+	 * Returns the first subscriber of the query
+	 *
+	 * @return the first subscriber in the order of the iterator, or null if
+	 *         there is none
+	 */
+	public Subscriber first() {
+		Subscriber found = findById();
+
+		channel.lockSubscribers();
+		try {
+			Iterator<Subscriber> matches = filter(source(plan(), found));
+
+			return matches.hasNext() ? matches.next() : null;
+		} finally {
+			channel.unlockSubscribers();
+		}
+	}
+
+	/**
+	 * Counts the subscribers of the query. A count of active subscribers, by type
+	 * or in total, is read from the counters of the channel
+	 *
+	 * @return the number of subscribers of the query
+	 */
+	public int count() {
+		Subscriber found = findById();
+
+		channel.lockSubscribers();
+		try {
+			if (countsActiveSubscribers()) {
+				return channel.countActiveSubscribers(type);
+			}
+
+			int count = 0;
+			Iterator<Subscriber> matches = filter(source(plan(), found));
+			while (matches.hasNext()) {
+				matches.next();
+				count++;
+			}
+
+			return count;
+		} finally {
+			channel.unlockSubscribers();
+		}
+	}
+
+	/**
+	 * Returns the plan with which count() would run
+	 *
+	 * @return ACTIVE_COUNTERS if the count is read from the counters, or the plan
+	 *         of the query
+	 */
+	public Plan getCountPlan() {
+		return countsActiveSubscribers() ? Plan.ACTIVE_COUNTERS : getPlan();
+	}
+
+	/**
+	 * Returns the subscribers of the query with the most hours to consume. They
+	 * are read in order from the age index, so the search stops as soon as k
+	 * subscribers match
+	 *
+	 * @param k the maximum number of subscribers to return
+	 * @return up to k subscribers, from the most to the least hours willing to
+	 *         consume (by slot when the hours are the same)
+	 */
+	public List<Subscriber> topByHours(int k) {
+		Subscriber found = findById();
+
+		channel.lockSubscribers();
+		try {
+			if (empty || byId) {
+				return limit(filter(source(Plan.ID_LOOKUP, found)), k);
+			}
+
+			return limit(filter(channel.getSubscriberRanking().byHours(minAge, maxAge)), k);
+		} finally {
+			channel.unlockSubscribers();
+		}
+	}
+
+	/**
+	 * Returns the first subscribers of the query in an order
+	 *
+	 * @param order the order of the subscribers
+	 * @param k     the maximum number of subscribers to return
+	 * @return up to k subscribers, sorted by the order
+	 */
+	public List<Subscriber> topBy(Comparator<? super Subscriber> order, int k) {
+		if (k <= 0) {
+			return new ArrayList<>();
+		}
+
+		// Keep the best k subscribers in a heap whose head is the worst of them
+		PriorityQueue<Subscriber> best = new PriorityQueue<>(Math.min(k, 64) + 1, order.reversed());
+		Subscriber found = findById();
+
+		channel.lockSubscribers();
+		try {
+			Iterator<Subscriber> matches = filter(source(plan(), found));
+
+			while (matches.hasNext()) {
+				Subscriber subscriber = matches.next();
+
+				if (best.size() < k) {
+					best.add(subscriber);
+				} else if (order.compare(subscriber, best.peek()) < 0) {
+					best.poll();
+					best.add(subscriber);
+				}
+			}
+		} finally {
+			channel.unlockSubscribers();
+		}
+
+		List<Subscriber> result = new ArrayList<>(best);
+		result.sort(order);
+
+		return result;
+	}
+
+	/**
+	 * Chooses the plan of the query
+	 *
+	 * @return the plan
+	 */
+	private Plan plan() {
+		if (byId) {
+			return Plan.ID_LOOKUP;
+		}
+
+		if (minAge != Integer.MIN_VALUE || maxAge != Integer.MAX_VALUE) {
+			int total = channel.getSubscriberStore().size();
+
+			if (channel.getSubscriberRanking().count(minAge, maxAge) <= total / AGE_INDEX_MAX_FRACTION) {
+				return Plan.AGE_INDEX;
+			}
+		}
+
+		return Plan.SCAN;
+	}
+
+	/**
+	 * Returns if count() can be read from the counters of active subscribers
+	 *
+	 * @return a true or false value
+	 */
+	private boolean countsActiveSubscribers() {
+		return Boolean.TRUE.equals(active) && !empty && !byId && predicate == null && minAge == Integer.MIN_VALUE
+				&& maxAge == Integer.MAX_VALUE && minHours == Integer.MIN_VALUE && maxHours == Integer.MAX_VALUE;
+	}
+
+	/**
+	 * Looks up the subscriber of a query by id. The lookup is done before the
+	 * subscriber locks are taken, as the index locks its segments before them
+	 *
+	 * @return the subscriber with the id of the query, or null if there is none
+	 *         or the query is not by id
+	 */
+	private Subscriber findById() {
+		return byId && !empty ? channel.searchSubscriber(id) : null;
+	}
+
+	/**
+	 * Returns the subscribers that a plan visits
+	 *
+	 * @param plan  the plan of the query
+	 * @param found the subscriber found by findById
+	 * @return an iterator over the candidates, which are then checked against
+	 *         every condition
+	 */
+	private Iterator<Subscriber> source(Plan plan, Subscriber found) {
+		if (empty) {
+			return Collections.emptyIterator();
+		}
+
+		switch (plan) {
+		case ID_LOOKUP:
+			return found == null ? Collections.<Subscriber>emptyIterator()
+					: Collections.singletonList(found).iterator();
+		case AGE_INDEX:
+			return channel.getSubscriberRanking().byAge(minAge, maxAge);
+		default:
+			return channel.getSubscriberStore().iterator();
+		}
+	}
+
+	/**
+	 * Keeps the candidates that satisfy every condition of the query
+	 *
+	 * @param candidates the subscribers to check
+	 * @return a lazy iterator over the candidates that match
+	 */
+	private Iterator<Subscriber> filter(Iterator<Subscriber> candidates) {
+		return new Iterator<Subscriber>() {
+			private Subscriber next = advance();
+
+			@Override
+			public boolean hasNext() {
+				return next != null;
+			}
+
+			@Override
+			public Subscriber next() {
+				if (next == null) {
+					throw new NoSuchElementException();
+				}
+
+				Subscriber current = next;
+				next = advance();
+
+				return current;
+			}
+
+			/**
+			 * Finds the next candidate that matches
+			 *
+			 * @return the candidate, or null if there is none
+			 */
+			private Subscriber advance() {
+				while (candidates.hasNext()) {
+					Subscriber candidate = candidates.next();
+
+					if (matches(candidate)) {
+						return candidate;
+					}
+				}
+
+				return null;
+			}
+		};
+	}
+
+	/**
+	 * Checks every condition of the query on a subscriber
+	 *
+	 * @param subscriber the subscriber to check
+	 * @return a boolean indicating if the subscriber matches
+	 */
+	private boolean matches(Subscriber subscriber) {
+		int age = subscriber.getAge();
+		int hours = subscriber.getHoursToConsume();
+
+		return age >= minAge && age <= maxAge && hours >= minHours && hours <= maxHours
+				&& (type == null || subscriber.getType() == type)
+				&& (active == null || subscriber.isActive() == active)
+				&& (!byId || subscriber.hasId(id))
+				&& (predicate == null || predicate.test(subscriber));
+	}
+
+	/**
+	 * Takes the first subscribers of an iterator
+	 *
+	 * @param subscribers the subscribers to take
+	 * @param k           the maximum number of subscribers to take
+	 * @return up to k subscribers, in the order of the iterator
+	 */
+	private static List<Subscriber> limit(Iterator<Subscriber> subscribers, int k) {
+		List<Subscriber> result = new ArrayList<>(Math.max(0, Math.min(k, 64)));
+
+		while (result.size() < k && subscribers.hasNext()) {
+			result.add(subscribers.next());
+		}
+
+		return result;
+	}
+}
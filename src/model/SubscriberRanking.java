@@ -0,0 +1,412 @@
+package model;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NavigableMap;
+import java.util.NoSuchElementException;
+import java.util.PriorityQueue;
+import java.util.TreeMap;
+
+/**
+ * Ordered index of subscribers grouped by age. Inside each age, subscribers are
+ * sorted from the most to the least hours willing to consume, and by slot when
+ * the hours are the same. The subscribers are kept in one sorted array, with a
+ * counter per age. Changes are only collected, and the array is rebuilt when it
+ * is read after them, so a subscriber costs a reference instead of a tree node
+ */
+class SubscriberRanking {
+	// Constants
+	static final Comparator<Subscriber> MOST_HOURS_FIRST = new Comparator<Subscriber>() {
+		@Override
+		public int compare(Subscriber a, Subscriber b) {
+			int byHours = Integer.compare(b.getHoursToConsume(), a.getHoursToConsume());
+			return byHours != 0 ? byHours : Integer.compare(a.slot, b.slot);
+		}
+	};
+
+	// Order of the sorted array: by age, then by hours
+	private static final Comparator<Subscriber> BY_AGE_THEN_HOURS = new Comparator<Subscriber>() {
+		@Override
+		public int compare(Subscriber a, Subscriber b) {
+			int byAge = Integer.compare(a.getAge(), b.getAge());
+			return byAge != 0 ? byAge : MOST_HOURS_FIRST.compare(a, b);
+		}
+	};
+
+	private static final int INITIAL_CAPACITY = 16;
+
+	// Attributes
+	// Number of subscribers of each age, always up to date
+	private TreeMap<Integer, int[]> countsByAge;
+
+	// Subscribers sorted by age and hours when the ranking was last rebuilt
+	private Subscriber[] sorted;
+	private int sortedCount;
+
+	// Changes since the last rebuild: the added subscribers in order, and the
+	// number of times each subscriber was removed
+	private Subscriber[] added;
+	private int addedCount;
+	private IdentityHashMap<Subscriber, int[]> removed;
+	private volatile boolean changed;
+
+	/**
+	 * Constructor of the subscriber ranking class
+	 */
+	SubscriberRanking() {
+		countsByAge = new TreeMap<>();
+		sorted = new Subscriber[0];
+		added = new Subscriber[INITIAL_CAPACITY];
+		removed = new IdentityHashMap<>();
+	}
+
+	/**
+	 * Adds a subscriber to the ranking
+	 *
+	 * @param subscriber the subscriber to add. Its age and hours must not change
+	 *                   while it is in the ranking, and its slot may only change
+	 *                   keeping the order of the slots
+	 */
+	void add(Subscriber subscriber) {
+		int[] count = countsByAge.get(subscriber.getAge());
+
+		if (count == null) {
+			countsByAge.put(subscriber.getAge(), new int[] { 1 });
+		} else {
+			count[0]++;
+		}
+
+		if (addedCount == added.length) {
+			added = Arrays.copyOf(added, added.length * 2);
+		}
+
+		added[addedCount++] = subscriber;
+		changed = true;
+	}
+
+	/**
+	 * Removes a subscriber from the ranking
+	 *
+	 * @param subscriber the subscriber to remove, which must be in the ranking
+	 */
+	void remove(Subscriber subscriber) {
+		int[] count = countsByAge.get(subscriber.getAge());
+
+		if (count == null) {
+			return;
+		}
+
+		// Drop empty ages so that band queries only visit ages with subscribers
+		if (--count[0] == 0) {
+			countsByAge.remove(subscriber.getAge());
+		}
+
+		// The entry of the subscriber is dropped when the array is rebuilt
+		int[] times = removed.get(subscriber);
+		if (times == null) {
+			removed.put(subscriber, new int[] { 1 });
+		} else {
+			times[0]++;
+		}
+
+		changed = true;
+	}
+
+	/**
+	 * Returns the subscriber with the most hours to consume inside an age band
+	 *
+	 * @param minAge the minimum age of the band (inclusive)
+	 * @param maxAge the maximum age of the band (inclusive)
+	 * @return the first subscriber of the band, or null if the band is empty
+	 */
+	Subscriber first(int minAge, int maxAge) {
+		Subscriber[] ranked = rebuild();
+		Subscriber best = null;
+		int start = start(ranked, minAge);
+
+		// The first subscriber of each age is its best one, so only those are compared
+		for (int[] count : band(minAge, maxAge).values()) {
+			Subscriber candidate = ranked[start];
+
+			if (best == null || MOST_HOURS_FIRST.compare(candidate, best) < 0) {
+				best = candidate;
+			}
+
+			start += count[0];
+		}
+
+		return best;
+	}
+
+	/**
+	 * Returns the subscribers with the most hours to consume inside an age band
+	 *
+	 * @param minAge the minimum age of the band (inclusive)
+	 * @param maxAge the maximum age of the band (inclusive)
+	 * @param k      the maximum number of subscribers to return
+	 * @return up to k subscribers, from the most to the least hours
+	 */
+	List<Subscriber> top(int minAge, int maxAge, int k) {
+		List<Subscriber> result = new ArrayList<>(Math.max(0, Math.min(k, 64)));
+		Iterator<Subscriber> byHours = byHours(minAge, maxAge);
+
+		while (result.size() < k && byHours.hasNext()) {
+			result.add(byHours.next());
+		}
+
+		return result;
+	}
+
+	/**
+	 * Returns the number of subscribers inside an age band. Only the counters of
+	 * the ages of the band are read, so the ranking is not rebuilt
+	 *
+	 * @param minAge the minimum age of the band (inclusive)
+	 * @param maxAge the maximum age of the band (inclusive)
+	 * @return the number of subscribers of the band
+	 */
+	int count(int minAge, int maxAge) {
+		int count = 0;
+
+		for (int[] ageCount : band(minAge, maxAge).values()) {
+			count += ageCount[0];
+		}
+
+		return count;
+	}
+
+	/**
+	 * Returns the subscribers of an age band, from the youngest to the oldest age
+	 * and by hours inside each age
+	 *
+	 * @param minAge the minimum age of the band (inclusive)
+	 * @param maxAge the maximum age of the band (inclusive)
+	 * @return a lazy iterator over the subscribers of the band
+	 */
+	Iterator<Subscriber> byAge(int minAge, int maxAge) {
+		Subscriber[] ranked = rebuild();
+		int start = start(ranked, minAge);
+		int end = start + count(minAge, maxAge);
+
+		return new Iterator<Subscriber>() {
+			private int position = start;
+
+			@Override
+			public boolean hasNext() {
+				return position < end;
+			}
+
+			@Override
+			public Subscriber next() {
+				if (!hasNext()) {
+					throw new NoSuchElementException();
+				}
+
+				return ranked[position++];
+			}
+		};
+	}
+
+	/**
+	 * Returns the subscribers of an age band from the most to the least hours to
+	 * consume
+	 *
+	 * @param minAge the minimum age of the band (inclusive)
+	 * @param maxAge the maximum age of the band (inclusive)
+	 * @return a lazy iterator over the subscribers of the band
+	 */
+	Iterator<Subscriber> byHours(int minAge, int maxAge) {
+		Subscriber[] ranked = rebuild();
+		int start = start(ranked, minAge);
+
+		// Merge the sorted ages of the band, keeping the next position of each age in
+		// a priority queue
+		PriorityQueue<Head> heads = new PriorityQueue<>();
+		for (int[] count : band(minAge, maxAge).values()) {
+			heads.add(new Head(ranked, start, start + count[0]));
+			start += count[0];
+		}
+
+		return new Iterator<Subscriber>() {
+			@Override
+			public boolean hasNext() {
+				return !heads.isEmpty();
+			}
+
+			@Override
+			public Subscriber next() {
+				Head head = heads.poll();
+
+				if (head == null) {
+					throw new NoSuchElementException();
+				}
+
+				Subscriber subscriber = ranked[head.position++];
+				if (head.position < head.end) {
+					heads.add(head);
+				}
+
+				return subscriber;
+			}
+		};
+	}
+
+	/**
+	 * Returns the ages of a band
+	 *
+	 * @param minAge the minimum age of the band (inclusive)
+	 * @param maxAge the maximum age of the band (inclusive)
+	 * @return a view of the counters of the ages of the band, empty if the band is
+	 *         inverted
+	 */
+	private NavigableMap<Integer, int[]> band(int minAge, int maxAge) {
+		if (minAge > maxAge) {
+			return new TreeMap<>();
+		}
+
+		return countsByAge.subMap(minAge, true, maxAge, true);
+	}
+
+	/**
+	 * Returns the sorted subscribers, rebuilding them first if the ranking
+	 * changed. Readers of a concurrent channel share the ranking lock, so only
+	 * one of them rebuilds it
+	 *
+	 * @return the subscribers sorted by age and hours
+	 */
+	private Subscriber[] rebuild() {
+		if (changed) {
+			synchronized (this) {
+				if (changed) {
+					merge();
+					changed = false;
+				}
+			}
+		}
+
+		return sorted;
+	}
+
+	/**
+	 * Merges the added subscribers into the sorted ones, leaving out the removed
+	 * entries. A subscriber that was removed and added again still has its old
+	 * entry among the sorted ones, which are visited first, so that is the entry
+	 * that is left out
+	 */
+	private void merge() {
+		int live = sortedCount;
+		for (int i = 0; i < sortedCount; i++) {
+			if (consumeRemoval(sorted[i])) {
+				sorted[i] = null;
+				live--;
+			}
+		}
+
+		Subscriber[] fresh = new Subscriber[addedCount];
+		int freshCount = 0;
+		for (int i = 0; i < addedCount; i++) {
+			if (!consumeRemoval(added[i])) {
+				fresh[freshCount++] = added[i];
+			}
+		}
+		Arrays.sort(fresh, 0, freshCount, BY_AGE_THEN_HOURS);
+
+		Subscriber[] merged = new Subscriber[live + freshCount];
+		int count = 0;
+		int next = 0;
+		for (int i = 0; i < sortedCount; i++) {
+			if (sorted[i] == null) {
+				continue;
+			}
+
+			while (next < freshCount && BY_AGE_THEN_HOURS.compare(fresh[next], sorted[i]) < 0) {
+				merged[count++] = fresh[next++];
+			}
+
+			merged[count++] = sorted[i];
+		}
+		while (next < freshCount) {
+			merged[count++] = fresh[next++];
+		}
+
+		sorted = merged;
+		sortedCount = count;
+
+		// Let the buffers shrink after a large batch of changes
+		added = new Subscriber[INITIAL_CAPACITY];
+		addedCount = 0;
+		removed.clear();
+	}
+
+	/**
+	 * Checks if an entry was removed, counting the removal as applied
+	 *
+	 * @param subscriber the subscriber of the entry
+	 * @return a boolean indicating if the entry must be left out
+	 */
+	private boolean consumeRemoval(Subscriber subscriber) {
+		if (removed.isEmpty()) {
+			return false;
+		}
+
+		int[] times = removed.get(subscriber);
+
+		if (times == null) {
+			return false;
+		}
+
+		if (--times[0] == 0) {
+			removed.remove(subscriber);
+		}
+
+		return true;
+	}
+
+	/**
+	 * Finds the position of the first subscriber of an age or older
+	 *
+	 * @param ranked the subscribers sorted by age and hours
+	 * @param minAge the age to look for
+	 * @return the position, which is the number of younger subscribers
+	 */
+	private int start(Subscriber[] ranked, int minAge) {
+		int low = 0;
+		int high = sortedCount;
+
+		while (low < high) {
+			int middle = (low + high) >>> 1;
+
+			if (ranked[middle].getAge() < minAge) {
+				low = middle + 1;
+			} else {
+				high = middle;
+			}
+		}
+
+		return low;
+	}
+
+	/**
+	 * Next position of an age while the ages of a band are merged
+	 */
+	private static class Head implements Comparable<Head> {
+		private Subscriber[] ranked;
+		private int position;
+		private int end;
+
+		private Head(Subscriber[] ranked, int position, int end) {
+			this.ranked = ranked;
+			this.position = position;
+			this.end = end;
+		}
+
+		@Override
+		public int compareTo(Head other) {
+			return MOST_HOURS_FIRST.compare(ranked[position], other.ranked[other.position]);
+		}
+	}
+}
@@ -0,0 +1,246 @@
+package model;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.SortedMap;
+import java.util.TreeMap;
+
+/**
+ * Aggregated figures of the subscribers of a channel: active subscribers and
+ * hours to consume by type, number of subscribers by age and the minor with the
+ * most hours to consume. Each chunk of the subscriber storage is aggregated in
+ * its own statistics, which are then merged
+ */
+public class SubscriberStatistics {
+	// Constants
+	// Ages from 0 to DENSE_AGES - 1 are counted in an array, the rest in a map
+	private static final int DENSE_AGES = 128;
+
+	// Attributes
+	private int subscriberCount;
+	private int activeCount;
+	private int[] activeByType;
+	private long[] hoursByType;
+	private int[] ageCounts;
+	private TreeMap<Integer, Integer> otherAgeCounts;
+
+	// Relation
+	private Subscriber minorMostHours;
+
+	/**
+	 * Constructor of the subscriber statistics class, without any subscriber
+	 */
+	SubscriberStatistics() {
+		activeByType = new int[SubscriberType.values().length];
+		hoursByType = new long[activeByType.length];
+		ageCounts = new int[DENSE_AGES];
+	}
+
+	/**
+	 * Returns the subscriber count
+	 *
+	 * @return number of aggregated subscribers, active or not
+	 */
+	public int getSubscriberCount() {
+		return subscriberCount;
+	}
+
+	/**
+	 * Returns the active count
+	 *
+	 * @return number of active subscribers
+	 */
+	public int getActiveCount() {
+		return activeCount;
+	}
+
+	/**
+	 * Returns the number of active subscribers of a type
+	 *
+	 * @param type the type to count
+	 * @return number of active subscribers of the type
+	 */
+	public int getActiveCount(SubscriberType type) {
+		return activeByType[type.ordinal()];
+	}
+
+	/**
+	 * Returns the total hours to consume of a type
+	 *
+	 * @param type the type to add up
+	 * @return sum of the hours that the subscribers of the type, active or not,
+	 *         are willing to consume
+	 */
+	public long getTotalHours(SubscriberType type) {
+		return hoursByType[type.ordinal()];
+	}
+
+	/**
+	 * Returns the number of subscribers of an age
+	 *
+	 * @param age the age to count
+	 * @return number of subscribers, active or not, with the age
+	 */
+	public int getAgeCount(int age) {
+		if (age >= 0 && age < DENSE_AGES) {
+			return ageCounts[age];
+		}
+
+		Integer count = otherAgeCounts == null ? null : otherAgeCounts.get(age);
+		return count == null ? 0 : count;
+	}
+
+	/**
+	 * Returns the age histogram
+	 *
+	 * @return the number of subscribers of every age that has at least one, from
+	 *         the youngest to the oldest age
+	 */
+	public SortedMap<Integer, Integer> getAgeHistogram() {
+		TreeMap<Integer, Integer> histogram = new TreeMap<>();
+
+		if (otherAgeCounts != null) {
+			histogram.putAll(otherAgeCounts);
+		}
+
+		for (int age = 0; age < DENSE_AGES; age++) {
+			if (ageCounts[age] > 0) {
+				histogram.put(age, ageCounts[age]);
+			}
+		}
+
+		return Collections.unmodifiableSortedMap(histogram);
+	}
+
+	/**
+	 * Returns the minor with the most hours to consume
+	 *
+	 * @return the under-aged subscriber with the most hours willing to consume
+	 *         (the one listed first if several have the same hours), or null if
+	 *         no under-aged subscriber is willing to consume more than 0 hours
+	 */
+	public Subscriber getMinorMostHours() {
+		return minorMostHours;
+	}
+
+	/**
+	 * Adds a subscriber to the statistics
+	 *
+	 * @param subscriber the subscriber to add
+	 */
+	void add(Subscriber subscriber) {
+		int type = subscriber.getType().ordinal();
+		int age = subscriber.getAge();
+		int hours = subscriber.getHoursToConsume();
+
+		subscriberCount++;
+		hoursByType[type] += hours;
+
+		if (subscriber.isActive()) {
+			activeCount++;
+			activeByType[type]++;
+		}
+
+		if (age >= 0 && age < DENSE_AGES) {
+			ageCounts[age]++;
+		} else {
+			addOtherAge(age, 1);
+		}
+
+		if (age < Channel.ADULT_AGE && hours > 0) {
+			minorMostHours = moreHours(minorMostHours, subscriber);
+		}
+	}
+
+	/**
+	 * Adds the figures of other statistics to these ones
+	 *
+	 * @param other the statistics to merge
+	 * @return these statistics
+	 */
+	SubscriberStatistics merge(SubscriberStatistics other) {
+		subscriberCount += other.subscriberCount;
+		activeCount += other.activeCount;
+
+		for (int i = 0; i < activeByType.length; i++) {
+			activeByType[i] += other.activeByType[i];
+			hoursByType[i] += other.hoursByType[i];
+		}
+
+		for (int age = 0; age < DENSE_AGES; age++) {
+			ageCounts[age] += other.ageCounts[age];
+		}
+
+		if (other.otherAgeCounts != null) {
+			for (Map.Entry<Integer, Integer> entry : other.otherAgeCounts.entrySet()) {
+				addOtherAge(entry.getKey(), entry.getValue());
+			}
+		}
+
+		if (other.minorMostHours != null) {
+			minorMostHours = moreHours(minorMostHours, other.minorMostHours);
+		}
+
+		return this;
+	}
+
+	/**
+	 * Counts subscribers of an age outside the array
+	 *
+	 * @param age   the age of the subscribers
+	 * @param count the number of subscribers
+	 */
+	private void addOtherAge(int age, int count) {
+		if (otherAgeCounts == null) {
+			otherAgeCounts = new TreeMap<>();
+		}
+
+		otherAgeCounts.merge(age, count, Integer::sum);
+	}
+
+	/**
+	 * Returns the subscriber with the most hours to consume, or the one in the
+	 * lowest slot if both have the same hours
+	 *
+	 * @param current   the current subscriber, which may be null
+	 * @param candidate the subscriber to compare
+	 * @return the subscriber that ranks first
+	 */
+	private static Subscriber moreHours(Subscriber current, Subscriber candidate) {
+		if (current == null) {
+			return candidate;
+		}
+
+		return SubscriberRanking.MOST_HOURS_FIRST.compare(candidate, current) < 0 ? candidate : current;
+	}
+
+	/**
+	 * Synthesizes the information of the statistics in a String
+	 *
+	 * @return a string representation of the object
+	 */
+	@Override
+	public String toString() {
+		StringBuilder info = new StringBuilder();
+
+		info.append("Subscribers: ").append(subscriberCount).append(" | Active: ").append(activeCount).append('\n');
+		for (SubscriberType type : SubscriberType.values()) {
+			info.append(type).append(": ").append(getActiveCount(type)).append(" active | Hours willing to consume: ")
+					.append(getTotalHours(type)).append('\n');
+		}
+
+		info.append("Subscribers by age:");
+		for (Map.Entry<Integer, Integer> entry : getAgeHistogram().entrySet()) {
+			info.append(' ').append(entry.getKey()).append(": ").append(entry.getValue()).append(" |");
+		}
+		if (info.charAt(info.length() - 1) == '|') {
+			info.setLength(info.length() - 2);
+		}
+
+		info.append("\nMinor with the most hours: ");
+		info.append(minorMostHours == null ? "none"
+				: minorMostHours.getFullName() + " - Hours: " + minorMostHours.getHoursToConsume());
+
+		return info.toString();
+	}
+}
@@ -0,0 +1,395 @@
+package model;
+
+import java.io.IOException;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+
+/**
+ * Generator of synthetic subscribers and products for load tests. The data
+ * follows skewed distributions (most subscribers are young adults with few
+ * hours and NORMAL type, a few categories hold most movies, most shows have few
+ * seasons) and is fully determined by the seed, so the same seed always gives
+ * the same workload. The records can be added to a channel directly or written
+ * in the format read by {@link CatalogLoader}
+ */
+public class WorkloadGenerator {
+	// Constants
+	private static final int SUBSCRIBER_CHUNK = 1 << 16;
+	private static final LocalDate LATEST_DATE = LocalDate.of(2025, 1, 1);
+	private static final int DATE_SPAN_DAYS = 75 * 365;
+	private static final int MAX_SEASONS = 30;
+	private static final int MAX_PROTAGONISTS = 6;
+	private static final SubscriberType[] TYPES = SubscriberType.values();
+	private static final MovieCategory[] CATEGORIES = MovieCategory.values();
+
+	private static final String[] FIRST_NAMES = { "Ana", "Juan", "Maria", "Carlos", "Laura", "Andres", "Sofia",
+			"Daniel", "Valentina", "Felipe", "Camila", "Santiago", "Isabella", "Mateo", "Lucia", "Sebastian",
+			"Mariana", "Nicolas", "Paula", "David", "Sara", "Julian", "Gabriela", "Diego", "Natalia", "Samuel",
+			"Manuela", "Tomas", "Daniela", "Alejandro", "Juliana", "Miguel" };
+	private static final String[] LAST_NAMES = { "Garcia", "Rodriguez", "Martinez", "Lopez", "Gonzalez", "Perez",
+			"Sanchez", "Ramirez", "Torres", "Flores", "Rivera", "Gomez", "Diaz", "Cruz", "Morales", "Reyes",
+			"Gutierrez", "Ortiz", "Ramos", "Castro", "Vargas", "Rojas", "Herrera", "Medina", "Aguilar", "Valencia",
+			"Mendoza", "Silva", "Castillo", "Jimenez", "Moreno", "Romero" };
+	private static final String[] SYNOPSES = { "A story about family and second chances",
+			"Two strangers cross paths in a city that never sleeps", "A detective follows a trail of old letters",
+			"A small town hides a secret under the lake", "A team of friends plans the heist of the century",
+			"An unlikely hero must save the kingdom", "A chef rebuilds her life one recipe at a time",
+			"A haunted house wakes up every winter" };
+	private static final String[] CENSOR_MOTIFS = { "Violence", "Language", "Drug use", "Nudity" };
+
+	// Category weights in the order of MovieCategory (ROMANTIC, ACTION, SUSPENSE,
+	// HORROR, COMEDY)
+	private static final int[] CATEGORY_WEIGHTS = { 15, 30, 15, 15, 25 };
+	// Type weights in the order of SubscriberType (NORMAL, GOLD, PLATINUM, DIAMOND)
+	private static final int[] TYPE_WEIGHTS = { 70, 20, 7, 3 };
+	private static final int[] WATCH_AGES = { 0, 7, 13, 16, 18 };
+
+	// Attributes
+	private SplittableRandom random;
+	private String[] fullNames;
+	private String[] people;
+
+	// Fields of the last generated subscriber
+	private int age;
+	private int hoursToConsume;
+	private boolean active;
+	private int typeOrdinal;
+
+	// Fields of the last generated product
+	private boolean movie;
+	private String director;
+	private String synopsis;
+	private LocalDate premierDate;
+	private String producer;
+	private int minimumWatchAge;
+	private int categoryOrdinal;
+	private String[] protagonists;
+	private boolean censored;
+	private String censorMotif;
+	private int seasonCount;
+	private int[] seasonEpisodes = new int[MAX_SEASONS];
+
+	/**
+	 * Constructor of the workload generator class
+	 *
+	 * @param seed the seed that determines the generated data
+	 */
+	public WorkloadGenerator(long seed) {
+		random = new SplittableRandom(seed);
+
+		// Every combination of first and last name is built once and shared by the
+		// subscribers, directors and protagonists that use it
+		fullNames = new String[FIRST_NAMES.length * LAST_NAMES.length];
+		for (int i = 0; i < fullNames.length; i++) {
+			fullNames[i] = FIRST_NAMES[i / LAST_NAMES.length] + " " + LAST_NAMES[i % LAST_NAMES.length];
+		}
+
+		// Directors, producers and protagonists come from a smaller pool, so names repeat
+		people = new String[256];
+		for (int i = 0; i < people.length; i++) {
+			people[i] = fullNames[(i * 37) % fullNames.length];
+		}
+	}
+
+	/**
+	 * Returns the id of a generated subscriber
+	 *
+	 * @param index the position of the subscriber in the generated sequence
+	 * @return the id of the subscriber
+	 */
+	public static String subscriberId(int index) {
+		return "S" + index;
+	}
+
+	/**
+	 * Returns the name of a generated product
+	 *
+	 * @param index the position of the product in the generated sequence
+	 * @return the name of the product
+	 */
+	public static String productName(int index) {
+		return "Title " + index;
+	}
+
+	/**
+	 * Adds generated subscribers to a channel in batches. The storage is grown
+	 * once for all of them
+	 *
+	 * <p>
+	 * <b>Precondition: </b> The channel has no subscriber with a generated id
+	 * <p>
+	 * <b>Postcondition: </b> The subscribers are stored in the channel
+	 *
+	 * @param channel the channel to fill
+	 * @param count   the number of subscribers to generate
+	 * @return the number of subscribers that were added
+	 */
+	public int addSubscribers(Channel channel, int count) {
+		channel.ensureSubscriberCapacity((int) Math.min((long) channel.getSubscriberCount() + count,
+				SlotStore.MAX_CAPACITY));
+
+		List<Subscriber> chunk = new ArrayList<>(Math.min(count, SUBSCRIBER_CHUNK));
+		int added = 0;
+
+		for (int i = 0; i < count; i++) {
+			chunk.add(nextSubscriber(i));
+
+			if (chunk.size() == SUBSCRIBER_CHUNK || i == count - 1) {
+				added += channel.addSubscribers(chunk).getAddedCount();
+				chunk.clear();
+			}
+		}
+
+		return added;
+	}
+
+	/**
+	 * Adds generated products to a channel, with the seasons of the shows
+	 *
+	 * <p>
+	 * <b>Precondition: </b> The channel has no product with a generated name
+	 * <p>
+	 * <b>Postcondition: </b> The products are stored in the channel
+	 *
+	 * @param channel the channel to fill
+	 * @param count   the number of products to generate
+	 * @return the number of products that were added
+	 */
+	public int addProducts(Channel channel, int count) {
+		channel.ensureProductCapacity(channel.getProductCount() + count);
+		int before = channel.getProductCount();
+
+		for (int i = 0; i < count; i++) {
+			String name = productName(i);
+			nextProductFields();
+
+			if (movie) {
+				channel.addProduct(name, director, synopsis, premierDate, producer, minimumWatchAge, trailerUrl(i),
+						categoryOrdinal + 1);
+			} else {
+				channel.addProduct(name, director, synopsis, premierDate, protagonists, censored, censorMotif);
+
+				for (int season = 0; season < seasonCount; season++) {
+					channel.addSeasonToShow(name, seasonEpisodes[season], premierDate.plusYears(season + 1L),
+							seasonTrailerUrl(i, season));
+				}
+			}
+		}
+
+		return channel.getProductCount() - before;
+	}
+
+	/**
+	 * Writes generated subscribers and products as CatalogLoader records. The
+	 * records are the same that a new generator with the same seed adds to a
+	 * channel by calling addSubscribers and then addProducts with the same counts
+	 *
+	 * <p>
+	 * <b>Precondition: </b> The delimiter is not used in the generated text (a
+	 * comma or a tab)
+	 * <p>
+	 * <b>Postcondition: </b> One record per line is written to the output
+	 *
+	 * @param out         the output in which the records are written
+	 * @param delimiter   the character that separates the fields
+	 * @param subscribers the number of subscribers to generate
+	 * @param products    the number of products to generate
+	 * @throws IOException if the output cannot be written
+	 */
+	public void write(Appendable out, char delimiter, int subscribers, int products) throws IOException {
+		for (int i = 0; i < subscribers; i++) {
+			String fullName = nextSubscriberFields();
+
+			out.append("SUBSCRIBER").append(delimiter).append(subscriberId(i)).append(delimiter).append(fullName)
+					.append(delimiter).append(Integer.toString(age)).append(delimiter)
+					.append(Integer.toString(hoursToConsume)).append(delimiter).append(active ? "true" : "false")
+					.append(delimiter).append(TYPES[typeOrdinal].name()).append('\n');
+		}
+
+		for (int i = 0; i < products; i++) {
+			String name = productName(i);
+			nextProductFields();
+
+			out.append(movie ? "MOVIE" : "SHOW").append(delimiter).append(name).append(delimiter).append(director)
+					.append(delimiter).append(synopsis).append(delimiter).append(premierDate.toString())
+					.append(delimiter);
+
+			if (movie) {
+				out.append(producer).append(delimiter).append(Integer.toString(minimumWatchAge)).append(delimiter)
+						.append(trailerUrl(i)).append(delimiter).append(CATEGORIES[categoryOrdinal].name())
+						.append('\n');
+			} else {
+				for (int p = 0; p < protagonists.length; p++) {
+					if (p > 0) {
+						out.append('|');
+					}
+					out.append(protagonists[p]);
+				}
+
+				out.append(delimiter).append(censored ? "true" : "false").append(delimiter).append(censorMotif)
+						.append('\n');
+
+				for (int season = 0; season < seasonCount; season++) {
+					out.append("SEASON").append(delimiter).append(name).append(delimiter)
+							.append(Integer.toString(seasonEpisodes[season])).append(delimiter)
+							.append(premierDate.plusYears(season + 1L).toString()).append(delimiter)
+							.append(seasonTrailerUrl(i, season)).append('\n');
+				}
+			}
+		}
+	}
+
+	/**
+	 * Generates the next subscriber
+	 *
+	 * @param index the position of the subscriber in the generated sequence
+	 * @return the new subscriber, which is not in any channel yet
+	 */
+	private Subscriber nextSubscriber(int index) {
+		Subscriber subscriber = new Subscriber(subscriberId(index), nextSubscriberFields(), age, hoursToConsume);
+
+		// New subscribers are active and NORMAL, so only other states are set
+		if (typeOrdinal != SubscriberType.NORMAL.ordinal()) {
+			subscriber.setType(typeOrdinal + 1);
+		}
+		if (!active) {
+			subscriber.setActive(false);
+		}
+
+		return subscriber;
+	}
+
+	/**
+	 * Generates the fields of the next subscriber. The age, hours, activity and
+	 * type are left in the attributes of the generator
+	 *
+	 * @return the full name of the subscriber
+	 */
+	private String nextSubscriberFields() {
+		String fullName = pick(fullNames);
+
+		// 15% minors, 55% young adults and 30% older adults
+		int group = random.nextInt(100);
+		if (group < 15) {
+			age = 6 + random.nextInt(12);
+		} else if (group < 70) {
+			age = 18 + random.nextInt(18);
+		} else {
+			age = 36 + (int) (45 * square(random.nextDouble()));
+		}
+
+		// Exponential hours, so most subscribers watch little and a few watch a lot
+		hoursToConsume = 1 + (int) Math.min(-40 * Math.log(1 - random.nextDouble()), 719);
+
+		// Inactive subscribers are always NORMAL, as after a deactivation
+		active = random.nextInt(100) < 92;
+		typeOrdinal = active ? pickWeighted(TYPE_WEIGHTS) : SubscriberType.NORMAL.ordinal();
+
+		return fullName;
+	}
+
+	/**
+	 * Generates the fields of the next product and leaves them in the attributes
+	 * of the generator. 60% of the products are movies
+	 */
+	private void nextProductFields() {
+		movie = random.nextInt(100) < 60;
+		director = pick(people);
+		synopsis = pick(SYNOPSES);
+		premierDate = nextDate();
+
+		if (movie) {
+			producer = pick(people);
+			minimumWatchAge = WATCH_AGES[random.nextInt(WATCH_AGES.length)];
+			categoryOrdinal = pickWeighted(CATEGORY_WEIGHTS);
+		} else {
+			protagonists = new String[1 + random.nextInt(MAX_PROTAGONISTS)];
+			for (int p = 0; p < protagonists.length; p++) {
+				protagonists[p] = pick(people);
+			}
+
+			censored = random.nextInt(10) == 0;
+			censorMotif = censored ? pick(CENSOR_MOTIFS) : "";
+
+			// Geometric number of seasons, so most shows have one or two
+			seasonCount = 1;
+			while (seasonCount < MAX_SEASONS && random.nextInt(100) < 60) {
+				seasonCount++;
+			}
+
+			for (int season = 0; season < seasonCount; season++) {
+				seasonEpisodes[season] = 6 + random.nextInt(20);
+			}
+		}
+	}
+
+	/**
+	 * Generates a premier date, more likely to be recent
+	 *
+	 * @return the generated date
+	 */
+	private LocalDate nextDate() {
+		return LATEST_DATE.minusDays((long) (DATE_SPAN_DAYS * square(random.nextDouble())));
+	}
+
+	/**
+	 * Returns the trailer URL of a generated product
+	 *
+	 * @param index the position of the product in the generated sequence
+	 * @return the trailer URL
+	 */
+	private static String trailerUrl(int index) {
+		return "https://trailers.blacksnail.example/" + index;
+	}
+
+	/**
+	 * Returns the trailer URL of a season of a generated show
+	 *
+	 * @param index  the position of the show in the generated sequence
+	 * @param season the position of the season in the show
+	 * @return the trailer URL
+	 */
+	private static String seasonTrailerUrl(int index, int season) {
+		return trailerUrl(index) + "/" + (season + 1);
+	}
+
+	/**
+	 * Picks a uniformly random element
+	 *
+	 * @param values the values to pick from
+	 * @return the picked value
+	 */
+	private String pick(String[] values) {
+		return values[random.nextInt(values.length)];
+	}
+
+	/**
+	 * Picks a position with a probability proportional to its weight
+	 *
+	 * @param weights the weights of the positions, adding up to 100
+	 * @return the picked position
+	 */
+	private int pickWeighted(int[] weights) {
+		int roll = random.nextInt(100);
+		int position = 0;
+
+		while (position < weights.length - 1 && roll >= weights[position]) {
+			roll -= weights[position];
+			position++;
+		}
+
+		return position;
+	}
+
+	/**
+	 * Squares a number
+	 *
+	 * @param value the number to square
+	 * @return the square of the number
+	 */
+	private static double square(double value) {
+		return value * value;
+	}
+}
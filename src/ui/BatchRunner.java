@@ -0,0 +1,383 @@
+package ui;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.DateTimeException;
+import java.time.LocalDate;
+import java.util.List;
+
+import model.CatalogLoader;
+import model.Channel;
+import model.ChannelJournal;
+import model.ChannelJournal.SyncPolicy;
+import model.ChannelSnapshot;
+import model.MovieCategory;
+import model.Product;
+import model.Subscriber;
+import model.SubscriberQuery;
+import model.SubscriberType;
+
+/**
+ * Runs a script of channel commands without prompts, so that a workload can be
+ * replayed against a channel from a file or from the standard input. Each line
+ * is one command whose arguments are separated by tabs:
+ *
+ * <pre>
+ * CHANNEL            nit  address  website
+ * SUBSCRIBE          id  fullName  age  hoursToConsume
+ * DEACTIVATE         id
+ * REMOVE             id
+ * COMPACT
+ * SUBSCRIBERS
+ * ACTIVE_BY_TYPE
+ * MINOR_MOST_HOURS
+ * STATISTICS
+ * TOP_HOURS          minAge  maxAge  count  [type]
+ * MOVIE              name  director  synopsis  premierDate  producer  minimumWatchAge  trailerUrl  category
+ * SHOW               name  director  synopsis  premierDate  protagonists  censored  censorMotif
+ * SEASON             showName  scheduledEpisodes  premierDate  trailerUrl
+ * PRODUCT            name
+ * DIRECTOR           nameOfDirector
+ * PREMIERED          from  to
+ * SEARCH             words  [ALL|ANY]
+ * MOVIES             category
+ * SHOWS
+ * LOAD_CATALOG       path  [CSV|TSV]
+ * SAVE               path
+ * LOAD               path
+ * JOURNAL            path  snapshotPath  [ALWAYS|INTERVAL|NEVER]
+ * CHECKPOINT         snapshotPath
+ * RECOVER            snapshotPath  journalPath
+ * </pre>
+ *
+ * Dates use the yyyy-MM-dd format, protagonists are separated by '|', the
+ * category is its selection number (1 to 5) and the subscriber type is its
+ * name. Empty lines and lines starting with '#' are skipped. The result of
+ * every command is written to a buffered output, which is only flushed when
+ * the script ends, and the journal of the channel is closed at that moment
+ */
+public class BatchRunner {
+	// Attributes
+	private Channel channel;
+	private Writer out;
+	private int executedCommands;
+	private int failedCommands;
+
+	/**
+	 * Constructor of the batch runner class
+	 *
+	 * @param channel the channel on which the commands are run
+	 * @param out     the output in which the results are written
+	 */
+	public BatchRunner(Channel channel, Writer out) {
+		this.channel = channel;
+		this.out = out;
+	}
+
+	/**
+	 * Returns the channel
+	 *
+	 * @return the channel on which the commands are run, which changes after a
+	 *         CHANNEL or LOAD command
+	 */
+	public Channel getChannel() {
+		return channel;
+	}
+
+	/**
+	 * Returns the number of executed commands
+	 *
+	 * @return the number of commands that were run, including the failed ones
+	 */
+	public int getExecutedCommands() {
+		return executedCommands;
+	}
+
+	/**
+	 * Returns the number of failed commands
+	 *
+	 * @return the number of commands that could not be run
+	 */
+	public int getFailedCommands() {
+		return failedCommands;
+	}
+
+	/**
+	 * Runs every command of a script
+	 *
+	 * <p>
+	 * <b>Precondition: </b> The script is open
+	 * <p>
+	 * <b>Postcondition: </b> The commands are run in order and their results are
+	 * written to the output. A command that cannot be run, or that fails while it
+	 * runs, is reported with its line number, and the script continues with the
+	 * next one. The journal is closed and the output flushed even if the script
+	 * cannot be read to its end
+	 *
+	 * @param script the reader of the script
+	 * @throws IOException if the script cannot be read or the output cannot be
+	 *                     written
+	 */
+	public void run(BufferedReader script) throws IOException {
+		int lineNumber = 0;
+		String line;
+
+		try {
+			while ((line = script.readLine()) != null) {
+				lineNumber++;
+
+				if (line.isEmpty() || line.charAt(0) == '#') {
+					continue;
+				}
+
+				executedCommands++;
+
+				try {
+					execute(line.split("\t", -1));
+				} catch (IllegalArgumentException | IndexOutOfBoundsException | DateTimeException e) {
+					failedCommands++;
+					out.write("Line " + lineNumber + ": Error, invalid command (" + e.getMessage() + ")\n");
+				} catch (RuntimeException e) {
+					// A failure of the channel (e.g. of its journal) only fails the command
+					failedCommands++;
+					out.write("Line " + lineNumber + ": Error, the command failed (" + e + ")\n");
+				}
+			}
+		} finally {
+			try {
+				closeJournal();
+			} finally {
+				out.write("Commands executed: " + executedCommands + " | Failed: " + failedCommands + "\n");
+				out.flush();
+			}
+		}
+	}
+
+	/**
+	 * Runs a single command
+	 *
+	 * @param fields the name of the command followed by its arguments
+	 * @throws IOException if the output cannot be written
+	 */
+	private void execute(String[] fields) throws IOException {
+		switch (fields[0]) {
+		case "CHANNEL":
+			closeJournal();
+			channel = new Channel(fields[1], fields[2], fields[3]);
+			writeLine("Channel created");
+			break;
+		case "SUBSCRIBE":
+			writeLine(Main.getMessage(
+					channel.addSubscriber(fields[1], fields[2], parseInt(fields[3]), parseInt(fields[4]))));
+			break;
+		case "DEACTIVATE":
+			writeLine(Main.getMessage(channel.deactivateSubscriber(fields[1])));
+			break;
+		case "REMOVE":
+			writeLine(Main.getMessage(channel.removeSubscriber(fields[1])));
+			break;
+		case "COMPACT":
+			channel.compactSubscribers();
+			writeLine("Subscribers compacted");
+			break;
+		case "SUBSCRIBERS":
+			channel.printSubscribers(out);
+			break;
+		case "ACTIVE_BY_TYPE":
+			writeLine(channel.printActiveSubscribersByType());
+			break;
+		case "MINOR_MOST_HOURS":
+			writeLine(channel.printMinorMostHoursSub());
+			break;
+		case "STATISTICS":
+			writeLine(channel.printSubscriberStatistics());
+			break;
+		case "TOP_HOURS":
+			SubscriberQuery query = channel.subscribers().ageBetween(parseInt(fields[1]), parseInt(fields[2]));
+			if (fields.length > 4) {
+				query = query.ofType(SubscriberType.valueOf(fields[4].trim().toUpperCase()));
+			}
+			writeSubscribers(query.topByHours(parseInt(fields[3])));
+			break;
+		case "MOVIE":
+			writeLine(Main.getMessage(channel.addProduct(fields[1], fields[2], fields[3], LocalDate.parse(fields[4]),
+					fields[5], parseInt(fields[6]), fields[7], parseInt(fields[8]))));
+			break;
+		case "SHOW":
+			String[] protagonists = fields[5].isEmpty() ? new String[0] : fields[5].split("\\|");
+			writeLine(Main.getMessage(channel.addProduct(fields[1], fields[2], fields[3], LocalDate.parse(fields[4]),
+					protagonists, Boolean.parseBoolean(fields[6]), fields[7])));
+			break;
+		case "SEASON":
+			writeLine(Main.getMessage(
+					channel.addSeasonToShow(fields[1], parseInt(fields[2]), LocalDate.parse(fields[3]), fields[4])));
+			break;
+		case "PRODUCT":
+			writeLine(channel.printProductInfo(fields[1]));
+			break;
+		case "DIRECTOR":
+			writeProducts(channel.searchProductsByDirector(fields[1]));
+			break;
+		case "PREMIERED":
+			writeProducts(channel.searchProductsByPremierDate(LocalDate.parse(fields[1]), LocalDate.parse(fields[2])));
+			break;
+		case "SEARCH":
+			boolean allWords = fields.length < 3 || !fields[2].equalsIgnoreCase("ANY");
+			writeProducts(channel.searchProductsByKeywords(fields[1], allWords));
+			break;
+		case "MOVIES":
+			int selection = parseInt(fields[1]);
+			if (selection < 1 || selection > MovieCategory.values().length) {
+				writeLine("Error, invalid selection");
+			} else if (!channel.printMoviesOfCategory(MovieCategory.values()[selection - 1], out)) {
+				writeLine("*There are no movies by this category*");
+			}
+			break;
+		case "SHOWS":
+			if (!channel.printShowsWithLastSeasons(out)) {
+				writeLine("*There are no shows yet*");
+			}
+			break;
+		case "LOAD_CATALOG":
+		case "SAVE":
+		case "LOAD":
+		case "JOURNAL":
+		case "CHECKPOINT":
+		case "RECOVER":
+			executeFileCommand(fields);
+			break;
+		default:
+			throw new IllegalArgumentException("unknown command " + fields[0]);
+		}
+	}
+
+	/**
+	 * Runs a command that reads or writes a file. A file that cannot be read or
+	 * written makes the command fail without stopping the script
+	 *
+	 * @param fields the name of the command followed by its arguments
+	 * @throws IOException if the output cannot be written
+	 */
+	private void executeFileCommand(String[] fields) throws IOException {
+		String message;
+
+		try {
+			if (fields[0].equals("LOAD_CATALOG")) {
+				char delimiter = fields.length > 2 && fields[2].equalsIgnoreCase("TSV") ? CatalogLoader.TSV
+						: CatalogLoader.CSV;
+				message = new CatalogLoader(delimiter).load(Paths.get(fields[1]), channel).toString();
+			} else if (fields[0].equals("SAVE")) {
+				ChannelSnapshot.write(channel, Paths.get(fields[1]));
+				message = "The channel has been saved successfully";
+			} else if (fields[0].equals("JOURNAL")) {
+				SyncPolicy policy = fields.length > 3 ? SyncPolicy.valueOf(fields[3].trim().toUpperCase())
+						: SyncPolicy.INTERVAL;
+				Path snapshot = Paths.get(fields[2]);
+
+				// The current content of the channel is saved in the snapshot, on top of
+				// which the journal is replayed
+				closeJournal();
+				ChannelJournal journal = ChannelJournal.open(Paths.get(fields[1]), policy,
+						ChannelJournal.DEFAULT_SYNC_INTERVAL_MILLIS);
+				try {
+					channel.setJournal(journal, snapshot);
+				} catch (IOException | RuntimeException e) {
+					journal.close();
+					throw e;
+				}
+				message = "The changes of the channel are recorded in the journal";
+			} else if (fields[0].equals("CHECKPOINT")) {
+				if (channel.getJournal() == null) {
+					throw new IllegalArgumentException("the channel has no journal");
+				}
+
+				channel.getJournal().checkpoint(channel, Paths.get(fields[1]));
+				message = "The checkpoint has been made successfully";
+			} else if (fields[0].equals("RECOVER")) {
+				Channel recovered = ChannelJournal.recover(Paths.get(fields[1]), Paths.get(fields[2]));
+				closeJournal();
+				channel = recovered;
+				message = "The channel has been recovered successfully";
+			} else {
+				Channel loaded = ChannelSnapshot.read(Paths.get(fields[1]));
+				closeJournal();
+				channel = loaded;
+				message = "The channel has been loaded successfully";
+			}
+		} catch (IOException e) {
+			failedCommands++;
+			message = "Error, the file " + fields[1] + " could not be used: " + e.getMessage();
+		}
+
+		writeLine(message);
+	}
+
+	/**
+	 * Closes the journal of the channel, before the channel is replaced or the
+	 * script ends
+	 *
+	 * @throws IOException if the journal cannot be synced
+	 */
+	private void closeJournal() throws IOException {
+		if (channel != null && channel.getJournal() != null) {
+			channel.getJournal().close();
+			channel.setJournal(null, null);
+		}
+	}
+
+	/**
+	 * Writes the information of a list of subscribers
+	 *
+	 * @param found the subscribers to write
+	 * @throws IOException if the output cannot be written
+	 */
+	private void writeSubscribers(List<Subscriber> found) throws IOException {
+		if (found.isEmpty()) {
+			writeLine("*No subscribers found*");
+		}
+
+		for (Subscriber subscriber : found) {
+			writeLine(subscriber.toString());
+		}
+	}
+
+	/**
+	 * Writes the information of a list of products
+	 *
+	 * @param found the products to write
+	 * @throws IOException if the output cannot be written
+	 */
+	private void writeProducts(List<Product> found) throws IOException {
+		if (found.isEmpty()) {
+			writeLine("*No products found*");
+		}
+
+		for (Product product : found) {
+			writeLine(product.toString());
+		}
+	}
+
+	/**
+	 * Writes a message followed by a line break
+	 *
+	 * @param message the message to write
+	 * @throws IOException if the output cannot be written
+	 */
+	private void writeLine(String message) throws IOException {
+		out.write(message);
+		out.write('\n');
+	}
+
+	/**
+	 * Parses an int argument
+	 *
+	 * @param field the argument to parse
+	 * @return the parsed number
+	 */
+	private static int parseInt(String field) {
+		return Integer.parseInt(field.trim());
+	}
+}
@@ -1,9 +1,20 @@
 package ui;
 
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
 import java.time.LocalDate;
 import java.util.*;
 
 import model.Channel;
+import model.ChannelSnapshot;
+import model.OperationResult;
 
 /**
  * Program to manage all the functionalities of the streaming application of
@@ -38,9 +49,10 @@ public class Main {
 			System.out.println("\n---------------------------------------------------\n");
 			System.out.println("1. Register a new subscriber");
 			System.out.println("2. Deactivate a subscriber");
-			System.out.println("3. Show the active subscribers by type");
-			System.out.println("4. Show minor subscriber with the most hours willing to consume");
-			System.out.println("5. Exit subscriber menu");
+			System.out.println("3. Remove a subscriber");
+			System.out.println("4. Show the active subscribers by type");
+			System.out.println("5. Show minor subscriber with the most hours willing to consume");
+			System.out.println("6. Exit subscriber menu");
 			System.out.println("\n---------------------------------------------------\n");
 			selection = s.nextInt();
 
@@ -62,7 +74,7 @@ public class Main {
 				break;
 			case 3:
 				if (blackSnail.checkSubscriberExistence()) {
-					showActiveSubscribersByType();
+					removeSubscriber();
 				} else {
 					System.out.println("There are no subscribers yet");
 					System.out.println("Press enter to continue...");
@@ -72,7 +84,7 @@ public class Main {
 				break;
 			case 4:
 				if (blackSnail.checkSubscriberExistence()) {
-					showMinorMostHoursSub();
+					showActiveSubscribersByType();
 				} else {
 					System.out.println("There are no subscribers yet");
 					System.out.println("Press enter to continue...");
@@ -81,6 +93,16 @@ public class Main {
 				}
 				break;
 			case 5:
+				if (blackSnail.checkSubscriberExistence()) {
+					showMinorMostHoursSub();
+				} else {
+					System.out.println("There are no subscribers yet");
+					System.out.println("Press enter to continue...");
+					s.nextLine();
+					s.nextLine();
+				}
+				break;
+			case 6:
 				exit = true;
 				break;
 			default:
@@ -124,7 +146,7 @@ public class Main {
 
 		// Create the new subscriber (if there is space and the id is not repeated) and
 		// print the result of the operation
-		System.out.println("\n" + blackSnail.addSubscriber(id, fullName, age, hoursToConsume));
+		System.out.println("\n" + getMessage(blackSnail.addSubscriber(id, fullName, age, hoursToConsume)));
 		System.out.println("Press enter to continue...");
 		s.nextLine();
 		s.nextLine();
@@ -141,19 +163,43 @@ public class Main {
 	 * subscriber or not
 	 */
 	public static void deactivateSubscriber() {
-		int pos = 0;
+		String id = "";
 
-		// Prints all the subscribers in a numbered list and asks for the number of the
-		// subscriber that will be deactivated
-		System.out.println("\n" + blackSnail.printSubscribers());
-		System.out.print("Input the number of the subscriber that will be deactivated or input 0 to cancel: ");
-		pos = s.nextInt();
+		// Ask for the id of the subscriber that will be deactivated
+		System.out.print("\nInput the id of the subscriber that will be deactivated or leave it empty to cancel: ");
+		s.nextLine();
+		id = s.nextLine();
 
 		// If the user decided not to cancel, proceed with the deactivation
-		if (pos != 0) {
-			System.out.println("\n" + blackSnail.deactivateSubscriber(pos - 1));
+		if (!id.isEmpty()) {
+			System.out.println("\n" + getMessage(blackSnail.deactivateSubscriber(id)));
 			System.out.println("Press enter to continue...");
 			s.nextLine();
+		}
+	}
+
+	/**
+	 * Removes the desired subscriber from the channel
+	 * 
+	 * <p>
+	 * <b>Precondition: </b> The user selected the option to remove a subscriber in
+	 * the menu and at least one subscriber exists
+	 * <p>
+	 * <b>Postcondition: </b> A message that may indicate the removal of the
+	 * subscriber or not
+	 */
+	public static void removeSubscriber() {
+		String id = "";
+
+		// Ask for the id of the subscriber that will be removed
+		System.out.print("\nInput the id of the subscriber that will be removed or leave it empty to cancel: ");
+		s.nextLine();
+		id = s.nextLine();
+
+		// If the user decided not to cancel, proceed with the removal
+		if (!id.isEmpty()) {
+			System.out.println("\n" + getMessage(blackSnail.removeSubscriber(id)));
+			System.out.println("Press enter to continue...");
 			s.nextLine();
 		}
 	}
@@ -362,8 +408,8 @@ public class Main {
 			}
 
 			// Display message indicating the result of the addition of the show
-			System.out.println("\n" + blackSnail.addProduct(name, nameOfDirector, synopsis, premierDate, protagonists,
-					censored, censorMotif));
+			System.out.println("\n" + getMessage(blackSnail.addProduct(name, nameOfDirector, synopsis, premierDate,
+					protagonists, censored, censorMotif)));
 
 			System.out.println("\nPress enter to continue to the creation of the first season...");
 			s.nextLine();
@@ -429,8 +475,8 @@ public class Main {
 			} while (movieCategorySelection <= 0 || movieCategorySelection > 5);
 
 			// Display message indicating the result of the addition of the movie
-			System.out.println("\n" + blackSnail.addProduct(name, nameOfDirector, synopsis, premierDate, producer,
-					minimumWatchAge, trailerUrl, movieCategorySelection));
+			System.out.println("\n" + getMessage(blackSnail.addProduct(name, nameOfDirector, synopsis, premierDate,
+					producer, minimumWatchAge, trailerUrl, movieCategorySelection)));
 
 			System.out.println("\nPress enter to continue...");
 			s.nextLine();
@@ -511,7 +557,8 @@ public class Main {
 		trailerUrl = s.nextLine();
 
 		// Display a message indicating the result of the addition of the season to the show
-		System.out.println("\n" + blackSnail.addSeasonToShow(nameOfShow, scheduledEpisodes, premierDate, trailerUrl));
+		System.out.println(
+				"\n" + getMessage(blackSnail.addSeasonToShow(nameOfShow, scheduledEpisodes, premierDate, trailerUrl)));
 
 		System.out.println("\nPress enter to continue...");
 		s.nextLine();
@@ -553,7 +600,8 @@ public class Main {
 		s.nextLine();
 		trailerUrl = s.nextLine();
 
-		System.out.println("\n" + blackSnail.addSeasonToShow(nameOfShow, scheduledEpisodes, premierDate, trailerUrl));
+		System.out.println(
+				"\n" + getMessage(blackSnail.addSeasonToShow(nameOfShow, scheduledEpisodes, premierDate, trailerUrl)));
 
 		System.out.println("\nPress enter to continue...");
 		s.nextLine();
@@ -604,6 +652,142 @@ public class Main {
 		s.nextLine();
 	}
 
+	/**
+	 * Saves the whole channel to a snapshot file
+	 * 
+	 * <p>
+	 * <b>Precondition: </b> The user selected the option to save the channel in the
+	 * menu
+	 * <p>
+	 * <b>Postcondition: </b> A message indicating the result of the operation
+	 */
+	public static void saveSnapshot() {
+		String path = "";
+
+		System.out.print("\nIntroduce the path of the snapshot file: ");
+		s.nextLine();
+		path = s.nextLine();
+
+		try {
+			ChannelSnapshot.write(blackSnail, Paths.get(path));
+			System.out.println("\nThe channel has been saved successfully");
+		} catch (IOException e) {
+			System.out.println("\nError, the snapshot could not be written: " + e.getMessage());
+		}
+
+		System.out.println("Press enter to continue...");
+		s.nextLine();
+	}
+
+	/**
+	 * Replaces the current channel with the one stored in a snapshot file
+	 * 
+	 * <p>
+	 * <b>Precondition: </b> The user selected the option to load a channel in the
+	 * menu
+	 * <p>
+	 * <b>Postcondition: </b> The loaded channel is in use, or a message indicating
+	 * why it could not be loaded
+	 */
+	public static void loadSnapshot() {
+		String path = "";
+
+		System.out.print("\nIntroduce the path of the snapshot file: ");
+		s.nextLine();
+		path = s.nextLine();
+
+		try {
+			blackSnail = ChannelSnapshot.read(Paths.get(path));
+			System.out.println("\nThe channel has been loaded successfully");
+		} catch (IOException e) {
+			System.out.println("\nError, the snapshot could not be read: " + e.getMessage());
+		}
+
+		System.out.println("Press enter to continue...");
+		s.nextLine();
+	}
+
+	/**
+	 * Returns the message shown to the user for the result of an operation
+	 * 
+	 * @param result the result of an operation on the channel
+	 * @return a message describing the result
+	 */
+	public static String getMessage(OperationResult result) {
+		switch (result) {
+		case SUBSCRIBER_ADDED:
+			return "Subscriber added successfully";
+		case SUBSCRIBER_DEACTIVATED:
+			return "Subscriber deactivated successfully";
+		case SUBSCRIBER_REMOVED:
+			return "Subscriber removed successfully";
+		case MOVIE_ADDED:
+			return "Movie added successfully";
+		case SHOW_ADDED:
+			return "Show added successfully";
+		case SEASON_ADDED:
+			return "The season has been added successfully";
+		case NO_ROOM_FOR_SUBSCRIBERS:
+			return "Error, there is no room for more subscribers";
+		case DUPLICATE_SUBSCRIBER_ID:
+			return "Error, there is already a subscriber with the same id";
+		case INVALID_SUBSCRIBER:
+			return "Error, the subscriber is not valid";
+		case SUBSCRIBER_NOT_FOUND:
+			return "Error, subscriber does not exist";
+		case NO_ROOM_FOR_PRODUCTS:
+			return "Error, there is no room for more products";
+		case DUPLICATE_PRODUCT_NAME:
+			return "Error, there is already a product with the same name";
+		case INVALID_PRODUCT:
+			return "Error, the product must have a name";
+		case SHOW_NOT_FOUND:
+			return "Error, there is no show by that name";
+		case NOT_A_SHOW:
+			return "The introduced name of product does not correspond to a show";
+		case INVALID_SEASON:
+			return "Error, the season already belongs to a show";
+		default:
+			return result.name();
+		}
+	}
+
+	/**
+	 * Runs a script of commands without the menu. The results are written to a
+	 * buffered standard output
+	 * 
+	 * <p>
+	 * <b>Precondition: </b> The program was executed with the --batch option
+	 * <p>
+	 * <b>Postcondition: </b> Every command of the script is run on the channel
+	 * 
+	 * @param script the path of the script, or "-" to read the commands from the
+	 *               standard input
+	 */
+	public static void runBatch(String script) {
+		Writer out = new BufferedWriter(new OutputStreamWriter(System.out, StandardCharsets.UTF_8), 1 << 16);
+
+		try (BufferedReader reader = script.equals("-")
+				? new BufferedReader(new InputStreamReader(System.in, StandardCharsets.UTF_8), 1 << 16)
+				: Files.newBufferedReader(Paths.get(script), StandardCharsets.UTF_8)) {
+			BatchRunner runner = new BatchRunner(blackSnail, out);
+			try {
+				runner.run(reader);
+			} finally {
+				blackSnail = runner.getChannel();
+			}
+		} catch (IOException | RuntimeException e) {
+			System.err.println("Error, the script could not be run: " + e.getMessage());
+		} finally {
+			// Write whatever the script produced before it stopped
+			try {
+				out.flush();
+			} catch (IOException e) {
+				System.err.println("Error, the output could not be written: " + e.getMessage());
+			}
+		}
+	}
+
 	/**
 	 * Calls the principal methods, creates the channel and shows the main menu
 	 * 
@@ -612,9 +796,18 @@ public class Main {
 	 * <p>
 	 * <b>Postcondition: </b> Redirection to the system functionalities
 	 * 
-	 * @param args
+	 * @param args empty to use the menu, or --batch followed by the path of a
+	 *             script ("-" for the standard input) to run it without prompts
 	 */
 	public static void main(String[] args) {
+		// In batch mode the channel is created by the script (CHANNEL command) or
+		// left without data
+		if (args.length > 0 && args[0].equals("--batch")) {
+			blackSnail = new Channel("", "", "");
+			runBatch(args.length > 1 ? args[1] : "-");
+			return;
+		}
+
 		// Initialize channel data, exit boolean and selection integer for the menu
 		String nit = "";
 		String address = "";
@@ -644,7 +837,9 @@ public class Main {
 			System.out.println("Input a number according to the desired action: ");
 			System.out.println("1. Manage Subscribers");
 			System.out.println("2. Manage Products");
-			System.out.println("3. Exit program");
+			System.out.println("3. Save channel to a snapshot file");
+			System.out.println("4. Load channel from a snapshot file");
+			System.out.println("5. Exit program");
 			System.out.println("\n---------------------------------------------------\n");
 			selection = s.nextInt();
 
@@ -658,6 +853,12 @@ public class Main {
 				manageProducts();
 				break;
 			case 3:
+				saveSnapshot();
+				break;
+			case 4:
+				loadSnapshot();
+				break;
+			case 5:
 				System.out.println("Exiting program...");
 				exit = true;
 				break;